@@ -0,0 +1,146 @@
+package org.example.task_one;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates moving_violations JSON files in the layout {@link TaskOne} reads:
+ * a top-level array of objects with {@code date_time} ({@code yyyy-dd-MM HH:mm:ss}),
+ * {@code first_name}, {@code last_name}, {@code type} and {@code fine_amount}.
+ * The content depends only on the arguments, so the same corpus can be rebuilt
+ * on any machine for benchmarks and tests.
+ * <p>
+ * Usage: {@code ViolationCorpusGenerator <output dir> <files> <rows per file> [seed]}
+ */
+public final class ViolationCorpusGenerator {
+
+    public static final long DEFAULT_SEED = 2022;
+    // The first file holds the violations of this year, each next file - of the next year
+    public static final int FIRST_YEAR = 2001;
+
+    private static final ViolationType[] TYPES = ViolationType.values();
+    // Base fine of each type by ordinal, the amount is up to twice as big
+    private static final int[] BASE_FINES = {
+            340, 120, 460, 60, 820, 180, 3000, 1340, 1660, 85, 230, 310, 540
+    };
+    private static final String[] FIRST_NAMES = {
+            "Ivan", "Olena", "Petro", "Maria", "Taras", "Lesia", "Andrii", "Oksana",
+            "Dmytro", "Iryna", "Mykola", "Natalia", "Serhii", "Tetiana", "Yurii", "Halyna",
+            "Oleh", "Sofiia", "Bohdan", "Kateryna", "Roman", "Yuliia", "Vasyl", "Anna"
+    };
+    private static final String[] LAST_NAME_ROOTS = {
+            "Shevchenk", "Kovalenk", "Bondarenk", "Tkachenk", "Kravchenk", "Melnychenk",
+            "Boyk", "Kovalchuk", "Oliynyk", "Lysenk", "Marchenk", "Savchenk", "Rudenk",
+            "Moroz", "Pavlenk", "Petrenk", "Klymenk", "Levchenk", "Karpenk", "Ponomarenk"
+    };
+    private static final String[] LAST_NAME_SUFFIXES = {
+            "o", "ov", "ovych", "iuk", "ovskyi", "ko", "yk", "ets", "ii", "an"
+    };
+    private static final String[] CENTS = {"00", "00", "00", "50", "20", "75", "40", "15"};
+
+    private ViolationCorpusGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: ViolationCorpusGenerator <output dir> <files> <rows per file> [seed]");
+            return;
+        }
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_SEED;
+        List<File> files = generate(Path.of(args[0]), Integer.parseInt(args[1]),
+                Integer.parseInt(args[2]), seed);
+        System.out.println("Generated " + files.size() + " files in " + args[0]);
+    }
+
+    /**
+     * Writes the corpus into the directory, replacing files with the same names.
+     * @param outputDir directory to write into, created if missing
+     * @param files number of files
+     * @param rowsPerFile number of violations in each file
+     * @param seed seed of the content
+     * @return generated files in order
+     * @throws IOException if a file cannot be written
+     */
+    public static List<File> generate(Path outputDir, int files, int rowsPerFile, long seed) throws IOException {
+        Files.createDirectories(outputDir);
+        List<File> generated = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            int year = FIRST_YEAR + i;
+            Path file = outputDir.resolve("violations_" + year + ".json");
+            // Each file has its own stream of numbers, so a file does not depend on the others
+            writeFile(file, year, rowsPerFile, new SplittableRandom(seed * 31 + i));
+            generated.add(file.toFile());
+        }
+        return generated;
+    }
+
+    /**
+     * Generates the corpus unless the directory already holds it: the content depends
+     * only on the arguments, so the files are reused when their names match.
+     * @param outputDir directory of the corpus
+     * @param files number of files
+     * @param rowsPerFile number of violations in each file
+     * @param seed seed of the content
+     * @return files of the corpus in order
+     * @throws IOException if a file cannot be written
+     */
+    public static List<File> generateIfMissing(Path outputDir, int files, int rowsPerFile, long seed)
+            throws IOException {
+        Path marker = outputDir.resolve(".corpus-" + files + "x" + rowsPerFile + "-" + seed);
+        if (!Files.exists(marker)) {
+            generate(outputDir, files, rowsPerFile, seed);
+            Files.createFile(marker);
+        }
+        List<File> existing = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            existing.add(outputDir.resolve("violations_" + (FIRST_YEAR + i) + ".json").toFile());
+        }
+        return existing;
+    }
+
+    private static void writeFile(Path file, int year, int rows, SplittableRandom random) throws IOException {
+        StringBuilder row = new StringBuilder(192);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("[\n");
+            for (int i = 0; i < rows; i++) {
+                row.setLength(0);
+                appendViolation(row, year, random);
+                row.append(i + 1 < rows ? ",\n" : "\n");
+                writer.append(row);
+            }
+            writer.write("]\n");
+        }
+    }
+
+    private static void appendViolation(StringBuilder row, int year, SplittableRandom random) {
+        ViolationType type = TYPES[random.nextInt(TYPES.length)];
+        int baseFine = BASE_FINES[type.ordinal()];
+        row.append("  {\"date_time\": \"").append(year).append('-');
+        appendTwoDigits(row, 1 + random.nextInt(28)).append('-');
+        appendTwoDigits(row, 1 + random.nextInt(12)).append(' ');
+        appendTwoDigits(row, random.nextInt(24)).append(':');
+        appendTwoDigits(row, random.nextInt(60)).append(':');
+        appendTwoDigits(row, random.nextInt(60));
+        row.append("\", \"first_name\": \"").append(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)])
+                .append("\", \"last_name\": \"").append(LAST_NAME_ROOTS[random.nextInt(LAST_NAME_ROOTS.length)])
+                .append(LAST_NAME_SUFFIXES[random.nextInt(LAST_NAME_SUFFIXES.length)])
+                .append("\", \"type\": \"").append(type.name())
+                .append("\", \"fine_amount\": ").append(baseFine + random.nextInt(baseFine + 1))
+                .append('.').append(CENTS[random.nextInt(CENTS.length)])
+                .append('}');
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder row, int value) {
+        if (value < 10) {
+            row.append('0');
+        }
+        return row.append(value);
+    }
+}
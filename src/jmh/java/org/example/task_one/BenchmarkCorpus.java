@@ -0,0 +1,52 @@
+package org.example.task_one;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Input files of the benchmarks: a corpus generated by {@link ViolationCorpusGenerator}
+ * under target/jmh-corpus (kept between runs), or the JSON files of a given directory.
+ */
+final class BenchmarkCorpus {
+
+    private static final Path CORPUS_ROOT = Path.of("target", "jmh-corpus");
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * @param files number of files
+     * @param rowsPerFile number of violations in each file
+     * @return files of the generated corpus
+     * @throws IOException if the corpus cannot be written
+     */
+    static List<File> generated(int files, int rowsPerFile) throws IOException {
+        Path dir = CORPUS_ROOT.resolve(files + "x" + rowsPerFile);
+        return ViolationCorpusGenerator.generateIfMissing(dir, files, rowsPerFile,
+                ViolationCorpusGenerator.DEFAULT_SEED);
+    }
+
+    /**
+     * @param dir directory with JSON files
+     * @return JSON files of the directory, sorted by name
+     * @throws IOException if the directory cannot be listed
+     */
+    static List<File> fromDirectory(String dir) throws IOException {
+        List<File> files;
+        try (Stream<Path> paths = Files.list(Path.of(dir))) {
+            files = paths.filter(p -> p.toString().endsWith(".json"))
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+        if (files.isEmpty()) {
+            throw new IllegalStateException("No JSON files in " + dir);
+        }
+        return files;
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.task_one;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream reader vs memory-mapped reader on the moving_violations corpus
+ * (22 files, 500 thousand violations each, as in the measurements of {@link TaskOne})
+ * generated by {@link ViolationCorpusGenerator}, or on the files of the given directory.
+ * Run with: java -jar target/benchmarks.jar InputModeBenchmark
+ * [-p corpusDir=src/main/resources/moving_violations/json]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InputModeBenchmark {
+
+    // Empty - the generated corpus
+    @Param({""})
+    public String corpusDir;
+
+    @Param({"STREAM", "MEMORY_MAPPED"})
+    public InputMode inputMode;
+
+    @Param({"TOKEN_STREAM", "DATABIND"})
+    public JsonDecoder decoder;
+
+    private List<File> files;
+    private StatsOptions options;
+
+    @Setup
+    public void setUp() throws IOException {
+        files = corpusDir.isEmpty()
+                ? BenchmarkCorpus.generated(22, 500_000)
+                : BenchmarkCorpus.fromDirectory(corpusDir);
+        options = new StatsOptions().setInputMode(inputMode).setDecoder(decoder);
+    }
+
+    @Benchmark
+    public ViolationTotals read() {
+        return TaskOne.getViolationTotals(files, options);
+    }
+}
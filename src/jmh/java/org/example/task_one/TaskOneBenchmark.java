@@ -0,0 +1,195 @@
+package org.example.task_one;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stages of the {@link TaskOne} pipeline on a generated corpus
+ * (see {@link ViolationCorpusGenerator}), with the given number of threads:
+ * <ul>
+ *     <li>{@link #readOnly()} - reading and tokenizing the files, nothing is decoded</li>
+ *     <li>{@link #aggregateOnly()} - adding already decoded violations to {@link ViolationTotals}</li>
+ *     <li>{@link #endToEnd()} - {@link TaskOne#overallViolationsStats(List, StatsOptions)}</li>
+ *     <li>{@link #endToEndTimeBuckets()} - the same, also totalling each year and month
+ *     of the date_time ({@link StatsOptions#setTimeBuckets(boolean)})</li>
+ *     <li>{@link #endToEndTopDrivers()} - the same, also picking the top 100 drivers
+ *     ({@link StatsOptions#setTopDrivers(int)})</li>
+ *     <li>{@link #endToEndFineDistribution()} - the same, also summarizing the distribution
+ *     of the fine amounts ({@link StatsOptions#setFineDistribution(boolean)})</li>
+ *     <li>{@link #endToEndDistinctDrivers()} - the same, also estimating the distinct drivers
+ *     of each type ({@link StatsOptions#setDistinctDrivers(int)})</li>
+ * </ul>
+ * Run with: java -jar target/benchmarks.jar TaskOneBenchmark [-p rowsPerFile=500000]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class TaskOneBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"22"})
+    public int files;
+
+    @Param({"100000"})
+    public int rowsPerFile;
+
+    private List<File> corpus;
+    private ExecutorService executor;
+    private File output;
+    private StatsOptions options;
+    private StatsOptions timeBucketsOptions;
+    private StatsOptions topDriversOptions;
+    private StatsOptions fineDistributionOptions;
+    private StatsOptions distinctDriversOptions;
+
+    // Decoded corpus for aggregateOnly(): type ordinal and fine in cents of each violation
+    private byte[] types;
+    private long[] fineCents;
+
+    @Setup
+    public void setUp() throws IOException {
+        corpus = BenchmarkCorpus.generated(files, rowsPerFile);
+        executor = Executors.newFixedThreadPool(threads);
+        output = Files.createTempFile("output_2", ".xml").toFile();
+        options = new StatsOptions().setParallelism(threads).setOutputFile(output);
+        timeBucketsOptions = new StatsOptions().setParallelism(threads).setOutputFile(output).setTimeBuckets(true);
+        topDriversOptions = new StatsOptions().setParallelism(threads).setOutputFile(output).setTopDrivers(100);
+        fineDistributionOptions = new StatsOptions().setParallelism(threads).setOutputFile(output)
+                .setFineDistribution(true);
+        distinctDriversOptions = new StatsOptions().setParallelism(threads).setOutputFile(output)
+                .setDistinctDrivers(DistinctDrivers.DEFAULT_PRECISION);
+        decodeCorpus();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+        output.delete();
+    }
+
+    @Benchmark
+    public long readOnly() {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        JsonFactory factory = new JsonFactory();
+        for (File file : corpus) {
+            futures.add(CompletableFuture.supplyAsync(() -> countTokens(factory, file), executor));
+        }
+        long tokens = 0;
+        for (CompletableFuture<Long> future : futures) {
+            tokens += future.join();
+        }
+        return tokens;
+    }
+
+    @Benchmark
+    public ViolationTotals aggregateOnly() {
+        ViolationType[] values = ViolationType.values();
+        List<CompletableFuture<ViolationTotals>> futures = new ArrayList<>();
+        int slice = (types.length + threads - 1) / threads;
+        for (int from = 0; from < types.length; from += slice) {
+            int start = from;
+            int end = Math.min(types.length, from + slice);
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                ViolationTotals partial = new ViolationTotals();
+                for (int i = start; i < end; i++) {
+                    partial.add(values[types[i]], fineCents[i], 2);
+                }
+                return partial;
+            }, executor));
+        }
+        ViolationTotals totals = new ViolationTotals();
+        futures.forEach(future -> totals.merge(future.join()));
+        return totals;
+    }
+
+    @Benchmark
+    public File endToEnd() {
+        return TaskOne.overallViolationsStats(corpus, options);
+    }
+
+    @Benchmark
+    public File endToEndTimeBuckets() {
+        return TaskOne.overallViolationsStats(corpus, timeBucketsOptions);
+    }
+
+    @Benchmark
+    public File endToEndTopDrivers() {
+        return TaskOne.overallViolationsStats(corpus, topDriversOptions);
+    }
+
+    @Benchmark
+    public File endToEndFineDistribution() {
+        return TaskOne.overallViolationsStats(corpus, fineDistributionOptions);
+    }
+
+    @Benchmark
+    public File endToEndDistinctDrivers() {
+        return TaskOne.overallViolationsStats(corpus, distinctDriversOptions);
+    }
+
+    private static long countTokens(JsonFactory factory, File file) {
+        long tokens = 0;
+        try (JsonParser parser = factory.createParser(file)) {
+            while (parser.nextToken() != null) {
+                tokens++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+
+    private void decodeCorpus() throws IOException {
+        int rows = files * rowsPerFile;
+        types = new byte[rows];
+        fineCents = new long[rows];
+        JsonFactory factory = new JsonFactory();
+        int row = 0;
+        for (File file : corpus) {
+            try (JsonParser parser = factory.createParser(file)) {
+                while (parser.nextToken() != null) {
+                    if (parser.currentToken() != JsonToken.FIELD_NAME) {
+                        continue;
+                    }
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    if ("type".equals(name)) {
+                        types[row] = (byte) ViolationType.valueOf(parser.getText()).ordinal();
+                    } else if ("fine_amount".equals(name)) {
+                        // The generator writes amounts with 2 decimals, and the type before the amount
+                        fineCents[row++] = parser.getDecimalValue().unscaledValue().longValueExact();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.task_one;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answering a question of the generated corpus (see {@link ViolationCorpusGenerator})
+ * by parsing it again vs from a {@link ViolationStore} loaded once:
+ * <ul>
+ *     <li>{@link #reparseTotals()} - {@link TaskOne#getViolationTotals(List, StatsOptions)}</li>
+ *     <li>{@link #storeTotals()} - the same totals by type from the store</li>
+ *     <li>{@link #storeFilteredByMonth()} - totals by month of two types above a fine</li>
+ * </ul>
+ * Run with: java -jar target/benchmarks.jar ViolationStoreBenchmark [-p rowsPerFile=500000]
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ViolationStoreBenchmark {
+
+    @Param({"22"})
+    public int files;
+
+    @Param({"100000"})
+    public int rowsPerFile;
+
+    private List<File> corpus;
+    private StatsOptions options;
+    private ViolationStore store;
+
+    @Setup
+    public void setUp() throws IOException {
+        corpus = BenchmarkCorpus.generated(files, rowsPerFile);
+        options = new StatsOptions();
+        store = TaskOne.loadViolationStore(corpus, options);
+    }
+
+    @Benchmark
+    public ViolationTotals reparseTotals() {
+        return TaskOne.getViolationTotals(corpus, options);
+    }
+
+    @Benchmark
+    public ViolationTotals storeTotals() {
+        return store.query().totalsByType();
+    }
+
+    @Benchmark
+    public SortedMap<YearMonth, ViolationTotals> storeFilteredByMonth() {
+        return store.query()
+                .types(ViolationType.SPEEDING, ViolationType.STREET_RACING)
+                .fines(new BigDecimal("500"), null)
+                .totalsByMonth();
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.task_two;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Setting the bound fields of a class through reflective {@link Field#set(Object, Object)}
+ * (as {@link TaskTwo} did before the binding plans) vs through the
+ * {@link java.lang.invoke.MethodHandle} setters of {@link BindingPlan.FieldBinding}.
+ * The values are already parsed, so only the creation of the object and
+ * the assignment are measured.
+ * <ul>
+ *     <li>{@code ExMainClass} - String, int (annotated) and Instant fields</li>
+ *     <li>{@code Annotated} - the same fields as ExampleClassAnnotated of the tests:
+ *     String and Integer (both annotated) and Instant</li>
+ * </ul>
+ * Run with: java -jar target/benchmarks.jar BinderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BinderBenchmark {
+
+    @Param({"ExMainClass", "Annotated"})
+    public String boundClass;
+
+    private BindingPlan<?> plan;
+    private BindingPlan.FieldBinding[] bindings;
+    private Object[] values;
+    // Value of an int field is set unboxed, as it comes from Integer.parseInt()
+    private int[] intValues;
+
+    @Setup
+    public void setUp() {
+        Class<?> cls = boundClass.equals("ExMainClass") ? ExMainClass.class : Annotated.class;
+        plan = BindingPlan.of(cls);
+        bindings = plan.getBindings();
+        values = new Object[bindings.length];
+        intValues = new int[bindings.length];
+        for (int i = 0; i < bindings.length; i++) {
+            Class<?> type = bindings[i].getField().getType();
+            if (type == String.class) {
+                values[i] = "98kio98";
+            } else if (type == int.class || type == Integer.class) {
+                values[i] = 9;
+                intValues[i] = 9;
+            } else {
+                values[i] = Instant.parse("2022-11-29T18:30:00Z");
+            }
+        }
+    }
+
+    @Benchmark
+    public Object reflective() throws IllegalAccessException {
+        Object target = plan.newInstance();
+        for (int i = 0; i < bindings.length; i++) {
+            bindings[i].getField().set(target, values[i]);
+        }
+        return target;
+    }
+
+    @Benchmark
+    public Object methodHandle() {
+        Object target = plan.newInstance();
+        for (int i = 0; i < bindings.length; i++) {
+            BindingPlan.FieldBinding binding = bindings[i];
+            if (binding.getField().getType() == int.class) {
+                binding.setInt(target, intValues[i]);
+            } else {
+                binding.set(target, values[i]);
+            }
+        }
+        return target;
+    }
+
+    public static class Annotated {
+        @Property(expectedPropertyName = "stringN")
+        private String stringProperty;
+        @Property(expectedPropertyName = "number")
+        private Integer numberProperty;
+        private Instant timeProperty;
+    }
+}
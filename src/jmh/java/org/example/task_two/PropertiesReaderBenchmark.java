@@ -0,0 +1,96 @@
+package org.example.task_two;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a large properties file into a map:
+ * <ul>
+ *     <li>{@code scanner} - {@link PropertiesScanner} of {@link TaskTwo}</li>
+ *     <li>{@code propertiesLoad} - {@link Properties#load(Reader)}</li>
+ *     <li>{@code lineSplit} - the reader of TaskTwo before the scanner:
+ *     BufferedReader.readLine() and split("=") of every line</li>
+ * </ul>
+ * The file has only plain {@code key=value} lines, the one syntax all three read the same way.
+ * It is generated under target/jmh-corpus (kept between runs); 200000 entries are about 10 MB.
+ * Run with: java -jar target/benchmarks.jar PropertiesReaderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PropertiesReaderBenchmark {
+
+    @Param({"20000", "200000"})
+    public int entries;
+
+    private Path propertiesPath;
+
+    @Setup
+    public void setUp() throws IOException {
+        propertiesPath = Path.of("target", "jmh-corpus", "properties-" + entries + ".properties");
+        if (Files.exists(propertiesPath)) {
+            return;
+        }
+        Files.createDirectories(propertiesPath.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(propertiesPath, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < entries; i++) {
+                writer.write("service.section" + (i % 100) + ".property" + i +
+                        "=value " + i + " of the section " + (i % 100) + " 29.11.2022 18:30");
+                writer.newLine();
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> scanner() throws IOException {
+        return PropertiesScanner.read(propertiesPath);
+    }
+
+    @Benchmark
+    public Properties propertiesLoad() throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(propertiesPath, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    @Benchmark
+    public Map<String, String> lineSplit() throws IOException {
+        String s;
+        Map<String, String> mapFromProperties = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new FileReader(String.valueOf(propertiesPath)), 4 * 1024)) {
+            while ((s = reader.readLine()) != null) {
+                String[] keyAndValue = s.split("=");
+                mapFromProperties.put(keyAndValue[0].trim(), keyAndValue[1].trim());
+            }
+        }
+        return mapFromProperties;
+    }
+}
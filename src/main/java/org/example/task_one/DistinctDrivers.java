@@ -0,0 +1,202 @@
+package org.example.task_one;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Mergeable approximate number of distinct drivers of each {@link ViolationType}
+ * (see {@link StatsOptions#setDistinctDrivers(int)}): a HyperLogLog sketch per type,
+ * fed with the 64-bit hash of the names of the driver ({@link DriverTotals#hash(char[], int, char[], int)}).
+ * <p>
+ * With precision p, a sketch has 2^p one-byte registers: the first p bits of the hash
+ * pick a register, which keeps the longest run of leading zeros seen in the other bits.
+ * The memory is 2^p bytes per type whatever the number of rows (4 KB at the
+ * {@link #DEFAULT_PRECISION}), and the standard error of an estimate is 1.04 / sqrt(2^p)
+ * (1.6% at precision 12, 0.8% at 14). Small counts, up to 2.5 * 2^p, are estimated
+ * by linear counting of the empty registers, which is more accurate there.
+ * <p>
+ * Merging takes the maximum of each register, so the estimate of merged sketches is
+ * the estimate of the union of the drivers, and a driver seen in several files is
+ * counted once.
+ * <p>
+ * Not thread-safe: each task fills its own instance, and the instances are merged afterwards.
+ */
+public final class DistinctDrivers {
+
+    /**
+     * Suggested precision for {@link StatsOptions#setDistinctDrivers(int)}: 4 KB per type, 1.6% error.
+     */
+    public static final int DEFAULT_PRECISION = 12;
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 18;
+
+    private static final ViolationType[] TYPES = ViolationType.values();
+
+    private final int precision;
+    // Registers of each type, null until the type is seen
+    private final byte[][] registers = new byte[TYPES.length][];
+
+    /**
+     * @param precision number of bits of the hash that pick a register,
+     * from {@link #MIN_PRECISION} to {@link #MAX_PRECISION}
+     */
+    DistinctDrivers(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be from " + MIN_PRECISION + " to "
+                    + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+    }
+
+    /**
+     * @return number of bits of the hash that pick a register
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Adds the driver of one decoded violation.
+     * @param row fields of the violation, with the hash of the names
+     */
+    void add(ViolationRow row) {
+        add(row.type, row.nameHash);
+    }
+
+    /**
+     * Adds the driver of one violation.
+     * @param type type of the violation
+     * @param nameHash hash of the names of the driver, see {@link DriverTotals#hash(String, String)}
+     */
+    void add(ViolationType type, long nameHash) {
+        byte[] typeRegisters = registers[type.ordinal()];
+        if (typeRegisters == null) {
+            typeRegisters = new byte[1 << precision];
+            registers[type.ordinal()] = typeRegisters;
+        }
+        int register = (int) (nameHash >>> (Long.SIZE - precision));
+        // The marker bit bounds the run of zeros when the other bits are all zero
+        byte rank = (byte) (Long.numberOfLeadingZeros((nameHash << precision) | (1L << (precision - 1))) + 1);
+        if (rank > typeRegisters[register]) {
+            typeRegisters[register] = rank;
+        }
+    }
+
+    /**
+     * Adds all the drivers of the other sketches to these ones.
+     * @param other sketches to merge, left unchanged
+     * @throws IllegalArgumentException if the other sketches have another precision
+     */
+    void merge(DistinctDrivers other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of precision " + other.precision
+                    + " into sketches of precision " + precision);
+        }
+        for (int i = 0; i < TYPES.length; i++) {
+            byte[] otherRegisters = other.registers[i];
+            if (otherRegisters == null) {
+                continue;
+            }
+            if (registers[i] == null) {
+                registers[i] = otherRegisters.clone();
+                continue;
+            }
+            byte[] typeRegisters = registers[i];
+            for (int r = 0; r < typeRegisters.length; r++) {
+                if (otherRegisters[r] > typeRegisters[r]) {
+                    typeRegisters[r] = otherRegisters[r];
+                }
+            }
+        }
+    }
+
+    /**
+     * @param type type of the violation
+     * @return estimated number of distinct drivers with a violation of the given type
+     */
+    public long estimate(ViolationType type) {
+        byte[] typeRegisters = registers[type.ordinal()];
+        if (typeRegisters == null) {
+            return 0;
+        }
+        int m = typeRegisters.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte rank : typeRegisters) {
+            sum += Double.longBitsToDouble((long) (1023 - rank) << 52); // 2^-rank
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros != 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return estimated number of distinct drivers of each type that has at least one violation
+     */
+    public Map<ViolationType, Long> estimates() {
+        Map<ViolationType, Long> estimates = new EnumMap<>(ViolationType.class);
+        for (ViolationType type : TYPES) {
+            if (registers[type.ordinal()] != null) {
+                estimates.put(type, estimate(type));
+            }
+        }
+        return estimates;
+    }
+
+    /**
+     * Writes the sketches in a compact binary form, see {@link #readFrom(DataInput)}.
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(precision);
+        for (byte[] typeRegisters : registers) {
+            out.writeBoolean(typeRegisters != null);
+            if (typeRegisters != null) {
+                out.write(typeRegisters);
+            }
+        }
+    }
+
+    /**
+     * @param in input written by {@link #writeTo(DataOutput)}
+     * @return sketches with the read registers
+     * @throws IOException if reading fails
+     */
+    static DistinctDrivers readFrom(DataInput in) throws IOException {
+        int precision = in.readInt();
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IOException("Invalid precision: " + precision);
+        }
+        DistinctDrivers distinctDrivers = new DistinctDrivers(precision);
+        for (int i = 0; i < TYPES.length; i++) {
+            if (in.readBoolean()) {
+                byte[] typeRegisters = new byte[1 << precision];
+                in.readFully(typeRegisters);
+                distinctDrivers.registers[i] = typeRegisters;
+            }
+        }
+        return distinctDrivers;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
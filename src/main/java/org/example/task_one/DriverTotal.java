@@ -0,0 +1,73 @@
+package org.example.task_one;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Number of violations and total fine amount of one driver, an entry of the top drivers
+ * of {@link DriverTotals}.
+ */
+public final class DriverTotal {
+
+    private final String firstName;
+    private final String lastName;
+    private final long count;
+    private final BigDecimal fineTotal;
+
+    DriverTotal(String firstName, String lastName, long count, BigDecimal fineTotal) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.count = count;
+        this.fineTotal = fineTotal;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    /**
+     * @return number of violations of the driver
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return total fine amount of the driver
+     */
+    public BigDecimal getFineTotal() {
+        return fineTotal;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DriverTotal)) {
+            return false;
+        }
+        DriverTotal that = (DriverTotal) o;
+        return count == that.count && firstName.equals(that.firstName) && lastName.equals(that.lastName)
+                && fineTotal.equals(that.fineTotal);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(firstName, lastName, count, fineTotal);
+    }
+
+    @Override
+    public String toString() {
+        return "DriverTotal{" +
+                "firstName=" + firstName +
+                ", lastName=" + lastName +
+                ", count=" + count +
+                ", fineTotal=" + fineTotal +
+                '}';
+    }
+}
@@ -0,0 +1,583 @@
+package org.example.task_one;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Mergeable number of violations and total fine amount of each driver (first and last name),
+ * for the top drivers of a run (see {@link StatsOptions#setTopDrivers(int)}).
+ * <p>
+ * There may be as many drivers as violations, so the totals are kept outside of the heap,
+ * in an open-addressing hash table of direct {@link ByteBuffer}s: a slot of 32 bytes holds
+ * the 64-bit hash of the names, the count, the fine total and the offset of the names,
+ * which are kept as UTF-16 characters in a second buffer. The decoder hashes the names
+ * from the characters of the parser (see {@link #hash(char[], int, char[], int)}), so adding
+ * a violation creates no String and no object; a table of n drivers takes about
+ * {@code n * (64 + 8 + 2 * name length)} bytes of direct memory and a few objects on the heap.
+ * The fine totals have a scale common to the table, raised when an amount has a larger one.
+ * As in {@link ViolationTotals}, a total that does not fit into {@code long} at that scale
+ * falls back to {@link BigDecimal}: the slot then points to it in a list on the heap.
+ * The table holds at most 2^25 slots, half full, so up to 16.7 million drivers.
+ * <p>
+ * The top drivers are picked in one pass over the slots with a bounded heap of the best
+ * n slots, only those n are turned into {@link DriverTotal} objects.
+ * <p>
+ * Not thread-safe: each task fills its own instance, and the instances are merged afterwards.
+ */
+public final class DriverTotals {
+
+    // Slot layout, a slot with a zero count is empty
+    private static final int SLOT_BYTES = 32;
+    private static final int HASH = 0;
+    private static final int COUNT = 8;
+    private static final int FINE_TOTAL = 16;
+    private static final int NAMES = 24;
+    // 1 + index of the total in overflowTotals, 0 while the total is the long at FINE_TOTAL
+    private static final int OVERFLOW = 28;
+    // Names layout: int first name length, int last name length, then the characters
+    private static final int NAMES_HEADER_BYTES = 8;
+
+    private static final int INITIAL_SLOTS = 1024;
+    private static final int INITIAL_NAME_BYTES = 16 * 1024;
+    // Largest power of two of slots whose bytes fit into a buffer (2^25 * 32 = 1 GB)
+    private static final int MAX_SLOTS = 1 << 25;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ByteBuffer slots = allocate(INITIAL_SLOTS * SLOT_BYTES);
+    private int mask = INITIAL_SLOTS - 1;
+    private int size;
+    private ByteBuffer names = allocate(INITIAL_NAME_BYTES);
+    private int namesEnd;
+    private int scale;
+    // Totals that overflowed long, see OVERFLOW
+    private final List<BigDecimal> overflowTotals = new ArrayList<>();
+
+    /**
+     * 64-bit hash of the names of a driver: FNV-1a of the characters, the first name length
+     * mixed in before them (so the split between the names counts), then finalized with the
+     * mixer of MurmurHash3 so that all the bits of the hash depend on all the characters.
+     * @param firstName characters of the first name
+     * @param firstLength number of characters of the first name
+     * @param lastName characters of the last name
+     * @param lastLength number of characters of the last name
+     * @return the hash
+     */
+    static long hash(char[] firstName, int firstLength, char[] lastName, int lastLength) {
+        long hash = (FNV_OFFSET ^ firstLength) * FNV_PRIME;
+        for (int i = 0; i < firstLength; i++) {
+            hash = (hash ^ firstName[i]) * FNV_PRIME;
+        }
+        for (int i = 0; i < lastLength; i++) {
+            hash = (hash ^ lastName[i]) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Same hash as {@link #hash(char[], int, char[], int)}, of the names as strings.
+     * @param firstName first name of the driver
+     * @param lastName last name of the driver
+     * @return the hash
+     */
+    static long hash(String firstName, String lastName) {
+        long hash = (FNV_OFFSET ^ firstName.length()) * FNV_PRIME;
+        for (int i = 0; i < firstName.length(); i++) {
+            hash = (hash ^ firstName.charAt(i)) * FNV_PRIME;
+        }
+        for (int i = 0; i < lastName.length(); i++) {
+            hash = (hash ^ lastName.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Adds one decoded violation to the totals of its driver.
+     * @param row fields of the violation, with the names and their hash
+     */
+    void add(ViolationRow row) {
+        if (row.fineBig == null) {
+            add(row.nameHash, row.firstName, row.firstNameLength, row.lastName, row.lastNameLength,
+                    1, row.fineUnscaled, row.fineScale);
+        } else {
+            add(row.nameHash, row.firstName, row.firstNameLength, row.lastName, row.lastNameLength, 1, row.fineBig);
+        }
+    }
+
+    /**
+     * Adds the fine amount of one violation to the totals of its driver.
+     * @param firstName first name of the driver
+     * @param lastName last name of the driver
+     * @param fineAmount fine amount of the violation
+     */
+    void add(String firstName, String lastName, BigDecimal fineAmount) {
+        char[] first = firstName.toCharArray();
+        char[] last = lastName.toCharArray();
+        add(hash(first, first.length, last, last.length), first, first.length, last, last.length, 1, fineAmount);
+    }
+
+    /**
+     * Adds all the drivers of the other table to this one.
+     * @param other table to merge, left unchanged
+     */
+    void merge(DriverTotals other) {
+        char[] first = new char[16];
+        char[] last = new char[16];
+        for (int slot = 0; slot < other.slots.capacity(); slot += SLOT_BYTES) {
+            long count = other.slots.getLong(slot + COUNT);
+            if (count == 0) {
+                continue;
+            }
+            int at = other.slots.getInt(slot + NAMES);
+            int firstLength = other.names.getInt(at);
+            int lastLength = other.names.getInt(at + 4);
+            first = other.readChars(at + NAMES_HEADER_BYTES, firstLength, first);
+            last = other.readChars(at + NAMES_HEADER_BYTES + 2 * firstLength, lastLength, last);
+            long hash = other.slots.getLong(slot + HASH);
+            int overflow = other.slots.getInt(slot + OVERFLOW);
+            if (overflow == 0) {
+                add(hash, first, firstLength, last, lastLength, count, other.slots.getLong(slot + FINE_TOTAL),
+                        other.scale);
+            } else {
+                add(hash, first, firstLength, last, lastLength, count, other.overflowTotals.get(overflow - 1));
+            }
+        }
+    }
+
+    /**
+     * @return number of distinct drivers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param n number of drivers to return
+     * @return at most n drivers with the largest fine totals, the largest first
+     * (ties by the number of violations, then by the names)
+     */
+    public List<DriverTotal> topByFineTotal(int n) {
+        return top(n, true);
+    }
+
+    /**
+     * @param n number of drivers to return
+     * @return at most n drivers with the most violations, the most first
+     * (ties by the fine total, then by the names)
+     */
+    public List<DriverTotal> topByCount(int n) {
+        return top(n, false);
+    }
+
+    /**
+     * Writes the drivers in a compact binary form, see {@link #readFrom(DataInput)}.
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(scale);
+        out.writeInt(size);
+        for (int slot = 0; slot < slots.capacity(); slot += SLOT_BYTES) {
+            if (slots.getLong(slot + COUNT) == 0) {
+                continue;
+            }
+            int at = slots.getInt(slot + NAMES);
+            int firstLength = names.getInt(at);
+            int lastLength = names.getInt(at + 4);
+            writeChars(out, at + NAMES_HEADER_BYTES, firstLength);
+            writeChars(out, at + NAMES_HEADER_BYTES + 2 * firstLength, lastLength);
+            out.writeLong(slots.getLong(slot + COUNT));
+            int overflow = slots.getInt(slot + OVERFLOW);
+            if (overflow == 0) {
+                out.writeBoolean(false);
+                out.writeLong(slots.getLong(slot + FINE_TOTAL));
+            } else {
+                BigDecimal total = overflowTotals.get(overflow - 1);
+                byte[] unscaled = total.unscaledValue().toByteArray();
+                out.writeBoolean(true);
+                out.writeInt(unscaled.length);
+                out.write(unscaled);
+                out.writeInt(total.scale());
+            }
+        }
+    }
+
+    /**
+     * @param in input written by {@link #writeTo(DataOutput)}
+     * @return table with the read drivers
+     * @throws IOException if reading fails
+     */
+    static DriverTotals readFrom(DataInput in) throws IOException {
+        DriverTotals totals = new DriverTotals();
+        int scale = in.readInt();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            char[] first = readChars(in, in.readInt());
+            char[] last = readChars(in, in.readInt());
+            long hash = hash(first, first.length, last, last.length);
+            long driverCount = in.readLong();
+            if (!in.readBoolean()) {
+                totals.add(hash, first, first.length, last, last.length, driverCount, in.readLong(), scale);
+            } else {
+                byte[] unscaled = new byte[in.readInt()];
+                in.readFully(unscaled);
+                totals.add(hash, first, first.length, last, last.length, driverCount,
+                        new BigDecimal(new BigInteger(unscaled), in.readInt()));
+            }
+        }
+        // Keeps the scale of the written table even if no amount had it
+        if (scale > totals.scale) {
+            totals.rescaleTo(scale);
+        }
+        return totals;
+    }
+
+    private void add(long hash, char[] firstName, int firstLength, char[] lastName, int lastLength,
+                     long count, long unscaledFine, int fineScale) {
+        if (fineScale > scale) {
+            rescaleTo(fineScale);
+        }
+        int offset = addCount(hash, firstName, firstLength, lastName, lastLength, count);
+        if (slots.getInt(offset + OVERFLOW) == 0) {
+            try {
+                long fine = ViolationTotals.rescale(unscaledFine, scale - fineScale);
+                slots.putLong(offset + FINE_TOTAL, Math.addExact(slots.getLong(offset + FINE_TOTAL), fine));
+                return;
+            } catch (ArithmeticException e) {
+                // Falls back to BigDecimal
+            }
+        }
+        addBig(offset, BigDecimal.valueOf(unscaledFine, fineScale));
+    }
+
+    private void add(long hash, char[] firstName, int firstLength, char[] lastName, int lastLength,
+                     long count, BigDecimal fine) {
+        // Negative scales are brought up to 0, as in ViolationTotals
+        if (fine.scale() < 0) {
+            fine = fine.setScale(0);
+        }
+        if (ViolationTotals.fitsLong(fine)) {
+            add(hash, firstName, firstLength, lastName, lastLength, count,
+                    ViolationTotals.unscaledLong(fine), fine.scale());
+            return;
+        }
+        BigInteger unscaled = fine.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            add(hash, firstName, firstLength, lastName, lastLength, count, unscaled.longValue(), fine.scale());
+            return;
+        }
+        if (fine.scale() > scale) {
+            rescaleTo(fine.scale());
+        }
+        addBig(addCount(hash, firstName, firstLength, lastName, lastLength, count), fine);
+    }
+
+    /**
+     * Adds the count to the slot of the driver, taking an empty slot for a new driver.
+     * @return offset of the slot
+     */
+    private int addCount(long hash, char[] firstName, int firstLength, char[] lastName, int lastLength,
+                         long count) {
+        // Half full at most, so the probes stay short
+        if (2 * (size + 1) > slots.capacity() / SLOT_BYTES) {
+            growSlots();
+        }
+        int slot = (int) hash & mask;
+        while (true) {
+            int offset = slot * SLOT_BYTES;
+            long slotCount = slots.getLong(offset + COUNT);
+            if (slotCount == 0) {
+                slots.putLong(offset + HASH, hash);
+                slots.putLong(offset + COUNT, count);
+                slots.putLong(offset + FINE_TOTAL, 0);
+                slots.putInt(offset + NAMES, appendNames(firstName, firstLength, lastName, lastLength));
+                slots.putInt(offset + OVERFLOW, 0);
+                size++;
+                return offset;
+            }
+            if (slots.getLong(offset + HASH) == hash
+                    && namesEqual(slots.getInt(offset + NAMES), firstName, firstLength, lastName, lastLength)) {
+                slots.putLong(offset + COUNT, slotCount + count);
+                return offset;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Adds the amount to the BigDecimal total of the slot, moving the total there first
+     * if it is still a long.
+     */
+    private void addBig(int offset, BigDecimal fine) {
+        int overflow = slots.getInt(offset + OVERFLOW);
+        if (overflow == 0) {
+            overflowTotals.add(BigDecimal.valueOf(slots.getLong(offset + FINE_TOTAL), scale));
+            overflow = overflowTotals.size();
+            slots.putInt(offset + OVERFLOW, overflow);
+        }
+        overflowTotals.set(overflow - 1, overflowTotals.get(overflow - 1).add(fine));
+    }
+
+    private boolean namesEqual(int at, char[] firstName, int firstLength, char[] lastName, int lastLength) {
+        if (names.getInt(at) != firstLength || names.getInt(at + 4) != lastLength) {
+            return false;
+        }
+        int position = at + NAMES_HEADER_BYTES;
+        for (int i = 0; i < firstLength; i++, position += 2) {
+            if (names.getChar(position) != firstName[i]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < lastLength; i++, position += 2) {
+            if (names.getChar(position) != lastName[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return offset of the appended names
+     */
+    private int appendNames(char[] firstName, int firstLength, char[] lastName, int lastLength) {
+        long needed = namesEnd + NAMES_HEADER_BYTES + 2L * (firstLength + lastLength);
+        if (needed > names.capacity()) {
+            if (needed > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Names of " + size + " drivers do not fit the driver table");
+            }
+            ByteBuffer grown = allocate((int) Math.min(Integer.MAX_VALUE, Math.max(needed, 2L * names.capacity())));
+            grown.put(0, names, 0, namesEnd);
+            names = grown;
+        }
+        int at = namesEnd;
+        names.putInt(at, firstLength);
+        names.putInt(at + 4, lastLength);
+        int position = at + NAMES_HEADER_BYTES;
+        for (int i = 0; i < firstLength; i++, position += 2) {
+            names.putChar(position, firstName[i]);
+        }
+        for (int i = 0; i < lastLength; i++, position += 2) {
+            names.putChar(position, lastName[i]);
+        }
+        namesEnd = position;
+        return at;
+    }
+
+    private void growSlots() {
+        int capacity = slots.capacity() / SLOT_BYTES;
+        if (capacity >= MAX_SLOTS) {
+            throw new IllegalStateException("More than " + size + " drivers do not fit the driver table");
+        }
+        // At most MAX_SLOTS * SLOT_BYTES, computed in long so the check above is the only limit
+        ByteBuffer grown = allocate((int) (2L * capacity * SLOT_BYTES));
+        int grownMask = 2 * capacity - 1;
+        for (int offset = 0; offset < slots.capacity(); offset += SLOT_BYTES) {
+            if (slots.getLong(offset + COUNT) == 0) {
+                continue;
+            }
+            // The hash is kept, so the names are not read again
+            int slot = (int) slots.getLong(offset + HASH) & grownMask;
+            while (grown.getLong(slot * SLOT_BYTES + COUNT) != 0) {
+                slot = (slot + 1) & grownMask;
+            }
+            grown.put(slot * SLOT_BYTES, slots, offset, SLOT_BYTES);
+        }
+        slots = grown;
+        mask = grownMask;
+    }
+
+    private void rescaleTo(int newScale) {
+        for (int offset = 0; offset < slots.capacity(); offset += SLOT_BYTES) {
+            if (slots.getLong(offset + COUNT) == 0 || slots.getInt(offset + OVERFLOW) != 0) {
+                continue;
+            }
+            try {
+                slots.putLong(offset + FINE_TOTAL,
+                        ViolationTotals.rescale(slots.getLong(offset + FINE_TOTAL), newScale - scale));
+            } catch (ArithmeticException e) {
+                // Keeps the total at the old scale, it is brought to the table scale when read
+                addBig(offset, BigDecimal.ZERO);
+            }
+        }
+        scale = newScale;
+    }
+
+    private List<DriverTotal> top(int n, boolean byFine) {
+        if (n <= 0) {
+            return List.of();
+        }
+        // Min-heap of slot offsets: the worst of the best n is at the root
+        int[] heap = new int[Math.min(n, size)];
+        int heapSize = 0;
+        for (int offset = 0; offset < slots.capacity(); offset += SLOT_BYTES) {
+            if (slots.getLong(offset + COUNT) == 0) {
+                continue;
+            }
+            if (heapSize < heap.length) {
+                heap[heapSize] = offset;
+                siftUp(heap, heapSize++, byFine);
+            } else if (compare(offset, heap[0], byFine) > 0) {
+                heap[0] = offset;
+                siftDown(heap, heapSize, byFine);
+            }
+        }
+        List<DriverTotal> top = new ArrayList<>(heapSize);
+        // Taking the root each time gives them from the worst
+        while (heapSize > 0) {
+            top.add(toDriverTotal(heap[0]));
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, byFine);
+        }
+        Collections.reverse(top);
+        return top;
+    }
+
+    private void siftUp(int[] heap, int i, boolean byFine) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (compare(heap[i], heap[parent], byFine) >= 0) {
+                return;
+            }
+            swap(heap, i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int heapSize, boolean byFine) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            if (left < heapSize && compare(heap[left], heap[smallest], byFine) < 0) {
+                smallest = left;
+            }
+            if (left + 1 < heapSize && compare(heap[left + 1], heap[smallest], byFine) < 0) {
+                smallest = left + 1;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(heap, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int slot = heap[i];
+        heap[i] = heap[j];
+        heap[j] = slot;
+    }
+
+    /**
+     * @return positive if the driver of the first slot ranks higher
+     */
+    private int compare(int first, int second, boolean byFine) {
+        int counts = Long.compare(slots.getLong(first + COUNT), slots.getLong(second + COUNT));
+        int fines = compareFines(first, second);
+        int result = byFine ? fines : counts;
+        if (result == 0) {
+            result = byFine ? counts : fines;
+        }
+        // Names in alphabetical order rank higher
+        return result != 0 ? result : -compareNames(slots.getInt(first + NAMES), slots.getInt(second + NAMES));
+    }
+
+    private int compareFines(int first, int second) {
+        if (slots.getInt(first + OVERFLOW) == 0 && slots.getInt(second + OVERFLOW) == 0) {
+            return Long.compare(slots.getLong(first + FINE_TOTAL), slots.getLong(second + FINE_TOTAL));
+        }
+        return fineTotal(first).compareTo(fineTotal(second));
+    }
+
+    /**
+     * @return fine total of the slot at the scale of the table
+     */
+    private BigDecimal fineTotal(int offset) {
+        int overflow = slots.getInt(offset + OVERFLOW);
+        if (overflow == 0) {
+            return BigDecimal.valueOf(slots.getLong(offset + FINE_TOTAL), scale);
+        }
+        // Every amount has at most the scale of the table, so this never rounds
+        return overflowTotals.get(overflow - 1).setScale(scale);
+    }
+
+    private int compareNames(int first, int second) {
+        int result = compareChars(first + NAMES_HEADER_BYTES, names.getInt(first),
+                second + NAMES_HEADER_BYTES, names.getInt(second));
+        if (result != 0) {
+            return result;
+        }
+        return compareChars(first + NAMES_HEADER_BYTES + 2 * names.getInt(first), names.getInt(first + 4),
+                second + NAMES_HEADER_BYTES + 2 * names.getInt(second), names.getInt(second + 4));
+    }
+
+    private int compareChars(int first, int firstLength, int second, int secondLength) {
+        for (int i = 0; i < Math.min(firstLength, secondLength); i++) {
+            int result = Character.compare(names.getChar(first + 2 * i), names.getChar(second + 2 * i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(firstLength, secondLength);
+    }
+
+    private DriverTotal toDriverTotal(int offset) {
+        int at = slots.getInt(offset + NAMES);
+        int firstLength = names.getInt(at);
+        int lastLength = names.getInt(at + 4);
+        String firstName = new String(readChars(at + NAMES_HEADER_BYTES, firstLength, new char[firstLength]));
+        String lastName = new String(readChars(at + NAMES_HEADER_BYTES + 2 * firstLength, lastLength,
+                new char[lastLength]));
+        return new DriverTotal(firstName, lastName, slots.getLong(offset + COUNT), fineTotal(offset));
+    }
+
+    /**
+     * @return the given array, or a larger one if it is too small, with the characters at its start
+     */
+    private char[] readChars(int position, int length, char[] chars) {
+        if (chars.length < length) {
+            chars = new char[Math.max(length, 2 * chars.length)];
+        }
+        for (int i = 0; i < length; i++) {
+            chars[i] = names.getChar(position + 2 * i);
+        }
+        return chars;
+    }
+
+    private void writeChars(DataOutput out, int position, int length) throws IOException {
+        out.writeInt(length);
+        for (int i = 0; i < length; i++) {
+            out.writeChar(names.getChar(position + 2 * i));
+        }
+    }
+
+    private static char[] readChars(DataInput in, int length) throws IOException {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = in.readChar();
+        }
+        return chars;
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
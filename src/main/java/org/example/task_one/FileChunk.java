@@ -0,0 +1,186 @@
+package org.example.task_one;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Checksum;
+
+/**
+ * Part of an input JSON file that is parsed as one task: either the whole file
+ * or a byte range of consecutive elements of its top-level array (see {@link JsonArraySplitter}).
+ */
+final class FileChunk {
+
+    private final File file;
+    private final long start;
+    private final long end;
+    private final boolean whole;
+    // Fed with every byte of the file as it is parsed, null if the content is not hashed
+    private final Checksum content;
+
+    private FileChunk(File file, long start, long end, boolean whole, Checksum content) {
+        this.file = file;
+        this.start = start;
+        this.end = end;
+        this.whole = whole;
+        this.content = content;
+    }
+
+    /**
+     * @param file JSON file
+     * @return chunk covering the whole file, array brackets included
+     */
+    static FileChunk whole(File file) {
+        return whole(file, null);
+    }
+
+    /**
+     * @param file JSON file
+     * @param content checksum updated with all the bytes of the file when the chunk is parsed,
+     * also the ones after the closing bracket; null to skip hashing
+     * @return chunk covering the whole file, array brackets included
+     */
+    static FileChunk whole(File file, Checksum content) {
+        return new FileChunk(file, 0, file.length(), true, content);
+    }
+
+    /**
+     * @param file JSON file
+     * @param start offset of the first element of the range
+     * @param end offset right after the range, may include the comma after the last element
+     * @return chunk covering the given range of elements
+     */
+    static FileChunk range(File file, long start, long end) {
+        return new FileChunk(file, start, end, false, null);
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    long getEnd() {
+        return end;
+    }
+
+    boolean isWhole() {
+        return whole;
+    }
+
+    /**
+     * Creates a parser whose content is a JSON array. A range is wrapped into
+     * the array brackets, and a trailing comma before the closing bracket is allowed.
+     * @param factory factory of the parser
+     * @param inputMode the way the bytes are read
+     * @return parser of the chunk
+     * @throws IOException if the file cannot be opened
+     */
+    JsonParser createParser(JsonFactory factory, InputMode inputMode) throws IOException {
+        if (inputMode == InputMode.MEMORY_MAPPED) {
+            InputStream bytes = MappedRegions.openStream(file, start, end);
+            return whole ? factory.createParser(hashed(bytes)) : createRangeParser(factory, bytes);
+        }
+        if (whole) {
+            return content == null ? factory.createParser(file)
+                    : factory.createParser(hashed(Files.newInputStream(file.toPath())));
+        }
+        return createRangeParser(factory, new RangeInputStream(file, start, end));
+    }
+
+    private InputStream hashed(InputStream bytes) {
+        return content == null ? bytes : new HashingInputStream(bytes, content);
+    }
+
+    private static JsonParser createRangeParser(JsonFactory factory, InputStream range) throws IOException {
+        InputStream content = new SequenceInputStream(
+                new SequenceInputStream(bytes("["), range),
+                bytes("]"));
+        JsonParser parser = factory.createParser(content);
+        parser.enable(JsonReadFeature.ALLOW_TRAILING_COMMA.mappedFeature());
+        return parser;
+    }
+
+    private static InputStream bytes(String s) {
+        return new ByteArrayInputStream(s.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public String toString() {
+        return file + (whole ? "" : " [" + start + ", " + end + ")");
+    }
+
+    /**
+     * Feeds the bytes read to a checksum. The parser stops at the closing bracket,
+     * so the bytes it left are read on close for the checksum to cover the whole file.
+     */
+    private static final class HashingInputStream extends CheckedInputStream {
+
+        HashingInputStream(InputStream in, Checksum content) {
+            super(in, content);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                skip(Long.MAX_VALUE);
+            } finally {
+                super.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the bytes of the range with positional reads of a {@link FileChannel}.
+     */
+    private static final class RangeInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        RangeInputStream(File file, long start, long end) throws IOException {
+            this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int toRead = (int) Math.min(len, end - position);
+            int read = channel.read(ByteBuffer.wrap(b, off, toRead), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package org.example.task_one;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Mergeable distribution of the fine amounts of each {@link ViolationType}
+ * (see {@link StatsOptions#setFineDistribution(boolean)}), built in one pass without
+ * keeping the amounts.
+ * <p>
+ * The amounts are rounded to cents and counted in log-bucketed histograms, as HdrHistogram
+ * does: amounts below 1.28 each have their own bucket, and every larger power of two is
+ * split into 64 buckets of equal width. A bucket is at most 1/64 of its lower bound wide,
+ * so a percentile, read as the middle of its bucket, is within 1/128 (0.8%) of the exact
+ * amount. The minimum and the maximum are exact. The buckets of a type grow to the largest
+ * amount seen, in whole powers of two, and never beyond {@link #MAX_BUCKETS} counts
+ * (3712, 29 KB, when an amount reaches {@link Long#MAX_VALUE} cents), whatever the number of rows.
+ * <p>
+ * Negative amounts are counted in the bucket of zero; they still set the minimum.
+ * <p>
+ * Not thread-safe: each task fills its own instance, and the instances are merged afterwards.
+ */
+public final class FineDistribution {
+
+    private static final ViolationType[] TYPES = ViolationType.values();
+
+    // Buckets per power of two, amounts below 2 * SUB_BUCKETS cents are counted exactly
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int CENTS_SCALE = 2;
+    // Number of buckets up to the one of Long.MAX_VALUE cents, 3712
+    static final int MAX_BUCKETS = bucketOf(Long.MAX_VALUE) + 1;
+
+    // Count of each bucket of each type, grown to the largest bucket seen
+    private final long[][] buckets = new long[TYPES.length][0];
+    private final long[] counts = new long[TYPES.length];
+    private final long[] minCents = new long[TYPES.length];
+    private final long[] maxCents = new long[TYPES.length];
+
+    /**
+     * Adds the fine amount of one decoded violation.
+     * @param row fields of the violation
+     */
+    void add(ViolationRow row) {
+        add(row.type, row.fineBig == null ? toCents(row.fineUnscaled, row.fineScale) : toCents(row.fineBig));
+    }
+
+    /**
+     * Adds the fine amount of one violation.
+     * @param type type of the violation
+     * @param fineAmount fine amount of the violation
+     */
+    void add(ViolationType type, BigDecimal fineAmount) {
+        add(type, toCents(fineAmount));
+    }
+
+    private void add(ViolationType type, long cents) {
+        int i = type.ordinal();
+        int bucket = bucketOf(cents);
+        long[] typeBuckets = buckets[i];
+        if (bucket >= typeBuckets.length) {
+            typeBuckets = grow(i, bucket);
+        }
+        typeBuckets[bucket]++;
+        if (counts[i]++ == 0) {
+            minCents[i] = cents;
+            maxCents[i] = cents;
+        } else {
+            minCents[i] = Math.min(minCents[i], cents);
+            maxCents[i] = Math.max(maxCents[i], cents);
+        }
+    }
+
+    /**
+     * Adds all the buckets of the other distribution to this one.
+     * @param other distribution to merge, left unchanged
+     */
+    void merge(FineDistribution other) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (other.counts[i] == 0) {
+                continue;
+            }
+            long[] otherBuckets = other.buckets[i];
+            long[] typeBuckets = buckets[i];
+            if (otherBuckets.length > typeBuckets.length) {
+                typeBuckets = grow(i, otherBuckets.length - 1);
+            }
+            for (int b = 0; b < otherBuckets.length; b++) {
+                typeBuckets[b] += otherBuckets[b];
+            }
+            minCents[i] = counts[i] == 0 ? other.minCents[i] : Math.min(minCents[i], other.minCents[i]);
+            maxCents[i] = counts[i] == 0 ? other.maxCents[i] : Math.max(maxCents[i], other.maxCents[i]);
+            counts[i] += other.counts[i];
+        }
+    }
+
+    /**
+     * @param type type of the violation
+     * @return number of violations of the given type
+     */
+    public long getCount(ViolationType type) {
+        return counts[type.ordinal()];
+    }
+
+    /**
+     * @param type type of the violation
+     * @return smallest fine amount of the given type, rounded to cents; null if there is no violation
+     */
+    public BigDecimal getMin(ViolationType type) {
+        int i = type.ordinal();
+        return counts[i] == 0 ? null : BigDecimal.valueOf(minCents[i], CENTS_SCALE);
+    }
+
+    /**
+     * @param type type of the violation
+     * @return largest fine amount of the given type, rounded to cents; null if there is no violation
+     */
+    public BigDecimal getMax(ViolationType type) {
+        int i = type.ordinal();
+        return counts[i] == 0 ? null : BigDecimal.valueOf(maxCents[i], CENTS_SCALE);
+    }
+
+    /**
+     * @param type type of the violation
+     * @param percentile percentile from 0 to 100
+     * @return fine amount, rounded to cents, that the given percent of the violations of the type
+     * do not exceed, within 0.8% of the exact amount; null if there is no violation
+     */
+    public BigDecimal getPercentile(ViolationType type, double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be from 0 to 100: " + percentile);
+        }
+        int i = type.ordinal();
+        if (counts[i] == 0) {
+            return null;
+        }
+        // Rank of the amount among the sorted amounts, from 1
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * counts[i]));
+        long[] typeBuckets = buckets[i];
+        long seen = 0;
+        int bucket = 0;
+        while (bucket < typeBuckets.length - 1 && (seen += typeBuckets[bucket]) < rank) {
+            bucket++;
+        }
+        long lower = lowestOf(bucket);
+        long middle = lower + (lowestOf(bucket + 1) - 1 - lower) / 2;
+        long cents = Math.max(minCents[i], Math.min(maxCents[i], middle));
+        return BigDecimal.valueOf(cents, CENTS_SCALE);
+    }
+
+    /**
+     * @param totals exact totals of the same violations, for the mean amounts
+     * @return summary of the distribution of each type that has at least one violation
+     */
+    public Map<ViolationType, FineSummary> summarize(ViolationTotals totals) {
+        Map<ViolationType, FineSummary> summaries = new EnumMap<>(ViolationType.class);
+        for (ViolationType type : TYPES) {
+            long count = counts[type.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            BigDecimal mean = totals.getTotal(type).divide(BigDecimal.valueOf(count), CENTS_SCALE, RoundingMode.HALF_UP);
+            summaries.put(type, new FineSummary(count, getMin(type), getMax(type), mean,
+                    getPercentile(type, 50), getPercentile(type, 90), getPercentile(type, 99)));
+        }
+        return summaries;
+    }
+
+    /**
+     * Writes the buckets in a compact binary form, see {@link #readFrom(DataInput)}.
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        for (int i = 0; i < TYPES.length; i++) {
+            out.writeLong(counts[i]);
+            if (counts[i] == 0) {
+                continue;
+            }
+            out.writeLong(minCents[i]);
+            out.writeLong(maxCents[i]);
+            out.writeInt(buckets[i].length);
+            for (long bucketCount : buckets[i]) {
+                out.writeLong(bucketCount);
+            }
+        }
+    }
+
+    /**
+     * @param in input written by {@link #writeTo(DataOutput)}
+     * @return distribution with the read buckets
+     * @throws IOException if reading fails
+     */
+    static FineDistribution readFrom(DataInput in) throws IOException {
+        FineDistribution distribution = new FineDistribution();
+        for (int i = 0; i < TYPES.length; i++) {
+            distribution.counts[i] = in.readLong();
+            if (distribution.counts[i] == 0) {
+                continue;
+            }
+            distribution.minCents[i] = in.readLong();
+            distribution.maxCents[i] = in.readLong();
+            int length = in.readInt();
+            if (length < 0 || length > MAX_BUCKETS) {
+                throw new IOException("Invalid number of buckets: " + length);
+            }
+            long[] typeBuckets = new long[length];
+            for (int b = 0; b < length; b++) {
+                typeBuckets[b] = in.readLong();
+            }
+            distribution.buckets[i] = typeBuckets;
+        }
+        return distribution;
+    }
+
+    /**
+     * Extends the buckets of a type to whole powers of two up to the given bucket.
+     * @return the extended buckets
+     */
+    private long[] grow(int i, int bucket) {
+        long[] grown = new long[(bucket / SUB_BUCKETS + 1) * SUB_BUCKETS];
+        System.arraycopy(buckets[i], 0, grown, 0, buckets[i].length);
+        buckets[i] = grown;
+        return grown;
+    }
+
+    /**
+     * @param cents amount in cents
+     * @return index of the bucket of the amount: the amount itself below
+     * {@code 2 * SUB_BUCKETS}, then {@code SUB_BUCKETS} buckets for each power of two
+     */
+    static int bucketOf(long cents) {
+        if (cents < 2 * SUB_BUCKETS) {
+            return (int) Math.max(cents, 0);
+        }
+        // Shift that leaves the SUB_BUCKET_BITS + 1 highest bits of the amount
+        int shift = Long.SIZE - SUB_BUCKET_BITS - 1 - Long.numberOfLeadingZeros(cents);
+        return (shift << SUB_BUCKET_BITS) + (int) (cents >>> shift);
+    }
+
+    /**
+     * @param bucket index of a bucket, see {@link #bucketOf(long)}
+     * @return smallest amount in cents of the bucket
+     */
+    static long lowestOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+        // The bucket past the last one starts beyond Long.MAX_VALUE
+        return lowest < 0 ? Long.MAX_VALUE : lowest;
+    }
+
+    /**
+     * @return the amount rounded half up to cents, clamped to the range of long
+     */
+    static long toCents(long unscaled, int scale) {
+        if (scale == CENTS_SCALE) {
+            return unscaled;
+        }
+        if (scale < CENTS_SCALE) {
+            try {
+                return ViolationTotals.rescale(unscaled, CENTS_SCALE - scale);
+            } catch (ArithmeticException e) {
+                return unscaled < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+            }
+        }
+        return ViolationTotals.divideHalfUp(unscaled, scale - CENTS_SCALE);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        if (ViolationTotals.fitsLong(amount)) {
+            return toCents(ViolationTotals.unscaledLong(amount), amount.scale());
+        }
+        BigInteger cents = amount.setScale(CENTS_SCALE, RoundingMode.HALF_UP).unscaledValue();
+        if (cents.bitLength() < Long.SIZE) {
+            return cents.longValue();
+        }
+        return cents.signum() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+}
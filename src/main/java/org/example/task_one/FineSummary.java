@@ -0,0 +1,105 @@
+package org.example.task_one;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Distribution of the fine amounts of one {@link ViolationType}, summarized from
+ * {@link FineDistribution}: the exact count, minimum, maximum and mean, and the
+ * approximate median, 90th and 99th percentiles. The amounts are rounded to cents.
+ */
+public final class FineSummary {
+
+    private final long count;
+    private final BigDecimal min;
+    private final BigDecimal max;
+    private final BigDecimal mean;
+    private final BigDecimal p50;
+    private final BigDecimal p90;
+    private final BigDecimal p99;
+
+    FineSummary(long count, BigDecimal min, BigDecimal max, BigDecimal mean,
+                BigDecimal p50, BigDecimal p90, BigDecimal p99) {
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    /**
+     * @return number of violations
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public BigDecimal getMin() {
+        return min;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    /**
+     * @return total fine amount divided by the count, rounded half up to cents
+     */
+    public BigDecimal getMean() {
+        return mean;
+    }
+
+    /**
+     * @return median fine amount, within 0.8%
+     */
+    public BigDecimal getP50() {
+        return p50;
+    }
+
+    /**
+     * @return 90th percentile of the fine amounts, within 0.8%
+     */
+    public BigDecimal getP90() {
+        return p90;
+    }
+
+    /**
+     * @return 99th percentile of the fine amounts, within 0.8%
+     */
+    public BigDecimal getP99() {
+        return p99;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FineSummary)) {
+            return false;
+        }
+        FineSummary that = (FineSummary) o;
+        return count == that.count && min.equals(that.min) && max.equals(that.max) && mean.equals(that.mean)
+                && p50.equals(that.p50) && p90.equals(that.p90) && p99.equals(that.p99);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(count, min, max, mean, p50, p90, p99);
+    }
+
+    @Override
+    public String toString() {
+        return "FineSummary{" +
+                "count=" + count +
+                ", min=" + min +
+                ", max=" + max +
+                ", mean=" + mean +
+                ", p50=" + p50 +
+                ", p90=" + p90 +
+                ", p99=" + p99 +
+                '}';
+    }
+}
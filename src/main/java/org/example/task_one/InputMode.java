@@ -0,0 +1,16 @@
+package org.example.task_one;
+
+/**
+ * The way the bytes of the input JSON files are read.
+ */
+public enum InputMode {
+    /**
+     * Through a file stream, the parser copies the bytes into its own small buffer.
+     */
+    STREAM,
+    /**
+     * The file (or the chunk of it) is mapped into memory with {@link java.nio.channels.FileChannel#map},
+     * the parser and the chunk splitter read from the mapped region without system calls.
+     */
+    MEMORY_MAPPED
+}
@@ -0,0 +1,202 @@
+package org.example.task_one;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Checksum;
+
+/**
+ * Cuts a JSON file with a top-level array into {@link FileChunk} ranges of roughly
+ * the given size, so that one large file can be parsed by several threads.
+ * <p>
+ * Every range starts at the first byte of a top-level element, so it holds only
+ * whole elements. Any value starts an element, not only an object, so an element
+ * of another type still reaches the parser of its range, which rejects it.
+ * To find the elements, the bytes of the file are scanned once, tracking
+ * the nesting depth and whether the position is inside a string. That scan does
+ * no tokenizing and is much cheaper than parsing, but it is sequential. With
+ * {@link InputMode#MEMORY_MAPPED} the mapped file is scanned in place.
+ * <p>
+ * The content of the file can be hashed on the way (see {@link StatsCache}), so the
+ * file is not read once more for that: by the scan if the file is split, otherwise
+ * by the parser of the whole file.
+ */
+final class JsonArraySplitter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final long chunkSize;
+    private final List<Long> starts = new ArrayList<>();
+    // Offset of the first byte of the next block
+    private long position;
+    private long nextSplit;
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    // True after the opening bracket of the top-level array or a comma in it, until the next element starts
+    private boolean elementExpected;
+    // Offset of the closing bracket of the top-level array, -1 until it is found
+    private long end = -1;
+
+    private JsonArraySplitter(File file, long chunkSize) {
+        this.file = file;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param file JSON file with a top-level array
+     * @param chunkSize wanted size of a chunk in bytes
+     * @param inputMode the way the bytes are read
+     * @param content checksum to update with all the bytes of the file, either here
+     * or when the whole file is parsed (see {@link FileChunk#whole(File, Checksum)}); null to skip hashing
+     * @return the whole file if it is not larger than the chunk size,
+     * otherwise element-aligned ranges covering all the elements
+     * @throws IOException if the file cannot be read
+     * @throws IllegalStateException if the content is not an array
+     */
+    static List<FileChunk> split(File file, long chunkSize, InputMode inputMode, Checksum content)
+            throws IOException {
+        long size = file.length();
+        if (size <= chunkSize) {
+            return List.of(FileChunk.whole(file, content));
+        }
+        JsonArraySplitter splitter = new JsonArraySplitter(file, chunkSize);
+        if (inputMode == InputMode.MEMORY_MAPPED) {
+            for (MappedByteBuffer region : MappedRegions.map(file, 0, size)) {
+                if (!splitter.accept(region, content)) {
+                    break;
+                }
+            }
+        } else {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                long offset = 0;
+                while (channel.read(buffer.clear(), offset) > 0) {
+                    offset += buffer.flip().limit();
+                    if (!splitter.accept(buffer, content)) {
+                        break;
+                    }
+                }
+            }
+        }
+        // No closing bracket: the last chunk runs to the end and its parser reports the error
+        return splitter.toChunks(splitter.end >= 0 ? splitter.end : size);
+    }
+
+    /**
+     * Hashes the next block of the file and scans it if the closing bracket is not found yet.
+     * @param content checksum of the content, null if it is not hashed
+     * @return false if the rest of the file is not needed
+     */
+    private boolean accept(ByteBuffer block, Checksum content) {
+        if (content != null) {
+            content.update(block.duplicate());
+        }
+        if (end < 0) {
+            scan(block);
+        }
+        return end < 0 || content != null;
+    }
+
+    /**
+     * Scans the next block of the file, from its position to its limit.
+     * @return true if the closing bracket of the top-level array is found
+     */
+    private boolean scan(ByteBuffer block) {
+        int limit = block.limit();
+        for (int i = block.position(); i < limit; i++) {
+            byte b = block.get(i);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (b) {
+                case '"':
+                    if (depth == 1) {
+                        startElement(position + i);
+                    }
+                    inString = true;
+                    break;
+                case '{':
+                case '[':
+                    if (depth == 0 && b != '[') {
+                        throw new IllegalStateException("Expected content to be an array");
+                    }
+                    if (depth == 1) {
+                        startElement(position + i);
+                    }
+                    depth++;
+                    if (depth == 1) {
+                        elementExpected = true;
+                    }
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    if (depth == 0) {
+                        // Closing bracket of the top-level array, the rest is ignored
+                        end = position + i;
+                        return true;
+                    }
+                    break;
+                case ',':
+                    if (depth == 1) {
+                        elementExpected = true;
+                    }
+                    break;
+                case ' ':
+                case '\t':
+                case '\n':
+                case '\r':
+                case ':':
+                    break;
+                default:
+                    if (depth == 0) {
+                        throw new IllegalStateException("Expected content to be an array");
+                    }
+                    if (depth == 1) {
+                        // First byte of a number, true, false or null
+                        startElement(position + i);
+                    }
+            }
+        }
+        position += limit - block.position();
+        return false;
+    }
+
+    /**
+     * Starts a new range at the element if the current one has reached the chunk size.
+     * @param offset offset of a byte of a top-level element, only its first byte counts
+     */
+    private void startElement(long offset) {
+        if (!elementExpected) {
+            return;
+        }
+        elementExpected = false;
+        if (offset >= nextSplit) {
+            starts.add(offset);
+            nextSplit = offset + chunkSize;
+        }
+    }
+
+    private List<FileChunk> toChunks(long end) {
+        List<FileChunk> chunks = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            long chunkEnd = i + 1 < starts.size() ? starts.get(i + 1) : end;
+            chunks.add(FileChunk.range(file, starts.get(i), chunkEnd));
+        }
+        return chunks;
+    }
+}
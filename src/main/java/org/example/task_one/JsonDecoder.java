@@ -0,0 +1,17 @@
+package org.example.task_one;
+
+/**
+ * The way each element of the input JSON array is turned into the
+ * type and fine amount of a {@link TrafficViolation}.
+ */
+public enum JsonDecoder {
+    /**
+     * Jackson databind: each element is mapped to a {@link TrafficViolation} object.
+     */
+    DATABIND,
+    /**
+     * {@link TrafficViolationDecoder}: the tokens of each element are read directly,
+     * only {@code type} and {@code fine_amount} are decoded and no objects are created.
+     */
+    TOKEN_STREAM
+}
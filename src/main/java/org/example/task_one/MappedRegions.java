@@ -0,0 +1,60 @@
+package org.example.task_one;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maps byte ranges of a file into memory. A single {@link MappedByteBuffer} is limited
+ * to {@link Integer#MAX_VALUE} bytes, so a larger range is mapped as several regions.
+ * The mappings stay valid after the channel is closed and are released by the GC.
+ */
+final class MappedRegions {
+
+    private static final long MAX_REGION_SIZE = Integer.MAX_VALUE;
+
+    private MappedRegions() {
+    }
+
+    /**
+     * @param file file to map
+     * @param start offset of the range
+     * @param end offset right after the range
+     * @return read-only mapped regions covering the range, in order
+     * @throws IOException if the file cannot be mapped
+     */
+    static List<MappedByteBuffer> map(File file, long start, long end) throws IOException {
+        List<MappedByteBuffer> regions = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            for (long position = start; position < end; position += MAX_REGION_SIZE) {
+                long size = Math.min(MAX_REGION_SIZE, end - position);
+                regions.add(channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+            }
+        }
+        return regions;
+    }
+
+    /**
+     * @param file file to map
+     * @param start offset of the range
+     * @param end offset right after the range
+     * @return stream reading the mapped range
+     * @throws IOException if the file cannot be mapped
+     */
+    static InputStream openStream(File file, long start, long end) throws IOException {
+        List<InputStream> streams = new ArrayList<>();
+        for (MappedByteBuffer region : map(file, start, end)) {
+            streams.add(new ByteBufferBackedInputStream(region));
+        }
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+}
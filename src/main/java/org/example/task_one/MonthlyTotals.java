@@ -0,0 +1,212 @@
+package org.example.task_one;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Mergeable {@link ViolationTotals} of each year and month of the {@code date_time}
+ * of the violations (see {@link StatsOptions#setTimeBuckets(boolean)}).
+ * <p>
+ * A violation is bucketed from its epoch minute (see {@link ViolationDateTimes}) without
+ * creating any date object: the totals of the months are kept in an array indexed by the
+ * months since the first year seen, and a table of the days seen points to the totals of
+ * their month, so a row costs an array load and no lookup in a map (and no boxing of the key).
+ * Both arrays grow to the range of the dates seen.
+ * <p>
+ * Not thread-safe: each task fills its own instance, and the instances are merged afterwards.
+ */
+public final class MonthlyTotals {
+
+    private static final int HALF_YEAR = 183;
+    // 20 years, at most 7320 references per instance
+    private static final int MAX_DAYS = 20 * 366;
+
+    // Totals of year * 12 + month - 1 (see ViolationDateTimes#yearMonthOf) at index
+    // yearMonth - firstYearMonth, null for a month with no violation
+    private ViolationTotals[] months = new ViolationTotals[0];
+    private int firstYearMonth;
+    // Totals of the month of each day at index epochDay - firstDay, filled as the days are
+    // seen, so most rows skip the calendar arithmetic of ViolationDateTimes#yearMonthOf
+    private ViolationTotals[] days = new ViolationTotals[0];
+    private int firstDay;
+
+    /**
+     * Adds one decoded violation to the totals of its month.
+     * @param row fields of the violation, with the epoch minute
+     */
+    void add(ViolationRow row) {
+        ViolationTotals totals = monthOf(row.epochMinute);
+        if (row.fineBig == null) {
+            totals.add(row.type, row.fineUnscaled, row.fineScale);
+        } else {
+            totals.add(row.type, row.fineBig);
+        }
+    }
+
+    /**
+     * Adds the fine amount of one violation to the totals of its month.
+     * @param epochMinute minutes since 1970-01-01T00:00 of the violation
+     * @param type type of the violation
+     * @param fineAmount fine amount of the violation
+     */
+    void add(long epochMinute, ViolationType type, BigDecimal fineAmount) {
+        monthOf(epochMinute).add(type, fineAmount);
+    }
+
+    /**
+     * Adds all the totals of the other accumulator to this one.
+     * @param other accumulator to merge, left unchanged
+     */
+    void merge(MonthlyTotals other) {
+        for (int i = 0; i < other.months.length; i++) {
+            if (other.months[i] != null) {
+                monthOf(other.firstYearMonth + i).merge(other.months[i]);
+            }
+        }
+    }
+
+    /**
+     * @return totals of each month that has at least one violation, in chronological order
+     */
+    public SortedMap<YearMonth, ViolationTotals> byMonth() {
+        SortedMap<YearMonth, ViolationTotals> byMonth = new TreeMap<>();
+        for (int i = 0; i < months.length; i++) {
+            if (months[i] != null) {
+                int yearMonth = firstYearMonth + i;
+                byMonth.put(YearMonth.of(ViolationDateTimes.yearOf(yearMonth),
+                        ViolationDateTimes.monthOf(yearMonth)), months[i]);
+            }
+        }
+        return byMonth;
+    }
+
+    /**
+     * @return totals of each year that has at least one violation, in chronological order
+     */
+    public SortedMap<Integer, ViolationTotals> byYear() {
+        SortedMap<Integer, ViolationTotals> byYear = new TreeMap<>();
+        for (int i = 0; i < months.length; i++) {
+            if (months[i] != null) {
+                byYear.computeIfAbsent(ViolationDateTimes.yearOf(firstYearMonth + i), year -> new ViolationTotals())
+                        .merge(months[i]);
+            }
+        }
+        return byYear;
+    }
+
+    /**
+     * Writes the totals in a compact binary form, see {@link #readFrom(DataInput)}.
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        int count = 0;
+        for (ViolationTotals totals : months) {
+            count += totals != null ? 1 : 0;
+        }
+        out.writeInt(count);
+        for (int i = 0; i < months.length; i++) {
+            if (months[i] != null) {
+                out.writeInt(firstYearMonth + i);
+                months[i].writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * @param in input written by {@link #writeTo(DataOutput)}
+     * @return accumulator with the read totals
+     * @throws IOException if reading fails
+     */
+    static MonthlyTotals readFrom(DataInput in) throws IOException {
+        MonthlyTotals monthlyTotals = new MonthlyTotals();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int yearMonth = in.readInt();
+            monthlyTotals.monthOf(yearMonth).merge(ViolationTotals.readFrom(in));
+        }
+        return monthlyTotals;
+    }
+
+    private ViolationTotals monthOf(long epochMinute) {
+        int day = ViolationDateTimes.epochDay(epochMinute);
+        int i = day - firstDay;
+        if (i >= 0 && i < days.length && days[i] != null) {
+            return days[i];
+        }
+        ViolationTotals totals = monthOf(ViolationDateTimes.yearMonthOf(day));
+        if (i < 0 || i >= days.length) {
+            i = growDays(day);
+            if (i < 0) {
+                return totals;
+            }
+        }
+        days[i] = totals;
+        return totals;
+    }
+
+    private ViolationTotals monthOf(int yearMonth) {
+        int i = yearMonth - firstYearMonth;
+        if (i < 0 || i >= months.length) {
+            i = grow(yearMonth);
+        }
+        ViolationTotals totals = months[i];
+        if (totals == null) {
+            totals = new ViolationTotals();
+            months[i] = totals;
+        }
+        return totals;
+    }
+
+    /**
+     * Extends the array to whole years up to the year of the given month. The parser accepts
+     * years 0 to 9999 only, so the array never has more than 120000 months.
+     * @return index of the month in the extended array
+     */
+    private int grow(int yearMonth) {
+        int yearStart = yearMonth - ViolationDateTimes.monthOf(yearMonth) + 1;
+        int first = yearStart;
+        int end = yearStart + 12;
+        if (months.length != 0) {
+            first = Math.min(firstYearMonth, first);
+            end = Math.max(firstYearMonth + months.length, end);
+        }
+        ViolationTotals[] grown = new ViolationTotals[end - first];
+        if (months.length != 0) {
+            System.arraycopy(months, 0, grown, firstYearMonth - first, months.length);
+        }
+        months = grown;
+        firstYearMonth = first;
+        return yearMonth - first;
+    }
+
+    /**
+     * Extends the day table to the given day, half a year at least each way. The table
+     * stops growing at {@link #MAX_DAYS}, the month of a day outside of it is computed
+     * for each row.
+     * @return index of the day in the extended table, -1 if it is not cached
+     */
+    private int growDays(int day) {
+        int first = day - HALF_YEAR;
+        int end = day + HALF_YEAR;
+        if (days.length != 0) {
+            first = Math.min(firstDay, first);
+            end = Math.max(firstDay + days.length, end);
+        }
+        if (end - first > MAX_DAYS) {
+            return -1;
+        }
+        ViolationTotals[] grown = new ViolationTotals[end - first];
+        if (days.length != 0) {
+            System.arraycopy(days, 0, grown, firstDay - first, days.length);
+        }
+        days = grown;
+        firstDay = first;
+        return day - first;
+    }
+}
@@ -0,0 +1,239 @@
+package org.example.task_one;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Sidecar file with the {@link ViolationStats} of each input file that was already read,
+ * so a rerun parses only new or changed files (see {@link StatsOptions#setCacheFile(Path)}).
+ * <p>
+ * An entry is keyed by the absolute path of the file and holds its size, last-modified
+ * time and CRC32C of the content. If the size and the time match, the entry is used
+ * without reading the file. If only the time differs (the file was copied or touched),
+ * the content is hashed and the entry is still used when the hash matches. The hash of a stored
+ * entry comes from the read that parsed the file, so a file that is not cached is read only once.
+ * <p>
+ * The statistics of an entry are kept in their binary form (see {@link ViolationStats#writeTo(java.io.DataOutput)})
+ * and decoded only when the file is looked up, so the cache holds no {@link DriverTotals}
+ * table of its own and a stored file does not pin the direct memory of its partial.
+ * <p>
+ * Thread-safe: lookups and stores come from the file tasks.
+ */
+final class StatsCache {
+
+    private static final int MAGIC = 0x4D564331; // "MVC1"
+    // Bumped whenever the layout of ViolationStats changes, older sidecars are ignored
+    private static final int VERSION = 7;
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final Path cacheFile;
+    private final Map<String, Entry> entries;
+
+    private StatsCache(Path cacheFile, Map<String, Entry> entries) {
+        this.cacheFile = cacheFile;
+        this.entries = entries;
+    }
+
+    /**
+     * Reads the sidecar. A missing, outdated or corrupted sidecar gives an empty cache.
+     * @param cacheFile path of the sidecar
+     * @return the cache
+     */
+    static StatsCache load(Path cacheFile) {
+        Map<String, Entry> entries = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() == MAGIC && in.readInt() == VERSION) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    String path = in.readUTF();
+                    long size = in.readLong();
+                    long lastModified = in.readLong();
+                    long hash = in.readLong();
+                    byte[] stats = new byte[in.readInt()];
+                    in.readFully(stats);
+                    entries.put(path, new Entry(size, lastModified, hash, stats));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // First run
+        } catch (IOException e) {
+            System.out.println("Ignoring unreadable stats cache " + cacheFile + ": " + e);
+            entries.clear();
+        }
+        return new StatsCache(cacheFile, entries);
+    }
+
+    /**
+     * @param file input file
+     * @param options settings of the run, for the statistics it collects
+     * @return cached statistics of the file, or null if the file is new or changed,
+     * or was read by a run that did not collect all of them (see {@link ViolationStats#covers(StatsOptions)})
+     */
+    ViolationStats lookup(File file, StatsOptions options) {
+        String key = key(file);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        long size = file.length();
+        long lastModified = file.lastModified();
+        if (entry.size != size) {
+            return null;
+        }
+        if (entry.lastModified != lastModified) {
+            if (hash(file) != entry.hash) {
+                return null;
+            }
+            // Same content, only the time changed
+            synchronized (this) {
+                entries.put(key, new Entry(size, lastModified, entry.hash, entry.stats));
+            }
+        }
+        ViolationStats stats;
+        try {
+            stats = ViolationStats.readFrom(new DataInputStream(new ByteArrayInputStream(entry.stats)));
+        } catch (IOException e) {
+            return null;
+        }
+        return stats.covers(options) ? stats : null;
+    }
+
+    /**
+     * Takes the identity of a file before it is read, see {@link #store(File, FileVersion, long, ViolationStats)}.
+     * @param file input file
+     * @return size and last-modified time of the file
+     */
+    static FileVersion version(File file) {
+        // The file may change while it is read, the time is taken first
+        long lastModified = file.lastModified();
+        long size = file.length();
+        return new FileVersion(size, lastModified);
+    }
+
+    /**
+     * Stores the statistics of a file that was read to the end; incomplete ones are skipped,
+     * and so are the statistics of a file that changed since its version was taken, as they
+     * may come from the old content, the new one or both.
+     * @param file input file
+     * @param version identity of the file taken by {@link #version(File)} before it was read
+     * @param hash CRC32C of all the bytes of the file, computed while it was read
+     * @param stats statistics of the file
+     */
+    void store(File file, FileVersion version, long hash, ViolationStats stats) {
+        if (!stats.isComplete() || file.length() != version.size || file.lastModified() != version.lastModified) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            stats.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Entry entry = new Entry(version.size, version.lastModified, hash, bytes.toByteArray());
+        synchronized (this) {
+            entries.put(key(file), entry);
+        }
+    }
+
+    /**
+     * Writes the sidecar, dropping entries of files that no longer exist.
+     * It is written to a temporary file first and then moved over the old one,
+     * so a crash never leaves a half-written sidecar.
+     * @throws IOException if the sidecar cannot be written
+     */
+    synchronized void save() throws IOException {
+        entries.keySet().removeIf(path -> !Files.exists(Path.of(path)));
+        Path dir = cacheFile.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, cacheFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                    Entry entry = e.getValue();
+                    out.writeUTF(e.getKey());
+                    out.writeLong(entry.size);
+                    out.writeLong(entry.lastModified);
+                    out.writeLong(entry.hash);
+                    out.writeInt(entry.stats.length);
+                    out.write(entry.stats);
+                }
+            }
+            try {
+                Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static String key(File file) {
+        return file.toPath().toAbsolutePath().normalize().toString();
+    }
+
+    private static long hash(File file) {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+            while (channel.read(buffer.clear()) > 0) {
+                crc.update(buffer.flip());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Size and last-modified time of a file at some point.
+     */
+    static final class FileVersion {
+        private final long size;
+        private final long lastModified;
+
+        private FileVersion(long size, long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static final class Entry {
+        private final long size;
+        private final long lastModified;
+        private final long hash;
+        // ViolationStats.writeTo() of the statistics of the file
+        private final byte[] stats;
+
+        private Entry(long size, long lastModified, long hash, byte[] stats) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.stats = stats;
+        }
+    }
+}
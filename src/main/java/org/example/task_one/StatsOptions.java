@@ -0,0 +1,262 @@
+package org.example.task_one;
+
+import org.example.task_one.json_map_converter.OutputFormat;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+/**
+ * Settings of {@link TaskOne#overallViolationsStats(java.util.List, StatsOptions)}.
+ * Every setter returns this object, so the settings can be chained:
+ * <pre>
+ *     new StatsOptions().setDecoder(JsonDecoder.DATABIND)
+ * </pre>
+ */
+public class StatsOptions {
+
+    /**
+     * Files up to this size are parsed by one task, larger ones are split into chunks.
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 16L * 1024 * 1024;
+
+    private JsonDecoder decoder = JsonDecoder.TOKEN_STREAM;
+    private long chunkSize = DEFAULT_CHUNK_SIZE;
+    private InputMode inputMode = InputMode.STREAM;
+    private Executor executor;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private boolean virtualThreads;
+    private OutputFormat outputFormat = OutputFormat.XML;
+    // null - output_2 with the extension of the format
+    private File outputFile;
+    private Path cacheFile;
+    private boolean prettyPrint = true;
+    private boolean timeBuckets;
+    private int topDrivers;
+    private boolean fineDistribution;
+    private int distinctDrivers;
+
+    public JsonDecoder getDecoder() {
+        return decoder;
+    }
+
+    /**
+     * @param decoder the way JSON elements are decoded, {@link JsonDecoder#TOKEN_STREAM} by default
+     * @return this object
+     */
+    public StatsOptions setDecoder(JsonDecoder decoder) {
+        this.decoder = decoder;
+        return this;
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param chunkSize size in bytes of the element ranges a large file is split into,
+     * so that it is parsed by several threads; {@link Long#MAX_VALUE} to never split a file
+     * @return this object
+     */
+    public StatsOptions setChunkSize(long chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    public InputMode getInputMode() {
+        return inputMode;
+    }
+
+    /**
+     * @param inputMode the way the input files are read, {@link InputMode#STREAM} by default
+     * @return this object
+     */
+    public StatsOptions setInputMode(InputMode inputMode) {
+        this.inputMode = inputMode;
+        return this;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @param executor executor the files are read on. It is owned by the caller and
+     * never shut down by the run. If null (by default), the run creates its own
+     * executor as set by {@link #setParallelism(int)} or {@link #setVirtualThreads(boolean)}
+     * and shuts it down when done
+     * @return this object
+     */
+    public StatsOptions setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @param parallelism number of threads of the pool created by the run,
+     * the number of available processors by default
+     * @return this object
+     */
+    public StatsOptions setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @param virtualThreads true to read every file and chunk on its own thread,
+     * for storage where the threads mostly wait for I/O. Virtual threads are used
+     * on Java 21+, see {@link org.example.util.VirtualThreads}
+     * @return this object
+     */
+    public StatsOptions setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    /**
+     * @param outputFormat format the statistics are written in, {@link OutputFormat#XML} by default
+     * @return this object
+     */
+    public StatsOptions setOutputFormat(OutputFormat outputFormat) {
+        this.outputFormat = outputFormat;
+        return this;
+    }
+
+    public File getOutputFile() {
+        return outputFile != null ? outputFile : new File("output_2." + outputFormat.getExtension());
+    }
+
+    /**
+     * @param outputFile file the statistics are written to, output_2 with the extension
+     * of the {@link #getOutputFormat()} (output_2.xml) in the working directory by default
+     * @return this object
+     */
+    public StatsOptions setOutputFile(File outputFile) {
+        this.outputFile = outputFile;
+        return this;
+    }
+
+    public Path getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * @param cacheFile sidecar file keeping the statistics of each input file between runs,
+     * so that only new or changed files are parsed (see {@link StatsCache});
+     * null (by default) to parse every file on each run
+     * @return this object
+     */
+    public StatsOptions setCacheFile(Path cacheFile) {
+        this.cacheFile = cacheFile;
+        return this;
+    }
+
+    public boolean isPrettyPrint() {
+        return prettyPrint;
+    }
+
+    /**
+     * @param prettyPrint true (by default) to write the output indented, one element per line,
+     * false to write it compact
+     * @return this object
+     */
+    public StatsOptions setPrettyPrint(boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+        return this;
+    }
+
+    public boolean isTimeBuckets() {
+        return timeBuckets;
+    }
+
+    /**
+     * @param timeBuckets true to also total each type per year and per month of the date_time
+     * of the violations (see {@link MonthlyTotals}), written after the overall totals by the
+     * XML and JSON formats; false (by default) to decode only the type and the fine amount
+     * @return this object
+     */
+    public StatsOptions setTimeBuckets(boolean timeBuckets) {
+        this.timeBuckets = timeBuckets;
+        return this;
+    }
+
+    public int getTopDrivers() {
+        return topDrivers;
+    }
+
+    /**
+     * @param topDrivers number of the drivers with the largest fine totals and of the drivers
+     * with the most violations to pick (see {@link DriverTotals}), written after the totals by
+     * the XML and JSON formats; 0 (by default) to not decode the names of the drivers
+     * @return this object
+     */
+    public StatsOptions setTopDrivers(int topDrivers) {
+        if (topDrivers < 0) {
+            throw new IllegalArgumentException("Number of top drivers must not be negative: " + topDrivers);
+        }
+        this.topDrivers = topDrivers;
+        return this;
+    }
+
+    public boolean isFineDistribution() {
+        return fineDistribution;
+    }
+
+    /**
+     * @param fineDistribution true to also summarize the distribution of the fine amounts
+     * of each type (see {@link FineDistribution}): the XML format writes the count, minimum,
+     * maximum, mean and percentiles as attributes of the {@code mv} elements, the JSON format
+     * in a {@code distribution} object; false (by default) to write the totals only
+     * @return this object
+     */
+    public StatsOptions setFineDistribution(boolean fineDistribution) {
+        this.fineDistribution = fineDistribution;
+        return this;
+    }
+
+    public int getDistinctDrivers() {
+        return distinctDrivers;
+    }
+
+    /**
+     * @param precision precision of the HyperLogLog sketches that estimate the number of distinct
+     * drivers of each type (see {@link DistinctDrivers}), from {@link DistinctDrivers#MIN_PRECISION}
+     * to {@link DistinctDrivers#MAX_PRECISION}, {@link DistinctDrivers#DEFAULT_PRECISION} is a good
+     * start; the estimates are written after the totals by the XML and JSON formats.
+     * 0 (by default) to not decode the names of the drivers
+     * @return this object
+     */
+    public StatsOptions setDistinctDrivers(int precision) {
+        if (precision != 0 && (precision < DistinctDrivers.MIN_PRECISION || precision > DistinctDrivers.MAX_PRECISION)) {
+            throw new IllegalArgumentException("Precision of distinct drivers must be 0 or from "
+                    + DistinctDrivers.MIN_PRECISION + " to " + DistinctDrivers.MAX_PRECISION + ": " + precision);
+        }
+        this.distinctDrivers = precision;
+        return this;
+    }
+
+    /**
+     * @return true if the names of the drivers are decoded, for the top drivers or the distinct drivers
+     */
+    boolean isDriverNames() {
+        return topDrivers > 0 || distinctDrivers > 0;
+    }
+}
@@ -1,27 +1,35 @@
 package org.example.task_one;
 
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
-import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
 import org.example.task_one.json_map_converter.Output;
+import org.example.task_one.json_map_converter.OutputFormat;
+import org.example.util.VirtualThreads;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
 
 public class TaskOne {
 
@@ -33,7 +41,7 @@ public class TaskOne {
     // 2 threads = to read: +-1400
     // single-thread = to read: +-1800
     // If we increase the size and number of files, 8 threads do outperform 4
-    private static final ExecutorService cpuBound = Executors.newFixedThreadPool(8);
+    // So by default the pool has a thread per available processor (see StatsOptions)
 
     /**
      Since File objects in Java are not the actual files meaning they do not contain the data but
@@ -42,118 +50,429 @@ public class TaskOne {
      @return Output XML file
      */
     public static File overallViolationsStats(List<File> inputFiles) {
-        return readFromJSONWriteToXML(inputFiles);
+        return overallViolationsStats(inputFiles, new StatsOptions());
+    }
+
+    /**
+     Same as {@link #overallViolationsStats(List)}, but with the given settings.
+     @param inputFiles list of previously found JSON files
+     @param options settings of the run
+     @return Output XML file
+     */
+    public static File overallViolationsStats(List<File> inputFiles, StatsOptions options) {
+        return readFromJSONWriteToXML(inputFiles, options);
+    }
+
+    /**
+     Same as {@link #overallViolationsStats(List)}, but the files are read on the given executor,
+     which is not shut down afterwards.
+     @param inputFiles list of previously found JSON files
+     @param executor executor owned by the caller
+     @return Output XML file
+     */
+    public static File overallViolationsStats(List<File> inputFiles, Executor executor) {
+        return overallViolationsStats(inputFiles, new StatsOptions().setExecutor(executor));
+    }
+
+    /**
+     Same as {@link #overallViolationsStats(List)}, but the files are read by a pool
+     of the given number of threads.
+     @param inputFiles list of previously found JSON files
+     @param parallelism number of threads
+     @return Output XML file
+     */
+    public static File overallViolationsStats(List<File> inputFiles, int parallelism) {
+        return overallViolationsStats(inputFiles, new StatsOptions().setParallelism(parallelism));
+    }
+
+    /**
+     Same as {@link #overallViolationsStats(List)}, but the output is written in the given format,
+     into output_2 file with the extension of the format.
+     @param inputFiles list of previously found JSON files
+     @param format format of the output
+     @return Output file
+     */
+    public static File overallViolationsStats(List<File> inputFiles, OutputFormat format) {
+        return overallViolationsStats(inputFiles, new StatsOptions().setOutputFormat(format));
     }
 
     /**
      * Read data from JSON files, return an output XML file.
-     * First, we map Java objects from each input JSON and put them all in a list.
-     * Second, we calculate for each {@link ViolationType} total fine sum of each
-     * {@link TrafficViolation}. We get a Map of {@link ViolationType}
-     * and total fine sum for it. Finally, we write the map into the XML using
-     * custom serializer.
+     * First, each input JSON is folded into partial {@link ViolationTotals}
+     * (total fine sum of its {@link TrafficViolation} objects for each {@link ViolationType}),
+     * so no file keeps its parsed objects around. Second, the partials are merged
+     * and we get a Map of {@link ViolationType} and total fine sum for it, sorted by the sum
+     * (and such a map for each year and month if {@link StatsOptions#isTimeBuckets()},
+     * the top drivers if {@link StatsOptions#getTopDrivers()} is set, and the distribution
+     * of the fine amounts and the number of distinct drivers of each type if set).
+     * Finally, we write the map in the {@link StatsOptions#getOutputFormat()}
+     * (XML using custom serializer by default).
      * @param inputFiles list of JSON files
+     * @param options settings of the run
      * @return output XML file
      */
-    private static File readFromJSONWriteToXML(List<File> inputFiles) {
-        File output = new File("output_2.xml");
+    private static File readFromJSONWriteToXML(List<File> inputFiles, StatsOptions options) {
+        File output = options.getOutputFile();
 
-        List<TrafficViolation> violationList = getListOfTrfViolations(inputFiles);
+        ViolationStats stats = getViolationStats(inputFiles, options);
 
-        Map<ViolationType, BigDecimal> statsMap = getSortedMapOfVTypeAndTotalFineSum(violationList);
+        Output out = new Output();
+        out.setEntry(getSortedMapOfVTypeAndTotalFineSum(stats.getTotals().toMap()));
+        FineDistribution fineDistribution = stats.getFineDistribution();
+        if (fineDistribution != null) {
+            out.setFineSummaries(fineDistribution.summarize(stats.getTotals()));
+        }
+        DistinctDrivers distinctDrivers = stats.getDistinctDrivers();
+        if (distinctDrivers != null) {
+            out.setDistinctDrivers(getMapInOrderOf(out.getEntry(), distinctDrivers.estimates()));
+        }
+        MonthlyTotals monthlyTotals = stats.getMonthlyTotals();
+        if (monthlyTotals != null) {
+            out.setYearEntries(getSortedMapsOfPeriods(monthlyTotals.byYear()));
+            out.setMonthEntries(getSortedMapsOfPeriods(monthlyTotals.byMonth()));
+        }
+        DriverTotals driverTotals = stats.getDriverTotals();
+        if (driverTotals != null) {
+            out.setTopDriversByFine(driverTotals.topByFineTotal(options.getTopDrivers()));
+            out.setTopDriversByCount(driverTotals.topByCount(options.getTopDrivers()));
+        }
 
-        writeMapToXml(statsMap, output);
+        writeOutput(out, output, options);
         return output;
     }
 
     /**
-     * Get the list of TrafficViolation.
+     * Get the merged ViolationTotals of all the files.
+     *
+     * @param inputFiles list of inputFiles to be aggregated
+     * @param options settings of the run
+     * @return total fine amount and count of each ViolationType
+     */
+    public static ViolationTotals getViolationTotals(List<File> inputFiles, StatsOptions options) {
+        return getViolationStats(inputFiles, options).getTotals();
+    }
+
+    /**
+     * Get the merged ViolationStats of all the files. If {@link StatsOptions#getCacheFile()}
+     * is set, files read by an earlier run and not changed since are not parsed again,
+     * their statistics come from the {@link StatsCache}.
      *
-     * @param inputFiles list of inputFiles to be mapped
-     * @return List of TrafficViolation
+     * @param inputFiles list of inputFiles to be aggregated
+     * @param options settings of the run
+     * @return statistics of all the files
      */
-    private static List<TrafficViolation> getListOfTrfViolations(List<File> inputFiles) {
+    public static ViolationStats getViolationStats(List<File> inputFiles, StatsOptions options) {
         /*
         List of results from the loop - using static method allOf()
         we wait till all the Futures will complete, but they complete
         in parallel in contradiction to if we were to put the join()
         immediately in the for loop
         */
-        List<CompletableFuture<List<TrafficViolation>>> completableFutureList = new ArrayList<>();
-        // Synchronized as several threads modify it at the same time
-        List<TrafficViolation> violationList =  Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> completableFutureList = new ArrayList<>();
+        StatsCache cache = options.getCacheFile() == null ? null : StatsCache.load(options.getCacheFile());
+        // Executor created by this call (if the caller gave none) is shut down
+        // once all the files are read, so repeated calls leak no threads
+        ExecutorService ownExecutor = options.getExecutor() == null ? createExecutor(options) : null;
+        Executor cpuBound = ownExecutor != null ? ownExecutor : options.getExecutor();
         // nanoTime() is the most precise way to count time
         long start = System.nanoTime();
+        ViolationStats stats = new ViolationStats(options);
 
-        // Applying CompletableFuture for multiple threads to read files
+        // Applying CompletableFuture for multiple threads to read files.
+        // Each file (or chunk of a large file) gets its own partial stats,
+        // so the threads share nothing while reading. A partial is merged into
+        // the stats of the run as soon as it is complete and then dropped, so only
+        // the partials being filled are kept, not one per chunk of the run
         for (File inputFile : inputFiles) {
-            CompletableFuture<List<TrafficViolation>> completableFuture = CompletableFuture
-                    .supplyAsync(() -> inputFile, cpuBound)
-                    .thenApply(file -> deserializeFromJson(file, violationList));
+            CompletableFuture<Void> completableFuture = CompletableFuture
+                    .supplyAsync(() -> cache == null ? null : cache.lookup(inputFile, options), cpuBound)
+                    .thenCompose(cached -> {
+                        if (cached != null) {
+                            mergeInto(stats, cached);
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        return readFile(inputFile, options, cache, cpuBound, stats);
+                    })
+                    // Avoiding throwing an exception in the join() call
+                    .exceptionally(ex -> {
+                        printFailure(inputFile, ex);
+                        synchronized (stats) {
+                            stats.markIncomplete();
+                        }
+                        return null;
+                    });
             completableFutureList.add(completableFuture);
 
             // One (main) thread reads the files (to test the performance difference)
             // Comment out the CompletableFuture parts
-            // deserializeFromJson(inputFile, violationList);
+            // deserializeFromJson(FileChunk.whole(inputFile), options);
 
         }
-        cpuBound.shutdown();
-        CompletableFuture.allOf(completableFutureList.toArray(new CompletableFuture[0]))
-                // Avoiding throwing an exception in the join() call
-                .exceptionally(ex -> null)
-                .join();
+        try {
+            CompletableFuture.allOf(completableFutureList.toArray(new CompletableFuture[0])).join();
+        } finally {
+            // Chunk tasks are submitted by the pool threads, so the pool is shut down only now
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+            }
+        }
+
+        if (cache != null) {
+            try {
+                cache.save();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
 
         long end = System.nanoTime();
         long passed = (end - start) / 1000000;
         System.out.println("Time taken to read: " + passed + "ms");
 
-        return violationList;
+        return stats;
+    }
+
+    /**
+     * Reads the files into a columnar {@link ViolationStore}, so that several queries
+     * (by type, by year or month, by fine range) are answered without parsing the files again.
+     * The files and chunks are read in parallel as set by the options. The elements are always
+     * decoded from the tokens ({@link JsonDecoder#TOKEN_STREAM}) together with their date_time,
+     * and {@link StatsOptions#getCacheFile()} is not used.
+     * @param inputFiles list of JSON files
+     * @param options settings of the run
+     * @return the loaded violations
+     */
+    public static ViolationStore loadViolationStore(List<File> inputFiles, StatsOptions options) {
+        ExecutorService ownExecutor = options.getExecutor() == null ? createExecutor(options) : null;
+        Executor executor = ownExecutor != null ? ownExecutor : options.getExecutor();
+        long start = System.nanoTime();
+
+        // A segment per chunk, in the order of the files and their chunks
+        List<CompletableFuture<List<ViolationStore.Segment>>> fileFutures = new ArrayList<>();
+        for (File inputFile : inputFiles) {
+            fileFutures.add(CompletableFuture
+                    .supplyAsync(() -> splitIntoChunks(inputFile, options, null), executor)
+                    .thenCompose(chunks -> {
+                        List<CompletableFuture<ViolationStore.Segment>> chunkFutures = new ArrayList<>();
+                        for (FileChunk chunk : chunks) {
+                            chunkFutures.add(CompletableFuture.supplyAsync(
+                                    () -> readSegment(chunk, options), executor));
+                        }
+                        return CompletableFuture.allOf(chunkFutures.toArray(new CompletableFuture[0]))
+                                .thenApply(ignored -> chunkFutures.stream()
+                                        .map(CompletableFuture::join)
+                                        .collect(Collectors.toList()));
+                    })
+                    .exceptionally(ex -> {
+                        printFailure(inputFile, ex);
+                        return List.of(ViolationStore.Segment.failed());
+                    }));
+        }
+        try {
+            CompletableFuture.allOf(fileFutures.toArray(new CompletableFuture[0])).join();
+        } finally {
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+            }
+        }
+
+        List<ViolationStore.Segment> segments = new ArrayList<>();
+        fileFutures.forEach(fileFuture -> segments.addAll(fileFuture.join()));
+        ViolationStore store = new ViolationStore(segments);
+
+        long passed = (System.nanoTime() - start) / 1000000;
+        System.out.println("Time taken to load " + store.size() + " violations: " + passed + "ms");
+        return store;
+    }
+
+    /**
+     * Reports a file that could not be read, with the exception that stopped it.
+     * @param file json file that failed
+     * @param ex failure of the tasks of the file, unwrapped from its {@link CompletionException}
+     */
+    private static void printFailure(File file, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        System.err.println("Failed to read " + file);
+        cause.printStackTrace();
+    }
+
+    /**
+     * Decodes the elements of a chunk into the columns of a segment.
+     * @param chunk json file or range of its elements
+     * @param options settings of the run (input mode)
+     * @return the segment, incomplete if the chunk could not be read to the end
+     */
+    private static ViolationStore.Segment readSegment(FileChunk chunk, StatsOptions options) {
+        ViolationStore.SegmentBuilder builder = new ViolationStore.SegmentBuilder();
+        try (JsonParser jsonParser = chunk.createParser(new ObjectMapper().getFactory(), options.getInputMode())) {
+            if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalStateException("Expected content to be an array");
+            }
+            new TrafficViolationDecoder(builder, true, false).decodeArray(jsonParser);
+        } catch (IOException e) {
+            e.printStackTrace();
+            builder.markIncomplete();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads one file (in chunks if it is large) into the stats of the run and stores
+     * its statistics in the cache. The identity of the file is taken before it is read,
+     * so statistics of a file that changes during the run are never stored under
+     * the identity of the new content.
+     * @param file json file to read
+     * @param options settings of the run
+     * @param cache cache of the run, null if disabled
+     * @param executor executor to run the tasks
+     * @param runStats statistics of the run the file is merged into
+     * @return future completed once the file is merged
+     */
+    private static CompletableFuture<Void> readFile(File file, StatsOptions options, StatsCache cache,
+                                                    Executor executor, ViolationStats runStats) {
+        if (cache == null) {
+            // The chunks go straight into the run, no table of the whole file is built
+            return deserializeChunks(splitIntoChunks(file, options, null), options, executor, runStats);
+        }
+        StatsCache.FileVersion version = StatsCache.version(file);
+        // Hashed by the read that splits or parses the file, it is not read once more for the cache
+        CRC32C content = new CRC32C();
+        ViolationStats fileStats = new ViolationStats(options);
+        return deserializeChunks(splitIntoChunks(file, options, content), options, executor, fileStats)
+                .thenRun(() -> {
+                    cache.store(file, version, content.getValue(), fileStats);
+                    mergeInto(runStats, fileStats);
+                });
+    }
+
+    /**
+     * Merges a partial into statistics shared by the tasks of a run.
+     * @param target statistics of a file or of the run, guarded by itself
+     * @param partial statistics of a chunk or a file, dropped by the caller afterwards
+     */
+    private static void mergeInto(ViolationStats target, ViolationStats partial) {
+        synchronized (target) {
+            target.merge(partial);
+        }
+    }
+
+    /**
+     * Creates the executor of a run when the caller gave none.
+     * @param options settings of the run
+     * @return a thread per task executor or a fixed pool of {@link StatsOptions#getParallelism()} threads
+     */
+    private static ExecutorService createExecutor(StatsOptions options) {
+        if (options.isVirtualThreads()) {
+            return VirtualThreads.newThreadPerTaskExecutor();
+        }
+        return Executors.newFixedThreadPool(options.getParallelism());
+    }
+
+    /**
+     * Splits a file larger than the chunk size into ranges of its elements
+     * (see {@link JsonArraySplitter}), so one large file does not keep a single
+     * thread busy while the others are idle.
+     * @param file json file to split
+     * @param options settings of the run (chunk size and input mode)
+     * @param content checksum of the content of the file, updated by the split or by the parse
+     * of the whole file; null if it is not hashed
+     * @return chunks of the file, or the whole file if it is small
+     */
+    private static List<FileChunk> splitIntoChunks(File file, StatsOptions options, Checksum content) {
+        try {
+            return JsonArraySplitter.split(file, options.getChunkSize(), options.getInputMode(), content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses each chunk of a file in its own task and merges each partial as soon as
+     * its chunk is parsed, so at most one partial per running task is kept.
+     * @param chunks chunks of one file
+     * @param options settings of the run
+     * @param executor executor to run the chunk tasks
+     * @param target statistics the partials are merged into
+     * @return future completed once all the chunks are merged
+     */
+    private static CompletableFuture<Void> deserializeChunks(List<FileChunk> chunks, StatsOptions options,
+                                                             Executor executor, ViolationStats target) {
+        // No need to hop to another thread for a small file
+        if (chunks.size() == 1) {
+            mergeInto(target, deserializeFromJson(chunks.get(0), options));
+            return CompletableFuture.completedFuture(null);
+        }
+        List<CompletableFuture<Void>> chunkFutures = new ArrayList<>();
+        for (FileChunk chunk : chunks) {
+            chunkFutures.add(CompletableFuture
+                    .supplyAsync(() -> deserializeFromJson(chunk, options), executor)
+                    .thenAccept(chunkStats -> mergeInto(target, chunkStats)));
+        }
+        return CompletableFuture.allOf(chunkFutures.toArray(new CompletableFuture[0]));
     }
 
     /**
-     * Parses JSON objects into the Java objects.
-     * @param file json file to deserialize
-     * @param violationList list of TrafficViolation to be filled with the Java objects
-     * @return list of TrafficViolation
+     * Parses JSON objects and folds each of them into the partial ViolationStats of the chunk.
+     * With {@link JsonDecoder#DATABIND} each object is mapped to a Java object first,
+     * {@link JsonDecoder#TOKEN_STREAM} reads the fields from the tokens directly.
+     * The bytes are read as set by {@link StatsOptions#getInputMode()}. The date_time is decoded
+     * (and required) only if the violations are bucketed by time, the names only if the top
+     * drivers are picked.
+     * @param chunk json file or range of its elements to deserialize
+     * @param options settings of the run (decoder, input mode and the collected statistics)
+     * @return statistics of the chunk, incomplete if it could not be read to the end
      */
-    private static List<TrafficViolation> deserializeFromJson(File file,
-                                                       List<TrafficViolation> violationList) {
+    private static ViolationStats deserializeFromJson(FileChunk chunk, StatsOptions options) {
         // Immutability to ensure thread-safety
         final ObjectMapper mapper = new ObjectMapper();
+        // Only the thread reading the chunk touches it
+        final boolean timeBuckets = options.isTimeBuckets();
+        final boolean driverNames = options.isDriverNames();
+        final ViolationStats partialStats = new ViolationStats(options);
         System.out.println(Thread.currentThread().getName() + " running");
-        try (JsonParser jsonParser = mapper.getFactory().createParser(file)) {
+        try (JsonParser jsonParser = chunk.createParser(mapper.getFactory(), options.getInputMode())) {
             if (jsonParser.nextToken() != JsonToken.START_ARRAY) {
                 throw new IllegalStateException("Expected content to be an array");
             }
-            while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
-                violationList.add(mapper.readValue(jsonParser, TrafficViolation.class));
+            if (options.getDecoder() == JsonDecoder.TOKEN_STREAM) {
+                new TrafficViolationDecoder(partialStats::add, timeBuckets, driverNames).decodeArray(jsonParser);
+            } else {
+                // The fields the run does not use are skipped, as the token decoder does
+                Class<?> mixIn = TrafficViolation.mixInWithout(timeBuckets, driverNames);
+                if (mixIn != null) {
+                    mapper.addMixIn(TrafficViolation.class, mixIn);
+                }
+                while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+                    TrafficViolation violation = mapper.readValue(jsonParser, TrafficViolation.class);
+                    if (timeBuckets && violation.getDate_time() == ViolationDateTimes.INVALID) {
+                        throw new JsonParseException(jsonParser, "Element has no date_time");
+                    }
+                    if (driverNames && (violation.getFirst_name() == null || violation.getLast_name() == null)) {
+                        throw new JsonParseException(jsonParser, "Element has no "
+                                + (violation.getFirst_name() == null ? "first_name" : "last_name"));
+                    }
+                    partialStats.add(violation);
+                }
             }
             System.out.println(Thread.currentThread().getName() + " finished");
 
         } catch (IOException e) {
             e.printStackTrace();
+            partialStats.markIncomplete();
         }
-        return violationList;
+        return partialStats;
     }
 
     /**
      * Get the sorted Map of ViolationType and total fine amount.
-     * @param violationList list of TrafficViolation
+     * @param totalsMap Map of ViolationType and total fine amount
      * @return Map sorted descending by total sum of fine amount of each ViolationType
      */
     private static Map<ViolationType, BigDecimal> getSortedMapOfVTypeAndTotalFineSum(
-            List<TrafficViolation> violationList) {
-
-        // Get the Map of ViolationType and total fine amount
-        Map<ViolationType, BigDecimal> statsMap = violationList.stream()
-                .collect(Collectors.groupingBy(TrafficViolation::getType,
-                        Collectors.reducing(
-                                BigDecimal.ZERO,
-                                TrafficViolation::getFine_amount,
-                                BigDecimal::add)));
+            Map<ViolationType, BigDecimal> totalsMap) {
 
         // Sort by fine amount
-        return statsMap.entrySet().stream()
+        return totalsMap.entrySet().stream()
                 .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
                         (e1, e2) -> e1, LinkedHashMap::new));
@@ -161,21 +480,45 @@ public class TaskOne {
     }
 
     /**
-     * Writes the given map of ViolationType and values for each of them into the output xml.
-     * @param resultMap map of ViolationType and values for each of them
-     * @param output output xml  file
+     * Get the Map of ViolationType and values in the order of the given types.
+     * @param order Map with the types in the order to keep
+     * @param values Map of ViolationType and values
+     * @return Map of the types of the order that have a value, in the same order
      */
-    private static void writeMapToXml(Map<ViolationType, BigDecimal> resultMap, File output) {
+    private static <V> Map<ViolationType, V> getMapInOrderOf(Map<ViolationType, ?> order,
+                                                             Map<ViolationType, V> values) {
 
-        Output out = new Output();
-        out.setEntry(resultMap);
-
-        // Write to the output file
-        XmlMapper xmlMapper = new XmlMapper();
-        xmlMapper.configure(ToXmlGenerator.Feature.WRITE_XML_DECLARATION, true);
-        try (FileWriter fileWriter = new FileWriter(output);
-             PrintWriter printWriter = new PrintWriter(fileWriter)){
-            printWriter.print(xmlMapper.writerWithDefaultPrettyPrinter().writeValueAsString(out));
+        Map<ViolationType, V> ordered = new LinkedHashMap<>();
+        order.keySet().stream().filter(values::containsKey).forEach(type -> ordered.put(type, values.get(type)));
+        return ordered;
+    }
+
+    /**
+     * Get the sorted Map of ViolationType and total fine amount of each period.
+     * @param periodTotals totals of each year or month
+     * @return Map of each period, in the same order, and its Map sorted descending by total sum
+     */
+    private static <K> SortedMap<K, Map<ViolationType, BigDecimal>> getSortedMapsOfPeriods(
+            SortedMap<K, ViolationTotals> periodTotals) {
+
+        SortedMap<K, Map<ViolationType, BigDecimal>> periods = new TreeMap<>();
+        periodTotals.forEach((period, totals) ->
+                periods.put(period, getSortedMapOfVTypeAndTotalFineSum(totals.toMap())));
+        return periods;
+    }
+
+    /**
+     * Writes the given map of ViolationType and values for each of them into the output file.
+     * @param out map of ViolationType and values for each of them, with the periods if any
+     * @param output output file
+     * @param options settings of the run: format of the output and whether to indent it
+     */
+    private static void writeOutput(Output out, File output, StatsOptions options) {
+
+        // Write to the output file: the format streams straight into the buffered file,
+        // no String copy of the whole document is built
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(output))) {
+            options.getOutputFormat().write(out, outputStream, options.isPrettyPrint());
         } catch (IOException e) {
             e.printStackTrace();
         }
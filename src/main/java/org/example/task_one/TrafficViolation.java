@@ -2,6 +2,7 @@ package org.example.task_one;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 import java.math.BigDecimal;
 
@@ -10,19 +11,24 @@ import java.math.BigDecimal;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class TrafficViolation {
 
-    // Not needed since we only need the type of violation and fine amount
-    // Fewer fields - faster performance
-
-    /*@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-dd-MM HH:mm:ss")
-    private LocalDateTime date_time;
+    // Names of the driver, used for the top drivers and the distinct drivers
+    // (see StatsOptions#setTopDrivers and StatsOptions#setDistinctDrivers)
     private String first_name;
-    private String last_name;*/
+    private String last_name;
+
+    // Minutes since 1970-01-01T00:00, parsed without DateTimeFormatter (see ViolationDateTimes)
+    // @JsonFormat with LocalDateTime was too slow for every element
+    @JsonDeserialize(using = ViolationDateTimeDeserializer.class)
+    private long date_time = ViolationDateTimes.INVALID;
 
     @JsonProperty("type")
     private ViolationType type;
     private BigDecimal fine_amount;
 
-    /*public LocalDateTime getDate_time() {
+    /**
+     * @return minutes since 1970-01-01T00:00 of the violation, {@link Long#MIN_VALUE} if absent
+     */
+    public long getDate_time() {
         return date_time;
     }
 
@@ -32,7 +38,7 @@ public class TrafficViolation {
 
     public String getLast_name() {
         return last_name;
-    }*/
+    }
 
     public ViolationType getType() {
         return type;
@@ -42,11 +48,42 @@ public class TrafficViolation {
         return fine_amount;
     }
 
+    /**
+     * Mix-in for {@link com.fasterxml.jackson.databind.ObjectMapper#addMixIn(Class, Class)} that leaves
+     * out the fields a run does not use: they are skipped by the parser without being bound,
+     * so a run without time buckets neither parses nor requires the date_time, and a run
+     * without driver names creates no String for them.
+     * @param dateTime true if the date_time is used
+     * @param names true if the names of the driver are used
+     * @return the mix-in, null if all the fields are used
+     */
+    static Class<?> mixInWithout(boolean dateTime, boolean names) {
+        if (dateTime) {
+            return names ? null : WithoutNames.class;
+        }
+        return names ? WithoutDateTime.class : WithoutDateTimeAndNames.class;
+    }
+
+    @JsonIgnoreProperties(value = {"date_time"}, ignoreUnknown = true)
+    private abstract static class WithoutDateTime {
+    }
+
+    @JsonIgnoreProperties(value = {"first_name", "last_name"}, ignoreUnknown = true)
+    private abstract static class WithoutNames {
+    }
+
+    @JsonIgnoreProperties(value = {"date_time", "first_name", "last_name"}, ignoreUnknown = true)
+    private abstract static class WithoutDateTimeAndNames {
+    }
+
     @Override
     public String toString() {
         return "TrafficViolation{" +
-                "type=" + type +
+                "first_name=" + first_name +
+                ", last_name=" + last_name +
+                ", type=" + type +
                 ", fine_amount=" + fine_amount +
+                ", date_time=" + date_time +
                 '}';
     }
 }
@@ -0,0 +1,244 @@
+package org.example.task_one;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Fast-path alternative to mapping each element to {@link TrafficViolation} with databind.
+ * Walks the tokens of the elements directly: only {@code type} and {@code fine_amount}
+ * (and {@code date_time}, {@code first_name} and {@code last_name} if asked for) are decoded,
+ * every other field is skipped with {@link JsonParser#skipChildren()}. The type is looked up
+ * from the characters of the token, a plain fine amount is parsed from them into an unscaled
+ * long, the date-time by {@link ViolationDateTimes}, and the names are copied into the row
+ * and hashed by {@link DriverTotals#hash(char[], int, char[], int)}, so no objects are
+ * created per element. Each decoded element
+ * is handed to a {@link ViolationSink}.
+ * <p>
+ * Not thread-safe: one decoder per file.
+ */
+final class TrafficViolationDecoder {
+
+    private static final String TYPE = "type";
+    private static final String FINE_AMOUNT = "fine_amount";
+    private static final String DATE_TIME = "date_time";
+    private static final String FIRST_NAME = "first_name";
+    private static final String LAST_NAME = "last_name";
+
+    // Precomputed lookup: names of the ViolationType constants grouped by the name length
+    private static final ViolationType[][] TYPES_BY_LENGTH;
+    private static final char[][] NAMES_BY_ORDINAL;
+
+    static {
+        ViolationType[] types = ViolationType.values();
+        NAMES_BY_ORDINAL = new char[types.length][];
+        int maxLength = 0;
+        for (ViolationType type : types) {
+            NAMES_BY_ORDINAL[type.ordinal()] = type.name().toCharArray();
+            maxLength = Math.max(maxLength, type.name().length());
+        }
+        TYPES_BY_LENGTH = new ViolationType[maxLength + 1][0];
+        for (ViolationType type : types) {
+            int length = type.name().length();
+            ViolationType[] sameLength = TYPES_BY_LENGTH[length];
+            ViolationType[] extended = new ViolationType[sameLength.length + 1];
+            System.arraycopy(sameLength, 0, extended, 0, sameLength.length);
+            extended[sameLength.length] = type;
+            TYPES_BY_LENGTH[length] = extended;
+        }
+    }
+
+    private final ViolationSink sink;
+    private final boolean decodeDateTime;
+    private final boolean decodeNames;
+    // Fields of the current element
+    private final ViolationRow row = new ViolationRow();
+
+    /**
+     * @param sink receiver of every decoded element
+     * @param decodeDateTime true to decode {@code date_time} as well, it is then required
+     * @param decodeNames true to decode {@code first_name} and {@code last_name} as well,
+     * they are then required
+     */
+    TrafficViolationDecoder(ViolationSink sink, boolean decodeDateTime, boolean decodeNames) {
+        this.sink = sink;
+        this.decodeDateTime = decodeDateTime;
+        this.decodeNames = decodeNames;
+    }
+
+    /**
+     * Decodes the elements of the array until its end.
+     * @param parser parser positioned at the {@link JsonToken#START_ARRAY} token
+     * @throws IOException if the content is malformed or an element has no known type
+     * or fine amount
+     */
+    void decodeArray(JsonParser parser) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected element to be an object, got " + token);
+            }
+            decodeObject(parser);
+        }
+    }
+
+    /**
+     * Decodes one element and hands it to the sink.
+     * @param parser parser positioned at the {@link JsonToken#START_OBJECT} token
+     */
+    private void decodeObject(JsonParser parser) throws IOException {
+        ViolationType type = null;
+        boolean hasFine = false;
+        row.epochMinute = ViolationDateTimes.INVALID;
+        row.firstNameLength = -1;
+        row.lastNameLength = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            // Field names are interned by the parser, equals() is an identity check
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (TYPE.equals(fieldName)) {
+                type = decodeType(parser, value);
+            } else if (FINE_AMOUNT.equals(fieldName)) {
+                decodeFine(parser, value);
+                hasFine = true;
+            } else if (decodeDateTime && DATE_TIME.equals(fieldName)) {
+                decodeDateTime(parser, value);
+            } else if (decodeNames && FIRST_NAME.equals(fieldName)) {
+                row.firstName = decodeName(parser, value, row.firstName);
+                row.firstNameLength = parser.getTextLength();
+            } else if (decodeNames && LAST_NAME.equals(fieldName)) {
+                row.lastName = decodeName(parser, value, row.lastName);
+                row.lastNameLength = parser.getTextLength();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (type == null || !hasFine) {
+            throw new JsonParseException(parser, "Element has no " + (type == null ? TYPE : FINE_AMOUNT));
+        }
+        if (decodeDateTime && row.epochMinute == ViolationDateTimes.INVALID) {
+            throw new JsonParseException(parser, "Element has no " + DATE_TIME);
+        }
+        if (decodeNames) {
+            if (row.firstNameLength < 0 || row.lastNameLength < 0) {
+                throw new JsonParseException(parser, "Element has no "
+                        + (row.firstNameLength < 0 ? FIRST_NAME : LAST_NAME));
+            }
+            row.nameHash = DriverTotals.hash(row.firstName, row.firstNameLength, row.lastName, row.lastNameLength);
+        }
+        row.type = type;
+        sink.accept(row);
+    }
+
+    private void decodeDateTime(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            row.epochMinute = ViolationDateTimes.parseEpochMinute(
+                    parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        }
+        if (row.epochMinute == ViolationDateTimes.INVALID) {
+            throw new JsonParseException(parser, "Cannot deserialize date_time from "
+                    + value + " " + parser.getText());
+        }
+    }
+
+    /**
+     * Copies the characters of a name token.
+     * @param target array of the row to copy into
+     * @return the target, or a larger array if the name does not fit into it
+     */
+    private static char[] decodeName(JsonParser parser, JsonToken value, char[] target) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            throw new JsonParseException(parser, "Cannot deserialize " + parser.currentName() + " from " + value);
+        }
+        int length = parser.getTextLength();
+        if (length > target.length) {
+            target = new char[Math.max(length, 2 * target.length)];
+        }
+        System.arraycopy(parser.getTextCharacters(), parser.getTextOffset(), target, 0, length);
+        return target;
+    }
+
+    private static ViolationType decodeType(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            char[] buffer = parser.getTextCharacters();
+            int offset = parser.getTextOffset();
+            int length = parser.getTextLength();
+            if (length < TYPES_BY_LENGTH.length) {
+                for (ViolationType candidate : TYPES_BY_LENGTH[length]) {
+                    if (nameEquals(NAMES_BY_ORDINAL[candidate.ordinal()], buffer, offset)) {
+                        return candidate;
+                    }
+                }
+            }
+        }
+        throw new JsonParseException(parser, "Cannot deserialize ViolationType from "
+                + value + " " + parser.getText());
+    }
+
+    private static boolean nameEquals(char[] name, char[] buffer, int offset) {
+        for (int i = 0; i < name.length; i++) {
+            if (name[i] != buffer[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void decodeFine(JsonParser parser, JsonToken value) throws IOException {
+        row.fineBig = null;
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            if (!parsePlainDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())) {
+                row.fineBig = parser.getDecimalValue();
+            }
+        } else if (value == JsonToken.VALUE_STRING) {
+            // Same coercion as databind does for the BigDecimal field
+            try {
+                row.fineBig = new BigDecimal(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                throw new JsonParseException(parser, "Cannot deserialize fine_amount from " + parser.getText());
+            }
+        } else {
+            throw new JsonParseException(parser, "Cannot deserialize fine_amount from " + value);
+        }
+    }
+
+    /**
+     * Parses a number without exponent and with at most 18 digits.
+     * @return false if the number has to be parsed as BigDecimal
+     */
+    private boolean parsePlainDecimal(char[] buffer, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+        boolean negative = false;
+        if (i < end && buffer[i] == '-') {
+            negative = true;
+            i++;
+        }
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        for (; i < end; i++) {
+            char c = buffer[i];
+            if (c >= '0' && c <= '9') {
+                // 18 digits always fit into long
+                if (++digits > 18) {
+                    return false;
+                }
+                unscaled = unscaled * 10 + (c - '0');
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return false;
+            }
+        }
+        row.fineUnscaled = negative ? -unscaled : unscaled;
+        row.fineScale = Math.max(scale, 0);
+        return digits > 0;
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.task_one;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Databind counterpart of the {@code date_time} decoding of {@link TrafficViolationDecoder}:
+ * maps the {@code yyyy-dd-MM HH:mm:ss} string straight to the epoch minute of
+ * {@link ViolationDateTimes}, instead of {@code @JsonFormat} and LocalDateTime,
+ * which parse it through a DateTimeFormatter into several objects per element.
+ */
+final class ViolationDateTimeDeserializer extends StdDeserializer<Long> {
+
+    ViolationDateTimeDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_STRING) {
+            long epochMinute = ViolationDateTimes.parseEpochMinute(
+                    parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            if (epochMinute != ViolationDateTimes.INVALID) {
+                return epochMinute;
+            }
+            return (Long) context.handleWeirdStringValue(Long.class, parser.getText(),
+                    "expected date-time of layout yyyy-dd-MM HH:mm:ss");
+        }
+        return (Long) context.handleUnexpectedToken(Long.class, parser);
+    }
+
+    @Override
+    public Long getNullValue(DeserializationContext context) {
+        return ViolationDateTimes.INVALID;
+    }
+}
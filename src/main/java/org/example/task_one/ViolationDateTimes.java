@@ -0,0 +1,138 @@
+package org.example.task_one;
+
+/**
+ * Fixed-width parser of the {@code date_time} of the input ({@code yyyy-dd-MM HH:mm:ss},
+ * e.g. {@code 2021-17-12 22:26:43} is the 17th of December). The digits are read at their
+ * positions and the date is turned into days since 1970-01-01 arithmetically, so no
+ * DateTimeFormatter, LocalDateTime or String is created. Seconds are checked, but dropped:
+ * the result is a count of minutes since 1970-01-01T00:00 (in the local time of the input,
+ * no zone is applied).
+ */
+final class ViolationDateTimes {
+
+    /**
+     * Length of {@code yyyy-dd-MM HH:mm:ss}.
+     */
+    static final int LENGTH = 19;
+    /**
+     * Returned by the parse methods for a value that is not a valid date-time of the layout.
+     */
+    static final long INVALID = Long.MIN_VALUE;
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    // Days of 0001-01-01 to 1970-01-01 in the proleptic Gregorian calendar
+    private static final int DAYS_TO_EPOCH = 719162;
+    private static final int DAYS_PER_400_YEARS = 146097;
+    // Indexed by month (1 to 12) of a common year, by 13 + month of a leap year
+    private static final int[] MONTH_LENGTHS = {
+            0, 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31,
+            0, 31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+    private static final int[] DAYS_BEFORE_MONTH = new int[MONTH_LENGTHS.length];
+
+    static {
+        for (int i = 2; i < 13; i++) {
+            DAYS_BEFORE_MONTH[i] = DAYS_BEFORE_MONTH[i - 1] + MONTH_LENGTHS[i - 1];
+            DAYS_BEFORE_MONTH[13 + i] = DAYS_BEFORE_MONTH[13 + i - 1] + MONTH_LENGTHS[13 + i - 1];
+        }
+    }
+
+    private ViolationDateTimes() {
+    }
+
+    /**
+     * @param buffer characters holding the value
+     * @param offset index of the first character
+     * @param length number of characters of the value
+     * @return minutes since 1970-01-01T00:00, or {@link #INVALID}
+     */
+    static long parseEpochMinute(char[] buffer, int offset, int length) {
+        if (length != LENGTH
+                || buffer[offset + 4] != '-' || buffer[offset + 7] != '-' || buffer[offset + 10] != ' '
+                || buffer[offset + 13] != ':' || buffer[offset + 16] != ':') {
+            return INVALID;
+        }
+        int century = twoDigits(buffer, offset);
+        int yearOfCentury = twoDigits(buffer, offset + 2);
+        int day = twoDigits(buffer, offset + 5);
+        int month = twoDigits(buffer, offset + 8);
+        int hour = twoDigits(buffer, offset + 11);
+        int minute = twoDigits(buffer, offset + 14);
+        int second = twoDigits(buffer, offset + 17);
+        // A non-digit gives -1
+        if ((century | yearOfCentury | day | month | hour | minute | second) < 0
+                || month < 1 || month > 12 || hour > 23 || minute > 59 || second > 59) {
+            return INVALID;
+        }
+        int year = century * 100 + yearOfCentury;
+        // Months and leap years come in random order, so they index tables instead of branching
+        int leap = isLeap(year) ? 13 : 0;
+        if (day < 1 || day > MONTH_LENGTHS[leap + month]) {
+            return INVALID;
+        }
+        // Days of the years before, shifted by 400 years so that year 0 divides the same way
+        int yearsBefore = year + 399;
+        long epochDay = 365L * yearsBefore + yearsBefore / 4 - yearsBefore / 100 + yearsBefore / 400
+                - DAYS_PER_400_YEARS - DAYS_TO_EPOCH + DAYS_BEFORE_MONTH[leap + month] + day - 1;
+        return epochDay * MINUTES_PER_DAY + hour * 60L + minute;
+    }
+
+    /**
+     * @param epochMinute minutes since 1970-01-01T00:00
+     * @return days since 1970-01-01
+     */
+    static int epochDay(long epochMinute) {
+        return (int) Math.floorDiv(epochMinute, MINUTES_PER_DAY);
+    }
+
+    /**
+     * Year and month of a day, as {@code year * 12 + month - 1} (see {@link #yearOf(int)}
+     * and {@link #monthOf(int)}), by the civil-from-days algorithm of H. Hinnant:
+     * the inverse of the days counted by {@link #parseEpochMinute(char[], int, int)}.
+     * @param epochDay days since 1970-01-01
+     * @return year and month of the day as a single int
+     */
+    static int yearMonthOf(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        // Months counted from March
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+
+    /**
+     * @param yearMonth value of {@link #yearMonthOf(int)}
+     * @return the year
+     */
+    static int yearOf(int yearMonth) {
+        return Math.floorDiv(yearMonth, 12);
+    }
+
+    /**
+     * @param yearMonth value of {@link #yearMonthOf(int)}
+     * @return the month, 1 to 12
+     */
+    static int monthOf(int yearMonth) {
+        return Math.floorMod(yearMonth, 12) + 1;
+    }
+
+    private static boolean isLeap(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * @return value of the two digits, -1 if a character is not a digit
+     */
+    private static int twoDigits(char[] buffer, int offset) {
+        int tens = buffer[offset] - '0';
+        int ones = buffer[offset + 1] - '0';
+        // The sign bit is set if any of them is outside of 0 to 9
+        int outOfRange = tens | (9 - tens) | ones | (9 - ones);
+        return (tens * 10 + ones) | (outOfRange >> 31);
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.task_one;
+
+import java.math.BigDecimal;
+
+/**
+ * Fields of the violation being decoded, filled by {@link TrafficViolationDecoder}
+ * and handed to a {@link ViolationSink}. One instance is reused for all the elements
+ * of a chunk, so a sink reads the fields it needs and keeps none of them.
+ */
+final class ViolationRow {
+
+    ViolationType type;
+    // Fine amount as unscaled * 10^-scale, valid if fineBig is null
+    long fineUnscaled;
+    int fineScale;
+    // Set only if the amount cannot be parsed into a long (exponent or too many digits)
+    BigDecimal fineBig;
+    // Minutes since 1970-01-01T00:00 (see ViolationDateTimes), INVALID if not decoded
+    long epochMinute = ViolationDateTimes.INVALID;
+    // Characters of the driver names up to their lengths, -1 if not decoded
+    char[] firstName = new char[32];
+    int firstNameLength = -1;
+    char[] lastName = new char[32];
+    int lastNameLength = -1;
+    // DriverTotals#hash of the names, valid if they are decoded
+    long nameHash;
+
+    /**
+     * @return the fine amount as BigDecimal
+     */
+    BigDecimal getFineAmount() {
+        return fineBig != null ? fineBig : BigDecimal.valueOf(fineUnscaled, fineScale);
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.task_one;
+
+/**
+ * Receiver of the decoded violations of a chunk: the statistics of the chunk
+ * or a segment of the {@link ViolationStore}.
+ */
+@FunctionalInterface
+interface ViolationSink {
+
+    /**
+     * @param row fields of one violation, reused for the next one after the call
+     */
+    void accept(ViolationRow row);
+}
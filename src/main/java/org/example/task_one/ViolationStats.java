@@ -0,0 +1,221 @@
+package org.example.task_one;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Statistics of a chunk, a file or the whole run: the {@link ViolationTotals},
+ * the {@link MonthlyTotals} if the run buckets the violations by time,
+ * the {@link DriverTotals} if the run picks the top drivers,
+ * the {@link FineDistribution} if the run summarizes the distribution of the fine amounts,
+ * the {@link DistinctDrivers} if the run estimates the distinct drivers,
+ * and whether every violation was read. A file that fails part-way keeps
+ * the violations read before the failure, but is marked incomplete, so it is
+ * never stored in the {@link StatsCache}.
+ * <p>
+ * Not thread-safe: each task fills its own instance, which is merged into the
+ * statistics of its file or of the run (under the lock of that target) as soon
+ * as the task is done.
+ */
+public final class ViolationStats {
+
+    private final ViolationTotals totals;
+    // null if the violations are not bucketed by time
+    private final MonthlyTotals monthlyTotals;
+    // null if the top drivers are not picked
+    private final DriverTotals driverTotals;
+    // null if the distribution of the fine amounts is not summarized
+    private final FineDistribution fineDistribution;
+    // null if the distinct drivers are not estimated
+    private final DistinctDrivers distinctDrivers;
+    private boolean complete = true;
+
+    ViolationStats() {
+        this(new ViolationTotals(), null, null, null, null);
+    }
+
+    /**
+     * @param options settings of the run: the statistics collected besides the totals
+     */
+    ViolationStats(StatsOptions options) {
+        this(new ViolationTotals(), options.isTimeBuckets() ? new MonthlyTotals() : null,
+                options.getTopDrivers() > 0 ? new DriverTotals() : null,
+                options.isFineDistribution() ? new FineDistribution() : null,
+                options.getDistinctDrivers() > 0 ? new DistinctDrivers(options.getDistinctDrivers()) : null);
+    }
+
+    private ViolationStats(ViolationTotals totals, MonthlyTotals monthlyTotals, DriverTotals driverTotals,
+                           FineDistribution fineDistribution, DistinctDrivers distinctDrivers) {
+        this.totals = totals;
+        this.monthlyTotals = monthlyTotals;
+        this.driverTotals = driverTotals;
+        this.fineDistribution = fineDistribution;
+        this.distinctDrivers = distinctDrivers;
+    }
+
+    /**
+     * @return total fine amount and count of each ViolationType
+     */
+    public ViolationTotals getTotals() {
+        return totals;
+    }
+
+    /**
+     * @return totals of each year and month, null if the violations were not bucketed by time
+     */
+    public MonthlyTotals getMonthlyTotals() {
+        return monthlyTotals;
+    }
+
+    /**
+     * @return totals of each driver, null if the top drivers were not picked
+     */
+    public DriverTotals getDriverTotals() {
+        return driverTotals;
+    }
+
+    /**
+     * @return distribution of the fine amounts of each type, null if it was not summarized
+     */
+    public FineDistribution getFineDistribution() {
+        return fineDistribution;
+    }
+
+    /**
+     * @return sketches of the distinct drivers of each type, null if they were not estimated
+     */
+    public DistinctDrivers getDistinctDrivers() {
+        return distinctDrivers;
+    }
+
+    /**
+     * @param options settings of a run
+     * @return true if these statistics hold everything the run collects
+     */
+    boolean covers(StatsOptions options) {
+        return (!options.isTimeBuckets() || monthlyTotals != null)
+                && (options.getTopDrivers() <= 0 || driverTotals != null)
+                && (!options.isFineDistribution() || fineDistribution != null)
+                && (options.getDistinctDrivers() <= 0
+                || distinctDrivers != null && distinctDrivers.getPrecision() == options.getDistinctDrivers());
+    }
+
+    /**
+     * @return false if some input could not be read to the end
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Adds one decoded violation.
+     * @param row fields of the violation, with the epoch minute if bucketed by time
+     * and the names if the top or distinct drivers are collected
+     */
+    void add(ViolationRow row) {
+        if (row.fineBig == null) {
+            totals.add(row.type, row.fineUnscaled, row.fineScale);
+        } else {
+            totals.add(row.type, row.fineBig);
+        }
+        if (monthlyTotals != null) {
+            monthlyTotals.add(row);
+        }
+        if (driverTotals != null) {
+            driverTotals.add(row);
+        }
+        if (fineDistribution != null) {
+            fineDistribution.add(row);
+        }
+        if (distinctDrivers != null) {
+            distinctDrivers.add(row);
+        }
+    }
+
+    /**
+     * Adds one violation mapped to {@link TrafficViolation}.
+     * @param violation the violation, with its date_time if bucketed by time
+     * and its names if the top or distinct drivers are collected
+     */
+    void add(TrafficViolation violation) {
+        totals.add(violation.getType(), violation.getFine_amount());
+        if (monthlyTotals != null) {
+            monthlyTotals.add(violation.getDate_time(), violation.getType(), violation.getFine_amount());
+        }
+        if (driverTotals != null) {
+            driverTotals.add(violation.getFirst_name(), violation.getLast_name(), violation.getFine_amount());
+        }
+        if (fineDistribution != null) {
+            fineDistribution.add(violation.getType(), violation.getFine_amount());
+        }
+        if (distinctDrivers != null) {
+            distinctDrivers.add(violation.getType(),
+                    DriverTotals.hash(violation.getFirst_name(), violation.getLast_name()));
+        }
+    }
+
+    void markIncomplete() {
+        complete = false;
+    }
+
+    /**
+     * Adds the other statistics to these ones.
+     * @param other statistics to merge, left unchanged
+     */
+    void merge(ViolationStats other) {
+        totals.merge(other.totals);
+        if (monthlyTotals != null && other.monthlyTotals != null) {
+            monthlyTotals.merge(other.monthlyTotals);
+        }
+        if (driverTotals != null && other.driverTotals != null) {
+            driverTotals.merge(other.driverTotals);
+        }
+        if (fineDistribution != null && other.fineDistribution != null) {
+            fineDistribution.merge(other.fineDistribution);
+        }
+        if (distinctDrivers != null && other.distinctDrivers != null) {
+            distinctDrivers.merge(other.distinctDrivers);
+        }
+        complete &= other.complete;
+    }
+
+    /**
+     * Writes complete statistics in a compact binary form, see {@link #readFrom(DataInput)}.
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        totals.writeTo(out);
+        out.writeBoolean(monthlyTotals != null);
+        if (monthlyTotals != null) {
+            monthlyTotals.writeTo(out);
+        }
+        out.writeBoolean(driverTotals != null);
+        if (driverTotals != null) {
+            driverTotals.writeTo(out);
+        }
+        out.writeBoolean(fineDistribution != null);
+        if (fineDistribution != null) {
+            fineDistribution.writeTo(out);
+        }
+        out.writeBoolean(distinctDrivers != null);
+        if (distinctDrivers != null) {
+            distinctDrivers.writeTo(out);
+        }
+    }
+
+    /**
+     * @param in input written by {@link #writeTo(DataOutput)}
+     * @return the read statistics
+     * @throws IOException if reading fails
+     */
+    static ViolationStats readFrom(DataInput in) throws IOException {
+        ViolationTotals totals = ViolationTotals.readFrom(in);
+        MonthlyTotals monthlyTotals = in.readBoolean() ? MonthlyTotals.readFrom(in) : null;
+        DriverTotals driverTotals = in.readBoolean() ? DriverTotals.readFrom(in) : null;
+        FineDistribution fineDistribution = in.readBoolean() ? FineDistribution.readFrom(in) : null;
+        return new ViolationStats(totals, monthlyTotals, driverTotals, fineDistribution,
+                in.readBoolean() ? DistinctDrivers.readFrom(in) : null);
+    }
+}
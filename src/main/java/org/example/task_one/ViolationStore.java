@@ -0,0 +1,561 @@
+package org.example.task_one;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Violations of the input files kept in memory column by column, so several questions
+ * can be asked of the same corpus without parsing the JSON again
+ * (see {@link TaskOne#loadViolationStore(java.util.List, StatsOptions)}).
+ * <p>
+ * Each chunk of the input becomes a segment of three primitive columns:
+ * {@link ViolationType#ordinal()} as byte, fine amount as unscaled long (at a scale
+ * common to the segment) and the date as int days since 1970-01-01 - 13 bytes per violation.
+ * As in {@link ViolationTotals}, a fine that does not fit into long at the scale of its
+ * segment falls back to {@link BigDecimal}: the rare violation is kept aside in the
+ * segment with its exact amount, and the queries add it to the totals row by row.
+ * The totals of a query are equal in value to the ones of {@link TaskOne}, but their scale
+ * is the largest scale of the fines in the segments, not only of the summed ones
+ * (2760.00 where TaskOne sums whole amounts to 2760).
+ * A {@link Query} walks the columns in plain loops over primitive arrays, with the slices
+ * of the segments split between the threads of a {@link ForkJoinPool}.
+ * <p>
+ * Immutable once loaded, queries may run concurrently.
+ */
+public final class ViolationStore {
+
+    private static final ViolationType[] TYPES = ViolationType.values();
+    // Rows of a slice, the smallest unit of work of a query
+    private static final int SLICE_ROWS = 64 * 1024;
+
+    private final List<Segment> segments;
+    private final boolean complete;
+    private final long size;
+
+    ViolationStore(List<Segment> segments) {
+        this.segments = List.copyOf(segments);
+        long rows = 0;
+        boolean allComplete = true;
+        for (Segment segment : segments) {
+            rows += segment.size + segment.overflowRows.length;
+            allComplete &= segment.complete;
+        }
+        this.size = rows;
+        this.complete = allComplete;
+    }
+
+    /**
+     * @return number of stored violations
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return false if some input could not be read to the end, its violations
+     * read before the failure are stored
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return query over all the violations, narrowed by its filters
+     */
+    public Query query() {
+        return new Query();
+    }
+
+    /**
+     * Filters and groupings of the stored violations. Every filter setter returns this object,
+     * so they can be chained:
+     * <pre>
+     *     store.query().types(ViolationType.SPEEDING).fines(new BigDecimal("500"), null).totalsByYear()
+     * </pre>
+     * By default, all the violations are taken.
+     */
+    public final class Query {
+
+        private Set<ViolationType> types = EnumSet.allOf(ViolationType.class);
+        private int fromDay = Integer.MIN_VALUE;
+        private int toDay = Integer.MAX_VALUE;
+        private BigDecimal minFine;
+        private BigDecimal maxFine;
+
+        private Query() {
+        }
+
+        /**
+         * @param types types of the violations to take
+         * @return this object
+         */
+        public Query types(ViolationType... types) {
+            this.types = types.length == 0 ? EnumSet.noneOf(ViolationType.class) : EnumSet.of(types[0], types);
+            return this;
+        }
+
+        /**
+         * @param from first day to take, null for no lower bound
+         * @param to last day to take, null for no upper bound
+         * @return this object
+         */
+        public Query dates(LocalDate from, LocalDate to) {
+            this.fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+            this.toDay = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+            return this;
+        }
+
+        /**
+         * @param min smallest fine amount to take, null for no lower bound
+         * @param max largest fine amount to take, null for no upper bound
+         * @return this object
+         */
+        public Query fines(BigDecimal min, BigDecimal max) {
+            this.minFine = min;
+            this.maxFine = max;
+            return this;
+        }
+
+        /**
+         * @return number of the violations passing the filters
+         */
+        public long count() {
+            ViolationTotals totals = totalsByType();
+            long count = 0;
+            for (ViolationType type : TYPES) {
+                count += totals.getCount(type);
+            }
+            return count;
+        }
+
+        /**
+         * @return total fine amount and count of each type of the violations passing the filters
+         */
+        public ViolationTotals totalsByType() {
+            ViolationTotals totals = run(Grouping.NONE).get(0);
+            return totals != null ? totals : new ViolationTotals();
+        }
+
+        /**
+         * @return total fine amount and count of each type for each year
+         * of the violations passing the filters, by year ascending
+         */
+        public SortedMap<Integer, ViolationTotals> totalsByYear() {
+            return new TreeMap<>(run(Grouping.YEAR));
+        }
+
+        /**
+         * @return total fine amount and count of each type for each month
+         * of the violations passing the filters, by month ascending
+         */
+        public SortedMap<YearMonth, ViolationTotals> totalsByMonth() {
+            SortedMap<YearMonth, ViolationTotals> byMonth = new TreeMap<>();
+            run(Grouping.MONTH).forEach((yearMonth, totals) -> byMonth.put(
+                    YearMonth.of(ViolationDateTimes.yearOf(yearMonth), ViolationDateTimes.monthOf(yearMonth)),
+                    totals));
+            return byMonth;
+        }
+
+        private Map<Integer, ViolationTotals> run(Grouping grouping) {
+            List<Slice> slices = new ArrayList<>();
+            for (Segment segment : segments) {
+                for (int from = 0; from < segment.size; from += SLICE_ROWS) {
+                    slices.add(new Slice(segment, from, Math.min(from + SLICE_ROWS, segment.size), false));
+                }
+                if (segment.overflowRows.length != 0) {
+                    slices.add(new Slice(segment, 0, segment.overflowRows.length, true));
+                }
+            }
+            int typeMask = 0;
+            for (ViolationType type : types) {
+                typeMask |= 1 << type.ordinal();
+            }
+            if (slices.isEmpty() || typeMask == 0) {
+                return new TreeMap<>();
+            }
+            Filter filter = new Filter(typeMask, fromDay, toDay, minFine, maxFine, grouping);
+            return ForkJoinPool.commonPool().invoke(new QueryTask(slices, 0, slices.size(), filter));
+        }
+    }
+
+    private enum Grouping {
+        NONE, YEAR, MONTH
+    }
+
+    /**
+     * Filters of a query, shared by its tasks.
+     */
+    private static final class Filter {
+        private final int typeMask;
+        private final int fromDay;
+        private final int toDay;
+        private final BigDecimal minFine;
+        private final BigDecimal maxFine;
+        private final Grouping grouping;
+
+        private Filter(int typeMask, int fromDay, int toDay, BigDecimal minFine, BigDecimal maxFine,
+                       Grouping grouping) {
+            this.typeMask = typeMask;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+            this.minFine = minFine;
+            this.maxFine = maxFine;
+            this.grouping = grouping;
+        }
+
+        /**
+         * @return smallest unscaled fine to take at the scale of a segment
+         */
+        private long minUnscaled(int scale) {
+            return minFine == null ? Long.MIN_VALUE : clamp(minFine.setScale(scale, RoundingMode.CEILING));
+        }
+
+        /**
+         * @return largest unscaled fine to take at the scale of a segment
+         */
+        private long maxUnscaled(int scale) {
+            return maxFine == null ? Long.MAX_VALUE : clamp(maxFine.setScale(scale, RoundingMode.FLOOR));
+        }
+
+        private static long clamp(BigDecimal bound) {
+            if (bound.unscaledValue().bitLength() < Long.SIZE) {
+                return bound.unscaledValue().longValue();
+            }
+            return bound.signum() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+
+        /**
+         * @return key of the group of the day: 0 without grouping, the year
+         * or the year and month of {@link ViolationDateTimes#yearMonthOf(int)}
+         */
+        private int groupOf(int epochDay) {
+            switch (grouping) {
+                case YEAR:
+                    return ViolationDateTimes.yearOf(ViolationDateTimes.yearMonthOf(epochDay));
+                case MONTH:
+                    return ViolationDateTimes.yearMonthOf(epochDay);
+                default:
+                    return 0;
+            }
+        }
+    }
+
+    /**
+     * Rows {@code [from, to)} of a segment, or of its fines that do not fit into long.
+     */
+    private static final class Slice {
+        private final Segment segment;
+        private final int from;
+        private final int to;
+        private final boolean overflow;
+
+        private Slice(Segment segment, int from, int to, boolean overflow) {
+            this.segment = segment;
+            this.from = from;
+            this.to = to;
+            this.overflow = overflow;
+        }
+    }
+
+    /**
+     * Splits the slices in halves down to a single slice, its totals are then grouped
+     * in arrays indexed by the group and the type.
+     */
+    private static final class QueryTask extends RecursiveTask<Map<Integer, ViolationTotals>> {
+
+        private final List<Slice> slices;
+        private final int from;
+        private final int to;
+        private final Filter filter;
+
+        private QueryTask(List<Slice> slices, int from, int to, Filter filter) {
+            this.slices = slices;
+            this.from = from;
+            this.to = to;
+            this.filter = filter;
+        }
+
+        @Override
+        protected Map<Integer, ViolationTotals> compute() {
+            if (to - from == 1) {
+                return scan(slices.get(from), filter);
+            }
+            int middle = (from + to) >>> 1;
+            QueryTask left = new QueryTask(slices, from, middle, filter);
+            left.fork();
+            Map<Integer, ViolationTotals> right = new QueryTask(slices, middle, to, filter).compute();
+            Map<Integer, ViolationTotals> merged = left.join();
+            right.forEach((group, totals) -> merged.merge(group, totals, (a, b) -> {
+                a.merge(b);
+                return a;
+            }));
+            return merged;
+        }
+    }
+
+    private static Map<Integer, ViolationTotals> scan(Slice slice, Filter filter) {
+        if (slice.overflow) {
+            return scanOverflow(slice, filter);
+        }
+        Segment segment = slice.segment;
+        byte[] types = segment.types;
+        long[] fines = segment.fines;
+        int[] days = segment.days;
+        int typeMask = filter.typeMask;
+        int fromDay = filter.fromDay;
+        int toDay = filter.toDay;
+        long minFine = filter.minUnscaled(segment.scale);
+        long maxFine = filter.maxUnscaled(segment.scale);
+
+        // Groups of the slice are the ones between its first and last day
+        int firstGroup = filter.groupOf(segment.minDay);
+        int groups = filter.groupOf(segment.maxDay) - firstGroup + 1;
+        long[] counts = new long[groups * TYPES.length];
+        long[] sums = new long[groups * TYPES.length];
+        boolean grouped = filter.grouping != Grouping.NONE;
+        try {
+            for (int row = slice.from; row < slice.to; row++) {
+                int type = types[row];
+                int day = days[row];
+                long fine = fines[row];
+                if ((typeMask & (1 << type)) == 0 || day < fromDay || day > toDay
+                        || fine < minFine || fine > maxFine) {
+                    continue;
+                }
+                int cell = (grouped ? (filter.groupOf(day) - firstGroup) * TYPES.length : 0) + type;
+                counts[cell]++;
+                sums[cell] = Math.addExact(sums[cell], fine);
+            }
+        } catch (ArithmeticException e) {
+            return scanExact(slice, filter, minFine, maxFine);
+        }
+
+        Map<Integer, ViolationTotals> result = new TreeMap<>();
+        for (int group = 0; group < groups; group++) {
+            ViolationTotals totals = null;
+            for (int type = 0; type < TYPES.length; type++) {
+                int cell = group * TYPES.length + type;
+                if (counts[cell] != 0) {
+                    if (totals == null) {
+                        totals = new ViolationTotals();
+                        result.put(firstGroup + group, totals);
+                    }
+                    totals.add(TYPES[type], counts[cell], sums[cell], segment.scale);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #scan(Slice, Filter)}, row by row into the totals,
+     * for the rare slice whose sum does not fit into long.
+     */
+    private static Map<Integer, ViolationTotals> scanExact(Slice slice, Filter filter, long minFine, long maxFine) {
+        Segment segment = slice.segment;
+        Map<Integer, ViolationTotals> result = new TreeMap<>();
+        for (int row = slice.from; row < slice.to; row++) {
+            int type = segment.types[row];
+            int day = segment.days[row];
+            long fine = segment.fines[row];
+            if ((filter.typeMask & (1 << type)) == 0 || day < filter.fromDay || day > filter.toDay
+                    || fine < minFine || fine > maxFine) {
+                continue;
+            }
+            result.computeIfAbsent(filter.groupOf(day), group -> new ViolationTotals())
+                    .add(TYPES[type], fine, segment.scale);
+        }
+        return result;
+    }
+
+    /**
+     * Same as {@link #scanExact(Slice, Filter, long, long)} for the fines of a segment
+     * that do not fit into long, compared and added as BigDecimal.
+     */
+    private static Map<Integer, ViolationTotals> scanOverflow(Slice slice, Filter filter) {
+        Map<Integer, ViolationTotals> result = new TreeMap<>();
+        for (int i = slice.from; i < slice.to; i++) {
+            OverflowRow row = slice.segment.overflowRows[i];
+            if ((filter.typeMask & (1 << row.type)) == 0 || row.day < filter.fromDay || row.day > filter.toDay
+                    || filter.minFine != null && row.fine.compareTo(filter.minFine) < 0
+                    || filter.maxFine != null && row.fine.compareTo(filter.maxFine) > 0) {
+                continue;
+            }
+            result.computeIfAbsent(filter.groupOf(row.day), group -> new ViolationTotals())
+                    .add(TYPES[row.type], row.fine);
+        }
+        return result;
+    }
+
+    /**
+     * Violation whose fine amount does not fit into long at the scale of its segment.
+     */
+    private static final class OverflowRow {
+        private final byte type;
+        private final int day;
+        private final BigDecimal fine;
+
+        private OverflowRow(byte type, int day, BigDecimal fine) {
+            this.type = type;
+            this.day = day;
+            this.fine = fine;
+        }
+    }
+
+    /**
+     * Columns of the violations of one chunk.
+     */
+    static final class Segment {
+        private final byte[] types;
+        private final long[] fines;
+        private final int[] days;
+        private final int size;
+        // Scale of all the fines of the segment
+        private final int scale;
+        private final int minDay;
+        private final int maxDay;
+        // Violations kept aside, usually none
+        private final OverflowRow[] overflowRows;
+        // False if the chunk could not be read to the end
+        private final boolean complete;
+
+        private Segment(byte[] types, long[] fines, int[] days, int size, int scale,
+                        int minDay, int maxDay, OverflowRow[] overflowRows, boolean complete) {
+            this.types = types;
+            this.fines = fines;
+            this.days = days;
+            this.size = size;
+            this.scale = scale;
+            this.minDay = minDay;
+            this.maxDay = maxDay;
+            this.overflowRows = overflowRows;
+            this.complete = complete;
+        }
+
+        /**
+         * @return empty segment standing for an input that could not be read
+         */
+        static Segment failed() {
+            return new Segment(new byte[0], new long[0], new int[0], 0, 0,
+                    Integer.MAX_VALUE, Integer.MIN_VALUE, new OverflowRow[0], false);
+        }
+    }
+
+    /**
+     * Appends the decoded violations of a chunk to growing columns.
+     * Not thread-safe: one builder per chunk.
+     */
+    static final class SegmentBuilder implements ViolationSink {
+
+        private byte[] types = new byte[1024];
+        private long[] fines = new long[1024];
+        private int[] days = new int[1024];
+        private int size;
+        private int scale;
+        private int minDay = Integer.MAX_VALUE;
+        private int maxDay = Integer.MIN_VALUE;
+        // Violations whose fine does not fit into long at the scale, in the order read
+        private final List<OverflowRow> overflowRows = new ArrayList<>();
+        private boolean complete = true;
+
+        /**
+         * @param row violation with the date-time decoded
+         */
+        @Override
+        public void accept(ViolationRow row) {
+            int day = ViolationDateTimes.epochDay(row.epochMinute);
+            long unscaled;
+            int rowScale;
+            if (row.fineBig == null) {
+                unscaled = row.fineUnscaled;
+                rowScale = row.fineScale;
+            } else if (ViolationTotals.fitsLong(row.fineBig)) {
+                unscaled = ViolationTotals.unscaledLong(row.fineBig);
+                rowScale = row.fineBig.scale();
+            } else if (row.fineBig.unscaledValue().bitLength() < Long.SIZE) {
+                unscaled = row.fineBig.unscaledValue().longValue();
+                rowScale = row.fineBig.scale();
+            } else {
+                addOverflow(row, day);
+                return;
+            }
+            if (rowScale > scale) {
+                // Rare: a fine with more decimals than the ones before brings them all to its scale
+                long[] rescaled = rescaleFines(rowScale - scale);
+                if (rescaled == null) {
+                    addOverflow(row, day);
+                    return;
+                }
+                fines = rescaled;
+                scale = rowScale;
+            } else if (rowScale < scale) {
+                try {
+                    unscaled = ViolationTotals.rescale(unscaled, scale - rowScale);
+                } catch (ArithmeticException e) {
+                    addOverflow(row, day);
+                    return;
+                }
+            }
+            if (size == types.length) {
+                int capacity = size * 2;
+                types = Arrays.copyOf(types, capacity);
+                fines = Arrays.copyOf(fines, capacity);
+                days = Arrays.copyOf(days, capacity);
+            }
+            types[size] = (byte) row.type.ordinal();
+            fines[size] = unscaled;
+            days[size] = day;
+            size++;
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+        }
+
+        /**
+         * @return the segment, with the columns trimmed to the number of violations
+         */
+        Segment build() {
+            return new Segment(Arrays.copyOf(types, size), Arrays.copyOf(fines, size),
+                    Arrays.copyOf(days, size), size, scale, minDay, maxDay,
+                    overflowRows.toArray(new OverflowRow[0]), complete);
+        }
+
+        /**
+         * Keeps the violations read so far, but marks the segment as not read to the end.
+         */
+        void markIncomplete() {
+            complete = false;
+        }
+
+        /**
+         * @return the fines brought to a larger scale, or null (the fines left unchanged)
+         * if one of them does not fit into long there
+         */
+        private long[] rescaleFines(int digits) {
+            long[] rescaled = new long[fines.length];
+            try {
+                for (int i = 0; i < size; i++) {
+                    rescaled[i] = ViolationTotals.rescale(fines[i], digits);
+                }
+            } catch (ArithmeticException e) {
+                return null;
+            }
+            return rescaled;
+        }
+
+        private void addOverflow(ViolationRow row, int day) {
+            overflowRows.add(new OverflowRow((byte) row.type.ordinal(), day, row.getFineAmount()));
+        }
+    }
+}
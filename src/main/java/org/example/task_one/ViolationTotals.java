@@ -0,0 +1,270 @@
+package org.example.task_one;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Mergeable accumulator of the total fine amount and the number of violations
+ * for each {@link ViolationType}. Totals are indexed by {@link ViolationType#ordinal()}
+ * and kept as an unscaled {@code long} with its scale, so adding a row allocates nothing.
+ * Only a total that overflows {@code long} falls back to {@link BigDecimal}.
+ * <p>
+ * The scale of a total follows {@link BigDecimal#add(BigDecimal)}: it is the largest
+ * scale of the added amounts (and at least 0, as the sum starts with
+ * {@link BigDecimal#ZERO}), so {@link #toMap()} gives exactly the same decimals
+ * as summing the amounts with {@link BigDecimal#add(BigDecimal)}.
+ * <p>
+ * Not thread-safe: each file worker fills its own instance, and the instances
+ * are merged afterwards.
+ */
+public final class ViolationTotals {
+
+    private static final ViolationType[] TYPES = ViolationType.values();
+
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final long[] counts = new long[TYPES.length];
+    private final long[] unscaledTotals = new long[TYPES.length];
+    private final int[] scales = new int[TYPES.length];
+    // null until the total of the type overflows long
+    private final BigDecimal[] overflowTotals = new BigDecimal[TYPES.length];
+
+    /**
+     * Adds the fine amount of one violation.
+     * @param type type of the violation
+     * @param fineAmount fine amount of the violation
+     */
+    public void add(ViolationType type, BigDecimal fineAmount) {
+        if (fitsLong(fineAmount)) {
+            add(type, unscaledLong(fineAmount), fineAmount.scale());
+            return;
+        }
+        BigInteger unscaled = fineAmount.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            add(type, unscaled.longValue(), fineAmount.scale());
+        } else {
+            int i = type.ordinal();
+            counts[i]++;
+            addBig(i, fineAmount);
+        }
+    }
+
+    /**
+     * Adds the fine amount of one violation given as {@code unscaled * 10^-scale}.
+     * @param type type of the violation
+     * @param unscaled unscaled value of the fine amount
+     * @param scale scale of the fine amount
+     */
+    public void add(ViolationType type, long unscaled, int scale) {
+        add(type, 1, unscaled, scale);
+    }
+
+    /**
+     * Adds the count and the summed fine amount of several violations of a type,
+     * given as {@code unscaled * 10^-scale}.
+     * @param type type of the violations
+     * @param count number of the violations
+     * @param unscaled unscaled value of the summed fine amount
+     * @param scale scale of the summed fine amount
+     */
+    void add(ViolationType type, long count, long unscaled, int scale) {
+        int i = type.ordinal();
+        counts[i] += count;
+        if (overflowTotals[i] != null || !addExact(i, unscaled, scale)) {
+            addBig(i, BigDecimal.valueOf(unscaled, scale));
+        }
+    }
+
+    /**
+     * Adds all the totals and counts of the other accumulator to this one.
+     * @param other accumulator to merge, left unchanged
+     */
+    public void merge(ViolationTotals other) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (other.counts[i] == 0) {
+                continue;
+            }
+            counts[i] += other.counts[i];
+            if (other.overflowTotals[i] != null) {
+                addBig(i, other.overflowTotals[i]);
+            } else if (overflowTotals[i] != null
+                    || !addExact(i, other.unscaledTotals[i], other.scales[i])) {
+                addBig(i, BigDecimal.valueOf(other.unscaledTotals[i], other.scales[i]));
+            }
+        }
+    }
+
+    /**
+     * @param type type of the violation
+     * @return number of violations of the given type
+     */
+    public long getCount(ViolationType type) {
+        return counts[type.ordinal()];
+    }
+
+    /**
+     * @param type type of the violation
+     * @return total fine amount of the given type
+     */
+    public BigDecimal getTotal(ViolationType type) {
+        int i = type.ordinal();
+        if (overflowTotals[i] != null) {
+            return overflowTotals[i];
+        }
+        return BigDecimal.valueOf(unscaledTotals[i], scales[i]);
+    }
+
+    /**
+     * @return Map of ViolationType and total fine amount, only with the types
+     * that have at least one violation
+     */
+    public Map<ViolationType, BigDecimal> toMap() {
+        Map<ViolationType, BigDecimal> totalsMap = new EnumMap<>(ViolationType.class);
+        for (ViolationType type : TYPES) {
+            if (counts[type.ordinal()] != 0) {
+                totalsMap.put(type, getTotal(type));
+            }
+        }
+        return totalsMap;
+    }
+
+    /**
+     * Writes the counts and totals in a compact binary form, see {@link #readFrom(DataInput)}.
+     * @param out output to write to
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutput out) throws IOException {
+        for (int i = 0; i < TYPES.length; i++) {
+            out.writeLong(counts[i]);
+            if (counts[i] == 0) {
+                continue;
+            }
+            if (overflowTotals[i] == null) {
+                out.writeBoolean(false);
+                out.writeLong(unscaledTotals[i]);
+                out.writeInt(scales[i]);
+            } else {
+                byte[] unscaled = overflowTotals[i].unscaledValue().toByteArray();
+                out.writeBoolean(true);
+                out.writeInt(unscaled.length);
+                out.write(unscaled);
+                out.writeInt(overflowTotals[i].scale());
+            }
+        }
+    }
+
+    /**
+     * @param in input written by {@link #writeTo(DataOutput)}
+     * @return accumulator with the read counts and totals
+     * @throws IOException if reading fails
+     */
+    static ViolationTotals readFrom(DataInput in) throws IOException {
+        ViolationTotals totals = new ViolationTotals();
+        for (int i = 0; i < TYPES.length; i++) {
+            totals.counts[i] = in.readLong();
+            if (totals.counts[i] == 0) {
+                continue;
+            }
+            if (!in.readBoolean()) {
+                totals.unscaledTotals[i] = in.readLong();
+                totals.scales[i] = in.readInt();
+            } else {
+                byte[] unscaled = new byte[in.readInt()];
+                in.readFully(unscaled);
+                totals.overflowTotals[i] = new BigDecimal(new BigInteger(unscaled), in.readInt());
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Tries to add the amount to the long total of the type, bringing both
+     * to the larger scale first.
+     * @return false if the result does not fit into long (the total is left unchanged)
+     */
+    private boolean addExact(int i, long unscaled, int scale) {
+        // Negative scales are brought up to 0 as the sum starts with BigDecimal.ZERO
+        int targetScale = Math.max(Math.max(scales[i], scale), 0);
+        try {
+            long total = rescale(unscaledTotals[i], targetScale - scales[i]);
+            long value = rescale(unscaled, targetScale - scale);
+            unscaledTotals[i] = Math.addExact(total, value);
+            scales[i] = targetScale;
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private void addBig(int i, BigDecimal amount) {
+        if (overflowTotals[i] == null) {
+            overflowTotals[i] = BigDecimal.valueOf(unscaledTotals[i], scales[i]);
+        }
+        overflowTotals[i] = overflowTotals[i].add(amount);
+    }
+
+    /**
+     * @param amount decimal amount
+     * @return true if the amount has at most 18 digits, so its unscaled value fits into long
+     */
+    static boolean fitsLong(BigDecimal amount) {
+        return amount.precision() < POWERS_OF_TEN.length;
+    }
+
+    /**
+     * Reads the unscaled value without {@link BigDecimal#unscaledValue()}, which allocates
+     * a BigInteger: moving the point by the scale keeps the compact long of the BigDecimal.
+     * @param amount decimal amount, see {@link #fitsLong(BigDecimal)}
+     * @return unscaled value of the amount
+     * @throws ArithmeticException if the unscaled value does not fit into long
+     */
+    static long unscaledLong(BigDecimal amount) {
+        return amount.scaleByPowerOfTen(amount.scale()).longValueExact();
+    }
+
+    /**
+     * @param unscaled unscaled value
+     * @param digits number of decimal digits to remove from the scale, not negative
+     * @return unscaled value at the smaller scale, rounded half up
+     */
+    static long divideHalfUp(long unscaled, int digits) {
+        if (digits >= POWERS_OF_TEN.length) {
+            // 10^19 is beyond long, only |unscaled| >= 5 * 10^18 rounds away from zero
+            long half = 5 * POWERS_OF_TEN[POWERS_OF_TEN.length - 1];
+            return digits == POWERS_OF_TEN.length && (unscaled >= half || unscaled <= -half)
+                    ? Long.signum(unscaled) : 0;
+        }
+        long divisor = POWERS_OF_TEN[digits];
+        long remainder = Math.abs(unscaled % divisor);
+        // Half up: the remainder is at least half of the divisor
+        return unscaled / divisor + (remainder >= divisor - remainder ? Long.signum(unscaled) : 0);
+    }
+
+    /**
+     * @param unscaled unscaled value
+     * @param digits number of decimal digits to add to the scale, not negative
+     * @return unscaled value at the larger scale
+     * @throws ArithmeticException if the result does not fit into long
+     */
+    static long rescale(long unscaled, int digits) {
+        if (digits == 0 || unscaled == 0) {
+            return unscaled;
+        }
+        if (digits >= POWERS_OF_TEN.length) {
+            throw new ArithmeticException("long overflow");
+        }
+        return Math.multiplyExact(unscaled, POWERS_OF_TEN[digits]);
+    }
+}
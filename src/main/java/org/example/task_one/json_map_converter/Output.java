@@ -2,11 +2,16 @@ package org.example.task_one.json_map_converter;
 
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlRootElement;
+import org.example.task_one.DriverTotal;
+import org.example.task_one.FineSummary;
 import org.example.task_one.ViolationType;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
 
 /**
  * Class used to set a resulting map for writing an output
@@ -16,6 +21,16 @@ import java.util.Map;
 public class Output {
 
     private Map<ViolationType, BigDecimal> entry;
+    // Distribution of the fine amounts of each type, null unless the run summarizes it
+    private Map<ViolationType, FineSummary> fineSummaries;
+    // Estimated number of distinct drivers of each type, null unless the run estimates it
+    private Map<ViolationType, Long> distinctDrivers;
+    // Totals of each year and month, null unless the run buckets the violations by time
+    private SortedMap<Integer, Map<ViolationType, BigDecimal>> yearEntries;
+    private SortedMap<YearMonth, Map<ViolationType, BigDecimal>> monthEntries;
+    // Top drivers, null unless the run picks them
+    private List<DriverTotal> topDriversByFine;
+    private List<DriverTotal> topDriversByCount;
 
     public Map<ViolationType, BigDecimal> getEntry() {
         return Collections.unmodifiableMap(entry);
@@ -24,4 +39,70 @@ public class Output {
     public void setEntry(Map<ViolationType, BigDecimal> entry) {
         this.entry = entry;
     }
+
+    /**
+     * @return map of each type and the distribution of its fine amounts, null if not summarized
+     */
+    public Map<ViolationType, FineSummary> getFineSummaries() {
+        return fineSummaries == null ? null : Collections.unmodifiableMap(fineSummaries);
+    }
+
+    public void setFineSummaries(Map<ViolationType, FineSummary> fineSummaries) {
+        this.fineSummaries = fineSummaries;
+    }
+
+    /**
+     * @return map of each type and its estimated number of distinct drivers, null if not estimated
+     */
+    public Map<ViolationType, Long> getDistinctDrivers() {
+        return distinctDrivers == null ? null : Collections.unmodifiableMap(distinctDrivers);
+    }
+
+    public void setDistinctDrivers(Map<ViolationType, Long> distinctDrivers) {
+        this.distinctDrivers = distinctDrivers;
+    }
+
+    /**
+     * @return map of each year and the totals of its types, null if not bucketed by time
+     */
+    public SortedMap<Integer, Map<ViolationType, BigDecimal>> getYearEntries() {
+        return yearEntries == null ? null : Collections.unmodifiableSortedMap(yearEntries);
+    }
+
+    public void setYearEntries(SortedMap<Integer, Map<ViolationType, BigDecimal>> yearEntries) {
+        this.yearEntries = yearEntries;
+    }
+
+    /**
+     * @return map of each month and the totals of its types, null if not bucketed by time
+     */
+    public SortedMap<YearMonth, Map<ViolationType, BigDecimal>> getMonthEntries() {
+        return monthEntries == null ? null : Collections.unmodifiableSortedMap(monthEntries);
+    }
+
+    public void setMonthEntries(SortedMap<YearMonth, Map<ViolationType, BigDecimal>> monthEntries) {
+        this.monthEntries = monthEntries;
+    }
+
+    /**
+     * @return drivers with the largest fine totals, the largest first, null if not picked
+     */
+    public List<DriverTotal> getTopDriversByFine() {
+        return topDriversByFine == null ? null : Collections.unmodifiableList(topDriversByFine);
+    }
+
+    public void setTopDriversByFine(List<DriverTotal> topDriversByFine) {
+        this.topDriversByFine = topDriversByFine;
+    }
+
+    /**
+     * @return drivers with the most violations, the most first, null if not picked
+     */
+    public List<DriverTotal> getTopDriversByCount() {
+        return topDriversByCount == null ? null : Collections.unmodifiableList(topDriversByCount);
+    }
+
+    public void setTopDriversByCount(List<DriverTotal> topDriversByCount) {
+        this.topDriversByCount = topDriversByCount;
+    }
 }
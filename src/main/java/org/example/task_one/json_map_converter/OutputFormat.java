@@ -0,0 +1,147 @@
+package org.example.task_one.json_map_converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import org.example.task_one.ViolationType;
+
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Formats the {@link Output} can be written in. Each format streams the entries
+ * into the given stream in the order of the map.
+ */
+public enum OutputFormat {
+
+    /**
+     * {@code <moving_violations><mv name="SPEEDING">170117260.00</mv>...</moving_violations>}
+     */
+    XML("xml") {
+        @Override
+        public void write(Output output, OutputStream out, boolean prettyPrint) throws IOException {
+            (prettyPrint ? PRETTY_XML_WRITER : COMPACT_XML_WRITER).writeValue(out, output);
+        }
+    },
+
+    /**
+     * {@code {"SPEEDING":170117260.00,...}}
+     */
+    JSON("json") {
+        @Override
+        public void write(Output output, OutputStream out, boolean prettyPrint) throws IOException {
+            (prettyPrint ? PRETTY_JSON_WRITER : COMPACT_JSON_WRITER).writeValue(out, output);
+        }
+    },
+
+    /**
+     * Header {@code type,total_fine_amount}, then a {@code SPEEDING,170117260.00} line per entry.
+     * Only the overall totals are written, totals per year and month, top drivers,
+     * distinct drivers and the distribution of the fine amounts are not.
+     */
+    CSV("csv") {
+        @Override
+        public void write(Output output, OutputStream out, boolean prettyPrint) throws IOException {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write("type,total_fine_amount\n");
+            for (Map.Entry<ViolationType, BigDecimal> entry : output.getEntry().entrySet()) {
+                writer.write(entry.getKey().name());
+                writer.write(',');
+                writer.write(entry.getValue().toPlainString());
+                writer.write('\n');
+            }
+            writer.flush();
+        }
+    },
+
+    /**
+     * Big-endian {@link java.io.DataOutput} layout: magic {@code int} {@link #BINARY_MAGIC},
+     * {@code int} number of entries, then for each entry a {@code byte} ordinal of the
+     * {@link ViolationType}, an {@code int} scale and a {@code long} unscaled value of the total.
+     * A total whose unscaled value does not fit into long has the ordinal byte ORed with
+     * {@code 0x80}, followed by the scale, an {@code int} length and the two's-complement
+     * bytes of the unscaled value. Only the overall totals are written, totals per year
+     * and month, top drivers, distinct drivers and the distribution of the fine amounts are not.
+     */
+    BINARY("bin") {
+        @Override
+        public void write(Output output, OutputStream out, boolean prettyPrint) throws IOException {
+            DataOutputStream data = new DataOutputStream(out);
+            Map<ViolationType, BigDecimal> entries = output.getEntry();
+            data.writeInt(BINARY_MAGIC);
+            data.writeInt(entries.size());
+            for (Map.Entry<ViolationType, BigDecimal> entry : entries.entrySet()) {
+                BigInteger unscaled = entry.getValue().unscaledValue();
+                int ordinal = entry.getKey().ordinal();
+                if (unscaled.bitLength() < Long.SIZE) {
+                    data.writeByte(ordinal);
+                    data.writeInt(entry.getValue().scale());
+                    data.writeLong(unscaled.longValue());
+                } else {
+                    byte[] bytes = unscaled.toByteArray();
+                    data.writeByte(ordinal | 0x80);
+                    data.writeInt(entry.getValue().scale());
+                    data.writeInt(bytes.length);
+                    data.write(bytes);
+                }
+            }
+            data.flush();
+        }
+    };
+
+    /**
+     * First 4 bytes of the binary format, "MVS1".
+     */
+    public static final int BINARY_MAGIC = 0x4D565331;
+
+    // Configured once: ObjectWriter is immutable and thread-safe, and reusing it
+    // keeps the serializers it has already resolved
+    private static final XmlMapper XML_MAPPER = createXmlMapper();
+    private static final ObjectWriter PRETTY_XML_WRITER = XML_MAPPER.writerWithDefaultPrettyPrinter();
+    private static final ObjectWriter COMPACT_XML_WRITER = XML_MAPPER.writer();
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper()
+            .enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private static final ObjectWriter PRETTY_JSON_WRITER = JSON_MAPPER.writerWithDefaultPrettyPrinter();
+    private static final ObjectWriter COMPACT_JSON_WRITER = JSON_MAPPER.writer();
+
+    private final String extension;
+
+    OutputFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return usual file extension of the format, without the dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Writes the output into the stream, the stream is not closed.
+     * @param output output to write
+     * @param out stream to write into
+     * @param prettyPrint true to indent the text formats, ignored by CSV and BINARY
+     * @throws IOException if writing fails
+     */
+    public abstract void write(Output output, OutputStream out, boolean prettyPrint) throws IOException;
+
+    private static XmlMapper createXmlMapper() {
+        XmlMapper xmlMapper = new XmlMapper();
+        xmlMapper.configure(ToXmlGenerator.Feature.WRITE_XML_DECLARATION, true);
+        // writeValue() flushes the stream but must leave it open for the caller
+        xmlMapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return xmlMapper;
+    }
+}
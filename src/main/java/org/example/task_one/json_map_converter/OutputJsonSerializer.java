@@ -4,34 +4,203 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import org.example.task_one.DriverTotal;
+import org.example.task_one.FineSummary;
 import org.example.task_one.ViolationType;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 
 /**
- * Custom serializer that generates output from an input map to xml format string
+ * Custom serializer that generates output from an input map to xml format string,
+ * or to a plain JSON object of type names and amounts for any other generator.
+ * The distribution of the fine amounts (if any) is written as attributes of the overall
+ * totals, {@code <mv name="SPEEDING" count="3" min="20.00" max="90.00" mean="46.67"
+ * p50="29.91" p90="90.00" p99="90.00">140.00</mv>}, or as
+ * {@code "distribution":{"SPEEDING":{"count":3,"min":20.00,...}}} after them.
+ * Estimated numbers of distinct drivers (if any) follow the overall totals, as
+ * {@code <distinct_drivers><mv name="SPEEDING">1520</mv></distinct_drivers>} or as
+ * {@code "distinct_drivers":{"SPEEDING":1520}}.
+ * Totals per year and month (if any) come next, as
+ * {@code <years><year value="2021"><mv name="SPEEDING">...</mv></year></years>} and
+ * {@code <months><month value="2021-12">...</month></months>}, or as
+ * {@code "years":{"2021":{"SPEEDING":...}}} and {@code "months":{"2021-12":{...}}}.
+ * Top drivers (if any) come last, as {@code <top_drivers_by_fine><driver first_name="Ivan"
+ * last_name="Moroz" count="12">9120.50</driver></top_drivers_by_fine>} (and
+ * {@code top_drivers_by_count}), or as {@code "top_drivers_by_fine":[{"first_name":"Ivan",
+ * "last_name":"Moroz","count":12,"fine_amount":9120.50}]}
   */
 public class OutputJsonSerializer extends JsonSerializer<Output> {
 
     @Override
     public void serialize(Output value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (!(gen instanceof ToXmlGenerator)) {
+            serializeJson(value, gen);
+            return;
+        }
         ToXmlGenerator xmlGen = (ToXmlGenerator) gen;
         xmlGen.writeStartObject();
-        for (Map.Entry<ViolationType, BigDecimal> entry : value.getEntry().entrySet()) {
+        writeXmlEntries(xmlGen, value.getEntry(), value.getFineSummaries());
+        if (value.getDistinctDrivers() != null) {
+            writeXmlDistinctDrivers(xmlGen, value.getDistinctDrivers());
+        }
+        if (value.getYearEntries() != null) {
+            writeXmlPeriods(xmlGen, "years", "year", value.getYearEntries());
+        }
+        if (value.getMonthEntries() != null) {
+            writeXmlPeriods(xmlGen, "months", "month", value.getMonthEntries());
+        }
+        if (value.getTopDriversByFine() != null) {
+            writeXmlDrivers(xmlGen, "top_drivers_by_fine", value.getTopDriversByFine());
+        }
+        if (value.getTopDriversByCount() != null) {
+            writeXmlDrivers(xmlGen, "top_drivers_by_count", value.getTopDriversByCount());
+        }
+        xmlGen.writeEndObject();
+    }
+
+    private void writeXmlEntries(ToXmlGenerator xmlGen, Map<ViolationType, BigDecimal> entries,
+                                 Map<ViolationType, FineSummary> summaries) throws IOException {
+        for (Map.Entry<ViolationType, BigDecimal> entry : entries.entrySet()) {
             xmlGen.writeObjectFieldStart("mv");
-            writeAttributes(xmlGen, String.valueOf(entry.getKey()));
+            writeAttribute(xmlGen, "name", String.valueOf(entry.getKey()));
+            FineSummary summary = summaries != null ? summaries.get(entry.getKey()) : null;
+            if (summary != null) {
+                writeAttribute(xmlGen, "count", String.valueOf(summary.getCount()));
+                writeAttribute(xmlGen, "min", summary.getMin().toString());
+                writeAttribute(xmlGen, "max", summary.getMax().toString());
+                writeAttribute(xmlGen, "mean", summary.getMean().toString());
+                writeAttribute(xmlGen, "p50", summary.getP50().toString());
+                writeAttribute(xmlGen, "p90", summary.getP90().toString());
+                writeAttribute(xmlGen, "p99", summary.getP99().toString());
+            }
             xmlGen.writeRaw(entry.getValue().toString());
             xmlGen.writeEndObject();
         }
+    }
+
+    private void writeXmlDistinctDrivers(ToXmlGenerator xmlGen, Map<ViolationType, Long> distinctDrivers)
+            throws IOException {
+        xmlGen.writeObjectFieldStart("distinct_drivers");
+        for (Map.Entry<ViolationType, Long> entry : distinctDrivers.entrySet()) {
+            xmlGen.writeObjectFieldStart("mv");
+            writeAttribute(xmlGen, "name", String.valueOf(entry.getKey()));
+            xmlGen.writeRaw(String.valueOf(entry.getValue()));
+            xmlGen.writeEndObject();
+        }
+        xmlGen.writeEndObject();
+    }
+
+    private void writeXmlPeriods(ToXmlGenerator xmlGen, String sectionName, String periodName,
+                                 Map<?, Map<ViolationType, BigDecimal>> periods) throws IOException {
+        xmlGen.writeObjectFieldStart(sectionName);
+        for (Map.Entry<?, Map<ViolationType, BigDecimal>> period : periods.entrySet()) {
+            xmlGen.writeObjectFieldStart(periodName);
+            writeAttribute(xmlGen, "value", String.valueOf(period.getKey()));
+            writeXmlEntries(xmlGen, period.getValue(), null);
+            xmlGen.writeEndObject();
+        }
+        xmlGen.writeEndObject();
+    }
+
+    private void writeXmlDrivers(ToXmlGenerator xmlGen, String sectionName, List<DriverTotal> drivers)
+            throws IOException {
+        xmlGen.writeObjectFieldStart(sectionName);
+        for (DriverTotal driver : drivers) {
+            xmlGen.writeObjectFieldStart("driver");
+            writeAttribute(xmlGen, "first_name", driver.getFirstName());
+            writeAttribute(xmlGen, "last_name", driver.getLastName());
+            writeAttribute(xmlGen, "count", String.valueOf(driver.getCount()));
+            xmlGen.writeRaw(driver.getFineTotal().toString());
+            xmlGen.writeEndObject();
+        }
         xmlGen.writeEndObject();
     }
 
-    private void writeAttributes(ToXmlGenerator gen, String key) throws IOException {
+    private void serializeJson(Output value, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        writeJsonEntries(gen, value.getEntry());
+        if (value.getFineSummaries() != null) {
+            writeJsonSummaries(gen, value.getFineSummaries());
+        }
+        if (value.getDistinctDrivers() != null) {
+            gen.writeObjectFieldStart("distinct_drivers");
+            for (Map.Entry<ViolationType, Long> entry : value.getDistinctDrivers().entrySet()) {
+                gen.writeNumberField(entry.getKey().name(), entry.getValue());
+            }
+            gen.writeEndObject();
+        }
+        if (value.getYearEntries() != null) {
+            writeJsonPeriods(gen, "years", value.getYearEntries());
+        }
+        if (value.getMonthEntries() != null) {
+            writeJsonPeriods(gen, "months", value.getMonthEntries());
+        }
+        if (value.getTopDriversByFine() != null) {
+            writeJsonDrivers(gen, "top_drivers_by_fine", value.getTopDriversByFine());
+        }
+        if (value.getTopDriversByCount() != null) {
+            writeJsonDrivers(gen, "top_drivers_by_count", value.getTopDriversByCount());
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeJsonEntries(JsonGenerator gen, Map<ViolationType, BigDecimal> entries) throws IOException {
+        for (Map.Entry<ViolationType, BigDecimal> entry : entries.entrySet()) {
+            gen.writeFieldName(entry.getKey().name());
+            gen.writeNumber(entry.getValue());
+        }
+    }
+
+    private void writeJsonSummaries(JsonGenerator gen, Map<ViolationType, FineSummary> summaries)
+            throws IOException {
+        gen.writeObjectFieldStart("distribution");
+        for (Map.Entry<ViolationType, FineSummary> entry : summaries.entrySet()) {
+            FineSummary summary = entry.getValue();
+            gen.writeObjectFieldStart(entry.getKey().name());
+            gen.writeNumberField("count", summary.getCount());
+            gen.writeNumberField("min", summary.getMin());
+            gen.writeNumberField("max", summary.getMax());
+            gen.writeNumberField("mean", summary.getMean());
+            gen.writeNumberField("p50", summary.getP50());
+            gen.writeNumberField("p90", summary.getP90());
+            gen.writeNumberField("p99", summary.getP99());
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeJsonPeriods(JsonGenerator gen, String sectionName,
+                                  Map<?, Map<ViolationType, BigDecimal>> periods) throws IOException {
+        gen.writeObjectFieldStart(sectionName);
+        for (Map.Entry<?, Map<ViolationType, BigDecimal>> period : periods.entrySet()) {
+            gen.writeObjectFieldStart(String.valueOf(period.getKey()));
+            writeJsonEntries(gen, period.getValue());
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeJsonDrivers(JsonGenerator gen, String sectionName, List<DriverTotal> drivers)
+            throws IOException {
+        gen.writeArrayFieldStart(sectionName);
+        for (DriverTotal driver : drivers) {
+            gen.writeStartObject();
+            gen.writeStringField("first_name", driver.getFirstName());
+            gen.writeStringField("last_name", driver.getLastName());
+            gen.writeNumberField("count", driver.getCount());
+            gen.writeNumberField("fine_amount", driver.getFineTotal());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    private void writeAttribute(ToXmlGenerator gen, String name, String value) throws IOException {
         gen.setNextIsAttribute(true);
-        gen.writeFieldName("name");
-        gen.writeString(key);
+        gen.writeFieldName(name);
+        gen.writeString(value);
         gen.setNextIsAttribute(false);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,16 @@
+package org.example.task_two;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Asks for a generated {@link PropertiesBinder} of a class without {@link Property} fields
+ * (classes with them get one anyway). The bound fields must not be private or final,
+ * otherwise the class is bound through reflection.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.CLASS)
+public @interface BindProperties {
+}
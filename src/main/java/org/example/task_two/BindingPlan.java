@@ -0,0 +1,420 @@
+package org.example.task_two;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Everything {@link TaskTwo#loadFromProperties(Class, java.nio.file.Path)} needs to know
+ * about a class, resolved once per class: the constructor with its default arguments
+ * and, for each field of a supported type, the property key, the date-time pattern
+ * and the converter of the type.
+ * Plans are kept in a {@link ClassValue}, so they are computed on the first load of
+ * a class and then shared by all the threads (a plan is immutable).
+ * This is the reflective {@link PropertiesBinder}, used for classes without a generated one.
+ * @param <T> bound class
+ */
+final class BindingPlan<T> implements PropertiesBinder<T> {
+
+    static final String DEFAULT_DATE_TIME_PATTERN = "dd.MM.yyyy HH:mm";
+    static final String DEFAULT_ZONE = "UTC";
+
+    // Setting primitives (nums)
+    private static final Set<Type> primitiveNumbers = new HashSet<>(Arrays.asList(
+            Integer.TYPE,
+            Byte.TYPE,
+            Short.TYPE,
+            Long.TYPE,
+            Float.TYPE,
+            Double.TYPE
+    ));
+
+    // Shapes the setters are adapted to, so they can be called with invokeExact
+    private static final MethodType OBJECT_SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType INT_SETTER = MethodType.methodType(void.class, Object.class, int.class);
+
+    private static final ClassValue<BindingPlan<?>> PLANS = new ClassValue<>() {
+        @Override
+        protected BindingPlan<?> computeValue(Class<?> type) {
+            return new BindingPlan<>(type);
+        }
+    };
+
+    private final Constructor<?> constructor;
+    private final Object[] constructorArgs;
+    private final FieldBinding[] bindings;
+    // Key -> indexes of the bindings of the key (several fields may share a key)
+    private final Map<String, int[]> indexesByKey = new HashMap<>();
+
+    private BindingPlan(Class<T> cls) {
+        // Getting class fields (excluding possible superclass fields)
+        // Filtering fields so that we have to pass only supported types
+        Field[] fields = Arrays.stream(cls.getDeclaredFields())
+                .filter(f -> PropertyConverters.isSupported(f.getType()))
+                .toArray(Field[]::new);
+        // No field with the necessary types to parse present
+        if(fields.length == 0) {
+            throw new IllegalStateException("No fields with required types!");
+        }
+
+        constructor = bindingConstructor(cls);
+        // Get its args types
+        Type[] constParamTypes = constructor.getGenericParameterTypes();
+        constructorArgs = new Object[constParamTypes.length];
+        for (int i = 0; i < constParamTypes.length; i++) {
+            // Put the default values of the args types (primitives) in array
+            checkForPrimitivesInConstructor(constParamTypes[i], constructorArgs, i);
+        }
+
+        List<FieldBinding> fieldBindings = new ArrayList<>(fields.length);
+        for(Field field : fields) {
+            field.setAccessible(true);
+            fieldBindings.add(createBinding(field));
+        }
+        bindings = fieldBindings.toArray(new FieldBinding[0]);
+        for(int i = 0; i < bindings.length; i++) {
+            int[] indexes = indexesByKey.get(bindings[i].getKey());
+            int[] withField = indexes == null ? new int[1] : Arrays.copyOf(indexes, indexes.length + 1);
+            withField[withField.length - 1] = i;
+            indexesByKey.put(bindings[i].getKey(), withField);
+        }
+    }
+
+    /**
+     * Picks the constructor the same way the generated binders do: the public constructor
+     * without arguments, or the only public constructor if there is none.
+     * @param cls bound class
+     * @return the constructor
+     * @throws IllegalStateException if there is no public constructor or the choice is ambiguous
+     */
+    private static Constructor<?> bindingConstructor(Class<?> cls) {
+        Constructor<?>[] constructors = cls.getConstructors();
+        if(constructors.length == 0) {
+            throw new IllegalStateException("No public constructors present!");
+        }
+        for(Constructor<?> candidate : constructors) {
+            if(candidate.getParameterCount() == 0) {
+                return candidate;
+            }
+        }
+        if(constructors.length > 1) {
+            throw new IllegalStateException("Several public constructors and none without arguments present!");
+        }
+        return constructors[0];
+    }
+
+    /**
+     * @param cls bound class
+     * @return plan of the class, computed on the first call
+     * @throws IllegalStateException if the class cannot be bound
+     */
+    @SuppressWarnings("unchecked")
+    static <T> BindingPlan<T> of(Class<T> cls) {
+        return (BindingPlan<T>) PLANS.get(cls);
+    }
+
+    /**
+     * @return bindings of the fields with supported types
+     */
+    FieldBinding[] getBindings() {
+        return bindings;
+    }
+
+    /** Since we know <STRONG>ONLY</STRONG> the Class of the T class
+     * (knowing nothing about the constructors), we have to get
+     * any of its constructor and create an object of that type with some
+     * default values to begin with. The class is required to have a field
+     * (or fields) of at least one of the supported types:
+     * <ul>
+     *     <li>{@link String}</li>
+     *     <li>{@code int}, {@code long}, {@code double}, {@code boolean} and their wrappers</li>
+     *     <li>{@link Instant}, {@link java.time.LocalDate}, {@link java.time.Duration}</li>
+     *     <li>any enum</li>
+     * </ul>
+     * But may also have fields with other data types. If only default constructor present,
+     * an object with default values for each attribute is created.
+     * @return created object
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T newInstance() {
+        // Checking only exceptions that can be dealt with on our end
+        try {
+            // Invoking constructor
+            return (T) constructor.newInstance(constructorArgs);
+        } catch (InstantiationException e) {
+            throw new IllegalStateException("Provided class is abstract! Stacktrace: " + e);
+        } catch (InvocationTargetException ex) {
+            throw new IllegalStateException("Constructor threw an exception! Stacktrace: " + ex);
+        } catch (IllegalAccessException exc) {
+            throw new IllegalStateException("Constructor in not accessible! Stacktrace: " + exc);
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalStateException("Unwrapping from array failed! Stacktrace: " + exception);
+        }
+    }
+
+    /**
+     * Fills the object fields through the setters of the bindings.
+     * The values are converted by the converter of the field type, see {@link PropertyConverters}.
+     * Takes the cheaper of two ways: a lookup of each field key in the map, or
+     * (if the map has fewer keys than the class has fields) one walk over the map
+     * dispatching each key to its fields, see {@link #bindInverted}.
+     * @param target object to fill
+     * @param properties map of key-values from property file
+     * @param propertiesPath path in case an exception is thrown
+     */
+    @Override
+    public void bind(T target, Map<String, String> properties, Path propertiesPath) {
+        if(properties.size() < bindings.length) {
+            bindInverted(target, properties, propertiesPath, null, null);
+            return;
+        }
+        for(FieldBinding binding : bindings) {
+            // The key is the field name or the expectedPropertyName of the annotation
+            String value = properties.get(binding.getKey());
+            if(value != null) {
+                binding.convertAndSet(target, value, propertiesPath);
+            }
+        }
+    }
+
+    /**
+     * Walks the map once, dispatching each key to the fields bound to it, then fills
+     * the fields in the order of declaration (so the first failing field is always the same).
+     * Keys without a field and fields without a key are collected on the way.
+     * @param target object to fill
+     * @param properties map of key-values from property file
+     * @param propertiesPath path in case an exception is thrown
+     * @param unusedKeys keys of the map no field is bound to are added here, may be null
+     * @param missingKeys keys of the fields missing in the map are added here, may be null
+     */
+    void bindInverted(T target, Map<String, String> properties, Path propertiesPath,
+                      Set<String> unusedKeys, Set<String> missingKeys) {
+        String[] values = new String[bindings.length];
+        for(Map.Entry<String, String> entry : properties.entrySet()) {
+            int[] indexes = indexesByKey.get(entry.getKey());
+            if(indexes == null) {
+                if(unusedKeys != null) {
+                    unusedKeys.add(entry.getKey());
+                }
+                continue;
+            }
+            for(int i : indexes) {
+                values[i] = entry.getValue();
+            }
+        }
+        for(int i = 0; i < bindings.length; i++) {
+            if(values[i] != null) {
+                bindings[i].convertAndSet(target, values[i], propertiesPath);
+            }
+            else if(missingKeys != null) {
+                missingKeys.add(bindings[i].getKey());
+            }
+        }
+    }
+
+    /**
+     * Processes annotation parameters, if the field is annotated with {@link Property}.
+     * <ul>
+     *     <li>expectedPropertyName</li>
+     *     <li>expectedDateTimeFormat</li>
+     *     <li>zone</li>
+     * </ul>
+     * The date-time pattern and the zone of an Instant field are resolved here, so
+     * a malformed one is reported on the first load of the class, whatever the file holds.
+     * @param field field of a supported type
+     * @return binding of the field
+     */
+    private static FieldBinding createBinding(Field field) {
+        String fieldName = field.getName();
+        String dateTimePattern = DEFAULT_DATE_TIME_PATTERN;
+        String zone = DEFAULT_ZONE;
+        Property propertyAnnotation = field.getAnnotation(Property.class);
+        if(propertyAnnotation != null) {
+            // expectedPropertyName specified (else the field name is the key)
+            if(!propertyAnnotation.expectedPropertyName().equals("")) {
+                fieldName = propertyAnnotation.expectedPropertyName();
+            }
+            // Only if the field is of type Instant
+            // we can process the expectedDateTimeFormat() and the zone()
+            dateTimePattern = propertyAnnotation.expectedDateTimeFormat();
+            zone = propertyAnnotation.zone();
+            // specified (else we just use the standard format and UTC)
+            if(!dateTimePattern.equals(DEFAULT_DATE_TIME_PATTERN) || !zone.equals(DEFAULT_ZONE)) {
+                // Applying  the param to field not of type Instant
+                if(field.getType() != Instant.class) {
+                    throw new IllegalStateException(
+                            "Trying to apply param of annotation " + propertyAnnotation +
+                                    " not on the field of type Instant: " + field.getName() +
+                                    " of type " + field.getType().getSimpleName() +
+                                    " in class " + field.getDeclaringClass().getName());
+                }
+            }
+        }
+        if(field.getType() != Instant.class) {
+            return new FieldBinding(field, fieldName, dateTimePattern, null, null);
+        }
+        String qualifiedName = field.getDeclaringClass().getName() + "." + field.getName();
+        return new FieldBinding(field, fieldName, dateTimePattern,
+                PropertyValues.dateTimeFormatter(dateTimePattern, qualifiedName),
+                PropertyValues.zoneId(zone, qualifiedName));
+    }
+
+    /**
+     * Checks if the argument in constructor is a primitive or not
+     * @param constParamType argument to be checked
+     * @param actualParams array of constructor arguments
+     * @param i iteration from for loop
+     */
+    private static void checkForPrimitivesInConstructor(Type constParamType,
+                                                        Object[] actualParams, int i) {
+        // Checking for primitives in constructor. Any type of object is already null.
+        if(primitiveNumbers.contains(constParamType)) {
+            actualParams[i] = 0;
+        }
+        else if(constParamType.equals(Boolean.TYPE)) {
+            actualParams[i] = false;
+        }
+        else if(constParamType.equals(Character.TYPE)) {
+            actualParams[i] = ' ';
+        }
+    }
+
+    /**
+     * Field of a supported type with the key it is read by, the formatter and zone of
+     * its date-time value (Instant fields only) and a {@link MethodHandle} setter. Unlike {@link Field#set(Object, Object)}, the handle
+     * is not access-checked on each call and can be inlined by the JIT; an int field
+     * also gets a setter taking a primitive int, so the value is never boxed.
+     * A {@code static final} field cannot be set at all: it gets no setter, and only a key
+     * actually bound to it fails, so a class with such constants still loads.
+     */
+    static final class FieldBinding {
+        private final Field field;
+        private final String key;
+        private final String dateTimePattern;
+        private final DateTimeFormatter formatter;
+        private final ZoneId zone;
+        private final PropertyConverters.Converter converter;
+        // (Object, Object)void, null if the field is static final
+        private final MethodHandle setter;
+        // (Object, int)void, null if the field is not an int
+        private final MethodHandle intSetter;
+
+        private FieldBinding(Field field, String key, String dateTimePattern,
+                             DateTimeFormatter formatter, ZoneId zone) {
+            this.field = field;
+            this.key = key;
+            this.dateTimePattern = dateTimePattern;
+            this.formatter = formatter;
+            this.zone = zone;
+            this.converter = PropertyConverters.forType(field.getType());
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) && Modifier.isFinal(modifiers)) {
+                this.setter = null;
+                this.intSetter = null;
+                return;
+            }
+            MethodHandle handle;
+            try {
+                // The field is already accessible, so any lookup can unreflect it
+                handle = MethodHandles.lookup().unreflectSetter(field);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Field " + field.getName() + " is not accessible! Stacktrace: " + e);
+            }
+            // A static field has no target, Field.set() ignores it, and so does the handle
+            if (Modifier.isStatic(modifiers)) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            this.setter = handle.asType(OBJECT_SETTER);
+            this.intSetter = field.getType() == int.class ? handle.asType(INT_SETTER) : null;
+        }
+
+        Field getField() {
+            return field;
+        }
+
+        String getName() {
+            return field.getName();
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        String getDateTimePattern() {
+            return dateTimePattern;
+        }
+
+        DateTimeFormatter getFormatter() {
+            return formatter;
+        }
+
+        ZoneId getZone() {
+            return zone;
+        }
+
+        /**
+         * Converts the value to the type of the field and sets it.
+         * @param target object with the field
+         * @param value value from properties file
+         * @param propertiesPath path to the file in case an exception is thrown
+         */
+        void convertAndSet(Object target, String value, Path propertiesPath) {
+            // int goes through the primitive setter, without boxing
+            if(intSetter != null) {
+                setInt(target, PropertyValues.toInt(value, field.getName(), propertiesPath));
+            }
+            else {
+                set(target, converter.convert(value, this, propertiesPath));
+            }
+        }
+
+        /**
+         * @param target object with the field
+         * @param value value of the field type (a boxed one for primitives)
+         */
+        void set(Object target, Object value) {
+            if (setter == null) {
+                throw new IllegalStateException("Field " + field.getName() + " of class "
+                        + field.getDeclaringClass().getName() + " is static final and cannot be set");
+            }
+            try {
+                setter.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Unexpected error", e);
+            }
+        }
+
+        /**
+         * @param target object with the int field
+         * @param value value of the field
+         */
+        void setInt(Object target, int value) {
+            try {
+                intSetter.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Unexpected error", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.task_two;
+
+import java.nio.file.Path;
+
+/**
+ * Class and properties file of one binding of {@link TaskTwo#loadAll(java.util.List)}.
+ * @param <T> bound class
+ */
+public final class BindingRequest<T> {
+
+    private final Class<T> type;
+    private final Path propertiesPath;
+
+    private BindingRequest(Class<T> type, Path propertiesPath) {
+        this.type = type;
+        this.propertiesPath = propertiesPath;
+    }
+
+    /**
+     * @param type class of the object to be created
+     * @param propertiesPath path to the properties file
+     * @return the request
+     */
+    public static <T> BindingRequest<T> of(Class<T> type, Path propertiesPath) {
+        if(type == null || propertiesPath == null) {
+            throw new IllegalStateException("Binding request needs a class and a path: " +
+                    type + ", " + propertiesPath);
+        }
+        return new BindingRequest<>(type, propertiesPath);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public Path getPropertiesPath() {
+        return propertiesPath;
+    }
+
+    @Override
+    public String toString() {
+        return "BindingRequest{" +
+                "type=" + type.getName() +
+                ", propertiesPath=" + propertiesPath +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.task_two;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Object loaded by {@link TaskTwo#loadWithReport(Class, Path)} with the keys
+ * that did not match: keys of the file no field is bound to, and keys of the fields
+ * the file does not have (those fields keep their default values).
+ * @param <T> bound class
+ */
+public final class BindingResult<T> {
+
+    private final T object;
+    private final Path propertiesPath;
+    private final Set<String> unusedKeys;
+    private final Set<String> missingKeys;
+
+    BindingResult(T object, Path propertiesPath, Set<String> unusedKeys, Set<String> missingKeys) {
+        this.object = object;
+        this.propertiesPath = propertiesPath;
+        this.unusedKeys = Collections.unmodifiableSet(unusedKeys);
+        this.missingKeys = Collections.unmodifiableSet(missingKeys);
+    }
+
+    public T getObject() {
+        return object;
+    }
+
+    public Path getPropertiesPath() {
+        return propertiesPath;
+    }
+
+    /**
+     * @return keys of the file no field is bound to, in the order of the file
+     */
+    public Set<String> getUnusedKeys() {
+        return unusedKeys;
+    }
+
+    /**
+     * @return keys of the fields the file does not have, in the order of the fields
+     */
+    public Set<String> getMissingKeys() {
+        return missingKeys;
+    }
+
+    @Override
+    public String toString() {
+        return "BindingResult{" +
+                "object=" + object +
+                ", propertiesPath=" + propertiesPath +
+                ", unusedKeys=" + unusedKeys +
+                ", missingKeys=" + missingKeys +
+                '}';
+    }
+}
@@ -0,0 +1,219 @@
+package org.example.task_two;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Object bound from a properties file that follows the changes of the file
+ * (see {@link TaskTwo#loadLive(Class, Path)}).
+ * <p>
+ * A daemon thread watches the directory of the file through a {@link WatchService}.
+ * When the file is written or replaced, its content is hashed (CRC32C) and, only if
+ * the hash differs from the bound content, a new object is created and bound. The new
+ * object replaces the old one with a single volatile write, so {@link #get()} never
+ * blocks and always returns a fully bound object. An object is never changed after it
+ * is published, a reader holding it keeps a consistent snapshot.
+ * <p>
+ * If the changed file cannot be bound (e.g. it is still being written), the previous object
+ * stays and the failure is kept in {@link #getLastError()} until a later change binds.
+ * @param <T> bound class
+ */
+public final class Bound<T> implements Closeable {
+
+    private static final int HASH_BUFFER_SIZE = 8 * 1024;
+    // Quiet time after the last event before the file is read, so a file being
+    // written is read once it is complete (writing to a temporary file and moving it
+    // over the bound one avoids partial reads altogether)
+    private static final long SETTLE_MILLIS = 50;
+
+    private final Class<T> type;
+    private final Path propertiesPath;
+    private final Path realPath;
+    private final WatchService watchService;
+    // Object, hash and version are swapped together
+    private volatile Snapshot<T> snapshot;
+    private volatile IllegalStateException lastError;
+
+    private Bound(Class<T> type, Path propertiesPath, Path realPath, WatchService watchService) {
+        this.type = type;
+        this.propertiesPath = propertiesPath;
+        this.realPath = realPath;
+        this.watchService = watchService;
+    }
+
+    /**
+     * Binds the file and starts watching it.
+     * @param type class of the object to be created
+     * @param propertiesPath path to the properties file
+     * @return the live object
+     * @throws IllegalStateException if the file cannot be bound or watched
+     */
+    static <T> Bound<T> watch(Class<T> type, Path propertiesPath) {
+        Path realPath;
+        WatchService watchService;
+        try {
+            realPath = propertiesPath.toRealPath();
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (NoSuchFileException e) {
+            throw new IllegalStateException("No file with path " + propertiesPath + " found");
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot watch properties file at path: " + propertiesPath +
+                    "! Stacktrace: " + e);
+        }
+        Bound<T> bound = new Bound<>(type, propertiesPath, realPath, watchService);
+        try {
+            long hash = bound.hash();
+            bound.snapshot = new Snapshot<>(bound.bind(), hash, 1);
+            realPath.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            bound.close();
+            throw new IllegalStateException("Cannot watch properties file at path: " + propertiesPath +
+                    "! Stacktrace: " + e);
+        } catch (RuntimeException e) {
+            bound.close();
+            throw e;
+        }
+        Thread watcher = new Thread(bound::watchLoop, "bound-properties-watcher-" + realPath.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+        return bound;
+    }
+
+    /**
+     * Lock-free, a volatile read.
+     * @return object bound from the latest content of the file that could be bound
+     */
+    public T get() {
+        return snapshot.object;
+    }
+
+    /**
+     * @return number of the contents bound so far, 1 for the first one
+     */
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * @return failure of the latest change of the file, null if it was bound
+     */
+    public IllegalStateException getLastError() {
+        return lastError;
+    }
+
+    public Path getPropertiesPath() {
+        return propertiesPath;
+    }
+
+    /**
+     * Binds the file again if its content changed, as the watching thread does on a change.
+     * @return true if a new object was published
+     * @throws IllegalStateException if the changed file cannot be bound, the previous object stays
+     */
+    public boolean reload() {
+        // Reloads come one at a time, readers never wait for them
+        synchronized (this) {
+            try {
+                long hash = hash();
+                Snapshot<T> current = snapshot;
+                if (hash == current.hash) {
+                    return false;
+                }
+                snapshot = new Snapshot<>(bind(), hash, current.version + 1);
+                lastError = null;
+                return true;
+            } catch (IllegalStateException e) {
+                lastError = e;
+                throw e;
+            } catch (IOException e) {
+                IllegalStateException error = new IllegalStateException(
+                        "Cannot read properties file at path: " + propertiesPath + "! Stacktrace: " + e);
+                lastError = error;
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Stops watching, {@link #get()} keeps returning the last object.
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private T bind() {
+        // Not through the file cache: an edit of the same size within the timestamp
+        // resolution has a new hash, but the same size and last-modified time
+        return TaskTwo.bindProperties(type, TaskTwo.readPropertiesFile(realPath, propertiesPath), propertiesPath);
+    }
+
+    private long hash() throws IOException {
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(realPath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HASH_BUFFER_SIZE);
+            while (channel.read(buffer.clear()) > 0) {
+                crc.update(buffer.flip());
+            }
+        }
+        return crc.getValue();
+    }
+
+    private void watchLoop() {
+        Path fileName = realPath.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        // Lost events may have been about the file
+                        changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || fileName.equals(event.context());
+                    }
+                    key.reset();
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (IllegalStateException e) {
+                        // Kept in lastError, the previous object stays
+                    }
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Watching stopped
+        }
+    }
+
+    private static final class Snapshot<T> {
+        private final T object;
+        private final long hash;
+        private final long version;
+
+        private Snapshot(T object, long hash, long version) {
+            this.object = object;
+            this.hash = hash;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.task_two;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Creates objects of a class and fills them with values from properties file.
+ * {@link TaskTwo#loadFromProperties(Class, Path)} uses the binder generated at compile time
+ * (the class {@code <class name>PropertiesBinder} in the package of the bound class,
+ * see {@link org.example.task_two.processor.PropertiesBinderProcessor}), if there is one,
+ * and binds through reflection otherwise.
+ * @param <T> bound class
+ */
+public interface PropertiesBinder<T> {
+
+    /**
+     * @return new object with the default values
+     */
+    T newInstance();
+
+    /**
+     * Fills the fields of the object with the values of their keys, a field without
+     * its key in the map is left as it is.
+     * @param target object to fill
+     * @param properties key-values from properties file
+     * @param propertiesPath path to the file in case an exception is thrown
+     * @throws IllegalStateException if a value cannot be assigned to its field
+     */
+    void bind(T target, Map<String, String> properties, Path propertiesPath);
+}
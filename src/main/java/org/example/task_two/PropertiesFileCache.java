@@ -0,0 +1,259 @@
+package org.example.task_two;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parsed properties files, so binding many classes from one file reads and parses it once
+ * (see {@link TaskTwo#propertiesCache()}).
+ * <p>
+ * An entry is keyed by the real path of the file (links and relative paths of the same file
+ * share it) and holds the size and last-modified time the file was read with. Each lookup
+ * compares them with the file, a changed file is read again. A change that keeps both
+ * (an edit of the same size within the timestamp resolution of the file system) is not seen,
+ * unless {@link #enableWatching()} is on: then the entries of changed files are also dropped
+ * as the {@link WatchService} reports them.
+ * <p>
+ * At most {@code maxFiles} files are kept, the least recently used one is dropped first.
+ * Thread-safe: concurrent lookups of a file missing in the cache wait for a single read.
+ */
+public final class PropertiesFileCache implements Closeable {
+
+    public static final int DEFAULT_MAX_FILES = 64;
+
+    private final Map<Path, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Set by enableWatching(), guarded by this
+    private WatchService watchService;
+    private final Set<Path> watchedDirectories = new HashSet<>();
+
+    /**
+     * @param maxFiles number of files kept at most
+     * @throws IllegalArgumentException if maxFiles is less than 1
+     */
+    public PropertiesFileCache(int maxFiles) {
+        if (maxFiles < 1) {
+            throw new IllegalArgumentException("Properties cache needs room for at least one file: " + maxFiles);
+        }
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Entry> eldest) {
+                return size() > maxFiles;
+            }
+        };
+    }
+
+    /**
+     * @param propertiesPath path to the properties file
+     * @return key-values of the file (see {@link PropertiesScanner}), unmodifiable
+     * @throws IllegalStateException if there is no such file or it cannot be read
+     */
+    public Map<String, String> get(Path propertiesPath) {
+        Path realPath;
+        BasicFileAttributes attributes;
+        try {
+            realPath = propertiesPath.toRealPath();
+            attributes = Files.readAttributes(realPath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new IllegalStateException("No file with path " + propertiesPath + " found");
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read properties file at path: " + propertiesPath +
+                    "! Stacktrace: " + e);
+        }
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        Entry entry;
+        boolean loader = false;
+        synchronized (entries) {
+            entry = entries.get(realPath);
+            if (entry == null || entry.size != size || entry.lastModified != lastModified) {
+                entry = new Entry(size, lastModified, new FutureTask<>(
+                        () -> Collections.unmodifiableMap(TaskTwo.readPropertiesFile(realPath, propertiesPath))));
+                entries.put(realPath, entry);
+                loader = true;
+            }
+        }
+        if (loader) {
+            misses.increment();
+            watch(realPath);
+            entry.properties.run();
+        } else {
+            hits.increment();
+        }
+        try {
+            return entry.properties.get();
+        } catch (ExecutionException e) {
+            // Not kept, the next lookup reads the file again
+            synchronized (entries) {
+                entries.remove(realPath, entry);
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Cannot read properties file at path: " + propertiesPath +
+                    "! Stacktrace: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading properties file at path: " + propertiesPath);
+        }
+    }
+
+    /**
+     * Drops the entry of the file, the next lookup reads it again.
+     * @param propertiesPath path to the properties file
+     */
+    public void invalidate(Path propertiesPath) {
+        Path realPath;
+        try {
+            realPath = propertiesPath.toRealPath();
+        } catch (IOException e) {
+            // A deleted file is only reachable by the absolute path
+            realPath = propertiesPath.toAbsolutePath().normalize();
+        }
+        synchronized (entries) {
+            entries.remove(realPath);
+        }
+    }
+
+    /**
+     * Drops all entries, the counters are kept.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return number of cached files
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return number of lookups answered from the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups that read the file
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Starts a daemon thread dropping the entries of the files changed, created or deleted
+     * in the directories of the cached files. Does nothing if already started.
+     * @throws IllegalStateException if the file system cannot be watched
+     */
+    public synchronized void enableWatching() {
+        if (watchService != null) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot watch properties files! Stacktrace: " + e);
+        }
+        Thread watcher = new Thread(() -> watchLoop(watchService), "properties-file-cache-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        synchronized (entries) {
+            entries.keySet().forEach(this::watch);
+        }
+    }
+
+    /**
+     * Stops watching, the entries are kept.
+     */
+    @Override
+    public synchronized void close() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        watchService = null;
+        watchedDirectories.clear();
+    }
+
+    private synchronized void watch(Path realPath) {
+        Path directory = realPath.getParent();
+        if (watchService == null || directory == null || !watchedDirectories.add(directory)) {
+            return;
+        }
+        try {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            // Still checked by size and last-modified time
+            watchedDirectories.remove(directory);
+        }
+    }
+
+    private void watchLoop(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events lost, any file of the directory may have changed
+                        synchronized (entries) {
+                            entries.keySet().removeIf(path -> directory.equals(path.getParent()));
+                        }
+                    } else {
+                        synchronized (entries) {
+                            entries.remove(directory.resolve((Path) event.context()));
+                        }
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Watching stopped
+        }
+    }
+
+    private static final class Entry {
+        private final long size;
+        private final long lastModified;
+        private final FutureTask<Map<String, String>> properties;
+
+        private Entry(long size, long lastModified, FutureTask<Map<String, String>> properties) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.properties = properties;
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package org.example.task_two;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reader of properties files in the syntax of {@link java.util.Properties#load(java.io.Reader)}:
+ * <ul>
+ *     <li>comment lines starting with {@code #} or {@code !}, blank lines</li>
+ *     <li>{@code =}, {@code :} or whitespace between the key and the value,
+ *     the value may contain separators ({@code url=a=b})</li>
+ *     <li>escapes {@code \t \n \r \f \\uXXXX}, any other escaped character stands for itself</li>
+ *     <li>line continuation with {@code \} at the end of the line</li>
+ * </ul>
+ * Unlike Properties, a line with an empty key and a malformed {@code \\uXXXX} escape are errors.
+ * The file is read as UTF-8 through a {@link FileChannel} in fixed-size buffers
+ * and scanned one character at a time, so only the keys and values themselves are
+ * allocated (no line Strings or split arrays). Runs of plain characters of a key
+ * or a value are copied at once, the state machine only sees separators, escapes
+ * and line ends. Keys are deduplicated through a small cache shared by all reads,
+ * as the same keys come back in every file of a service: a key read before is not
+ * allocated again. Unlike {@link String#intern()}, a file of unique keys only
+ * overwrites the cache and does not grow the string table of the JVM.
+ * <p>
+ * Not thread-safe, an instance reads one file.
+ */
+final class PropertiesScanner {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Direct-mapped by key hash, a slot keeps the last key with the hash.
+    // Racy on purpose: Strings are immutable, a lost update only costs an allocation
+    private static final String[] KEY_CACHE = new String[1024];
+
+    // Where the next character goes
+    private static final int LINE_START = 0;
+    private static final int COMMENT = 1;
+    private static final int KEY = 2;
+    // Whitespace after the key, before a possible separator
+    private static final int KEY_END = 3;
+    // Whitespace after the separator
+    private static final int VALUE_START = 4;
+    private static final int VALUE = 5;
+    // Character after a backslash
+    private static final int ESCAPE = 6;
+    // Hex digits of \\uXXXX
+    private static final int UNICODE = 7;
+    // Leading whitespace of a continuation line
+    private static final int CONTINUATION = 8;
+
+    private final Path propertiesPath;
+    private final Map<String, String> properties = new LinkedHashMap<>();
+
+    private int state = LINE_START;
+    // KEY or VALUE, where the escaped or continued character goes
+    private int escapedState;
+    private char[] key = new char[64];
+    private int keyLength;
+    private char[] value = new char[256];
+    private int valueLength;
+    private int unicode;
+    private int unicodeDigits;
+    private int line = 1;
+    // \r\n is one line end
+    private boolean afterCarriageReturn;
+
+    private PropertiesScanner(Path propertiesPath) {
+        this.propertiesPath = propertiesPath;
+    }
+
+    /**
+     * @param propertiesPath file to read
+     * @return key-values of the file in the order of the file; a repeated key keeps the last value
+     * @throws IOException if the file cannot be read
+     * @throws IllegalStateException if a line has an empty key or a malformed escape
+     */
+    static Map<String, String> read(Path propertiesPath) throws IOException {
+        PropertiesScanner scanner = new PropertiesScanner(propertiesPath);
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        // UTF-8 never gives more chars than bytes, so the chars of a buffer always fit
+        CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(propertiesPath, StandardOpenOption.READ)) {
+            boolean endOfFile = false;
+            while (!endOfFile) {
+                endOfFile = channel.read(bytes) == -1;
+                bytes.flip();
+                decoder.decode(bytes, chars, endOfFile);
+                if (endOfFile) {
+                    decoder.flush(chars);
+                }
+                chars.flip();
+                scanner.scan(chars.array(), chars.position(), chars.limit());
+                chars.clear();
+                // A multibyte character split between two reads stays for the next one
+                bytes.compact();
+            }
+        }
+        scanner.finish();
+        return scanner.properties;
+    }
+
+    private void scan(char[] chars, int from, int to) {
+        int i = from;
+        while (i < to) {
+            if (state == VALUE) {
+                int start = i;
+                while (i < to && !endsValueRun(chars[i])) {
+                    i++;
+                }
+                appendValue(chars, start, i - start);
+            } else if (state == KEY) {
+                int start = i;
+                while (i < to && !endsKeyRun(chars[i])) {
+                    i++;
+                }
+                appendKey(chars, start, i - start);
+            }
+            if (i < to) {
+                accept(chars[i++]);
+            }
+        }
+    }
+
+    private void accept(char c) {
+        if (c == '\n' && afterCarriageReturn) {
+            afterCarriageReturn = false;
+            return;
+        }
+        afterCarriageReturn = c == '\r';
+        if (c == '\n' || c == '\r') {
+            newLine();
+            return;
+        }
+        switch (state) {
+            case LINE_START:
+                if (isWhitespace(c)) {
+                    return;
+                }
+                if (c == '#' || c == '!') {
+                    state = COMMENT;
+                } else if (c == '=' || c == ':') {
+                    throw illegalFormat("empty key");
+                } else if (c == '\\') {
+                    escape(KEY);
+                } else {
+                    state = KEY;
+                    appendKey(c);
+                }
+                return;
+            case COMMENT:
+                return;
+            case KEY:
+                if (c == '\\') {
+                    escape(KEY);
+                } else if (c == '=' || c == ':') {
+                    state = VALUE_START;
+                } else if (isWhitespace(c)) {
+                    state = KEY_END;
+                } else {
+                    appendKey(c);
+                }
+                return;
+            case KEY_END:
+                if (c == '=' || c == ':') {
+                    state = VALUE_START;
+                } else if (!isWhitespace(c)) {
+                    startValue(c);
+                }
+                return;
+            case VALUE_START:
+            case CONTINUATION:
+                if (!isWhitespace(c)) {
+                    if (state == CONTINUATION && escapedState == KEY) {
+                        state = KEY;
+                        accept(c);
+                    } else {
+                        startValue(c);
+                    }
+                }
+                return;
+            case VALUE:
+                if (c == '\\') {
+                    escape(VALUE);
+                } else {
+                    appendValue(c);
+                }
+                return;
+            case ESCAPE:
+                if (c == 'u') {
+                    state = UNICODE;
+                    unicode = 0;
+                    unicodeDigits = 0;
+                    return;
+                }
+                state = escapedState;
+                appendEscaped(c == 't' ? '\t' : c == 'n' ? '\n' : c == 'r' ? '\r' : c == 'f' ? '\f' : c);
+                return;
+            case UNICODE:
+                int digit = Character.digit(c, 16);
+                if (digit < 0) {
+                    throw illegalFormat("malformed \\uxxxx encoding");
+                }
+                unicode = (unicode << 4) | digit;
+                if (++unicodeDigits == 4) {
+                    state = escapedState;
+                    appendEscaped((char) unicode);
+                }
+                return;
+            default:
+                throw new IllegalStateException("Unexpected state " + state);
+        }
+    }
+
+    private void newLine() {
+        switch (state) {
+            case ESCAPE:
+                // Continuation: the entry goes on with the next line
+                state = CONTINUATION;
+                break;
+            case UNICODE:
+                throw illegalFormat("malformed \\uxxxx encoding");
+            case KEY:
+            case KEY_END:
+            case VALUE_START:
+            case VALUE:
+                finishEntry();
+                break;
+            case CONTINUATION:
+                // An empty continuation line ends the entry
+                finishEntry();
+                break;
+            default:
+                state = LINE_START;
+        }
+        line++;
+    }
+
+    private void finish() {
+        switch (state) {
+            case UNICODE:
+                throw illegalFormat("malformed \\uxxxx encoding");
+            case KEY:
+            case KEY_END:
+            case VALUE_START:
+            case VALUE:
+            case ESCAPE:
+            case CONTINUATION:
+                finishEntry();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void finishEntry() {
+        properties.put(dedupKey(), new String(value, 0, valueLength));
+        keyLength = 0;
+        valueLength = 0;
+        state = LINE_START;
+    }
+
+    private String dedupKey() {
+        int hash = 0;
+        for (int i = 0; i < keyLength; i++) {
+            hash = 31 * hash + key[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (KEY_CACHE.length - 1);
+        String cached = KEY_CACHE[slot];
+        // Same hash as String.hashCode(), which the cached key keeps computed
+        if (cached != null && cached.hashCode() == hash && cached.length() == keyLength) {
+            int i = 0;
+            while (i < keyLength && cached.charAt(i) == key[i]) {
+                i++;
+            }
+            if (i == keyLength) {
+                return cached;
+            }
+        }
+        String newKey = new String(key, 0, keyLength);
+        KEY_CACHE[slot] = newKey;
+        return newKey;
+    }
+
+    private void escape(int target) {
+        escapedState = target;
+        state = ESCAPE;
+    }
+
+    private void startValue(char c) {
+        state = VALUE;
+        if (c == '\\') {
+            escape(VALUE);
+        } else {
+            appendValue(c);
+        }
+    }
+
+    private void appendEscaped(char c) {
+        if (escapedState == KEY) {
+            appendKey(c);
+        } else {
+            appendValue(c);
+        }
+    }
+
+    private void appendKey(char c) {
+        if (keyLength == key.length) {
+            key = Arrays.copyOf(key, keyLength * 2);
+        }
+        key[keyLength++] = c;
+    }
+
+    private void appendKey(char[] chars, int from, int length) {
+        if (keyLength + length > key.length) {
+            key = Arrays.copyOf(key, Math.max(key.length * 2, keyLength + length));
+        }
+        System.arraycopy(chars, from, key, keyLength, length);
+        keyLength += length;
+    }
+
+    private void appendValue(char[] chars, int from, int length) {
+        if (valueLength + length > value.length) {
+            value = Arrays.copyOf(value, Math.max(value.length * 2, valueLength + length));
+        }
+        System.arraycopy(chars, from, value, valueLength, length);
+        valueLength += length;
+    }
+
+    private void appendValue(char c) {
+        if (valueLength == value.length) {
+            value = Arrays.copyOf(value, valueLength * 2);
+        }
+        value[valueLength++] = c;
+    }
+
+    private IllegalStateException illegalFormat(String reason) {
+        return new IllegalStateException(
+                "Illegal format of properties file line " + line + ": " + reason +
+                        " at path: " + propertiesPath);
+    }
+
+    private static boolean endsValueRun(char c) {
+        return c == '\\' || c == '\n' || c == '\r';
+    }
+
+    private static boolean endsKeyRun(char c) {
+        return c == '\\' || c == '=' || c == ':' || c == '\n' || c == '\r' || isWhitespace(c);
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+}
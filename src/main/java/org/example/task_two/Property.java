@@ -11,4 +11,6 @@ public @interface Property {
     String expectedPropertyName() default "";
     // Default format : 23.11.2002 12:30
     String expectedDateTimeFormat() default "dd.MM.yyyy HH:mm";
+    // Zone the date-time of an Instant field is taken in, any ZoneId.of() id
+    String zone() default "UTC";
 }
@@ -0,0 +1,80 @@
+package org.example.task_two;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the {@link PropertyValues} conversions by field type. {@link BindingPlan}
+ * resolves the converter of each field once, so binding a value is a single call
+ * of the converter, whatever the value looks like.
+ */
+final class PropertyConverters {
+
+    /**
+     * Converts a value from properties file to the type of a field.
+     */
+    @FunctionalInterface
+    interface Converter {
+        /**
+         * @param value value from properties file
+         * @param binding field the value is converted for
+         * @param propertiesPath path to the file in case an exception is thrown
+         * @return converted value (a boxed one for primitives)
+         */
+        Object convert(String value, BindingPlan.FieldBinding binding, Path propertiesPath);
+    }
+
+    private static final Map<Class<?>, Converter> CONVERTERS = new HashMap<>();
+
+    static {
+        register(String.class, (value, field, path) -> PropertyValues.toStringValue(value, field.getName(), path));
+        register(int.class, (value, field, path) -> PropertyValues.toInteger(value, field.getName(), path));
+        register(Integer.class, (value, field, path) -> PropertyValues.toInteger(value, field.getName(), path));
+        register(long.class, (value, field, path) -> PropertyValues.toLong(value, field.getName(), path));
+        register(Long.class, (value, field, path) -> PropertyValues.toLong(value, field.getName(), path));
+        register(double.class, (value, field, path) -> PropertyValues.toDouble(value, field.getName(), path));
+        register(Double.class, (value, field, path) -> PropertyValues.toDouble(value, field.getName(), path));
+        register(boolean.class, (value, field, path) -> PropertyValues.toBoolean(value, field.getName(), path));
+        register(Boolean.class, (value, field, path) -> PropertyValues.toBoolean(value, field.getName(), path));
+        register(Duration.class, (value, field, path) -> PropertyValues.toDuration(value, field.getName(), path));
+        register(LocalDate.class, (value, field, path) -> PropertyValues.toLocalDate(value, field.getName(), path));
+        register(Instant.class, (value, field, path) -> PropertyValues.toInstant(value, field.getFormatter(),
+                field.getZone(), field.getDateTimePattern(), field.getName(), path));
+    }
+
+    private PropertyConverters() {
+    }
+
+    private static void register(Class<?> type, Converter converter) {
+        CONVERTERS.put(type, converter);
+    }
+
+    /**
+     * @param type type of a field
+     * @return converter of the type, null if the type is not supported
+     */
+    static Converter forType(Class<?> type) {
+        Converter converter = CONVERTERS.get(type);
+        if (converter == null && type.isEnum()) {
+            return enumConverter(type.asSubclass(Enum.class));
+        }
+        return converter;
+    }
+
+    /**
+     * @param type type of a field
+     * @return true if fields of the type can be bound
+     */
+    static boolean isSupported(Class<?> type) {
+        return CONVERTERS.containsKey(type) || type.isEnum();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Converter enumConverter(Class<? extends Enum> type) {
+        return (value, field, path) -> PropertyValues.toEnum(value, (Class) type, field.getName(), path);
+    }
+}
@@ -0,0 +1,231 @@
+package org.example.task_two;
+
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Conversions of the values from properties file to the supported field types.
+ * Shared by the reflective binding of {@link TaskTwo} (through {@link PropertyConverters})
+ * and the binders generated by {@link org.example.task_two.processor.PropertiesBinderProcessor},
+ * so both accept and reject exactly the same values. The type of the field decides
+ * how the value is parsed: a String field takes any value, a number field - only a number, etc.
+ * As in {@link java.util.Properties}, a value keeps its trailing whitespace, which a String
+ * field gets as it is; the other types trim the value before parsing it, so {@code number=9 }
+ * is still 9.
+ * Every failure is an {@link IllegalStateException} naming the value, the field and the file.
+ */
+public final class PropertyValues {
+
+    private PropertyValues() {
+    }
+
+    /**
+     * @param value value from properties file
+     * @param fieldName name of the field in case an exception is thrown
+     * @param propertiesPath path to the file in case an exception is thrown
+     * @return the value as it is
+     */
+    public static String toStringValue(String value, String fieldName, Path propertiesPath) {
+        return value;
+    }
+
+    /**
+     * @param value value from properties file
+     * @param fieldName name of the field in case an exception is thrown
+     * @param propertiesPath path to the file in case an exception is thrown
+     * @return the value parsed to int
+     * @throws IllegalStateException if the value is not an int
+     */
+    public static int toInt(String value, String fieldName, Path propertiesPath) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw cannotAssign(value, fieldName, propertiesPath, "Integer");
+        }
+    }
+
+    /**
+     * Same as {@link #toInt(String, String, Path)}, boxed for Integer fields.
+     * @param value value from properties file
+     * @param fieldName name of the field in case an exception is thrown
+     * @param propertiesPath path to the file in case an exception is thrown
+     * @return the value parsed to Integer
+     */
+    public static Integer toInteger(String value, String fieldName, Path propertiesPath) {
+        return toInt(value, fieldName, propertiesPath);
+    }
+
+    /**
+     * @param value value from properties file
+     * @param fieldName name of the field in case an exception is thrown
+     * @param propertiesPath path to the file in case an exception is thrown
+     * @return the value parsed to long
+     * @throws IllegalStateException if the value is not a long
+     */
+    public static long toLong(String value, String fieldName, Path propertiesPath) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw cannotAssign(value, fieldName, propertiesPath, "Long");
+        }
+    }
+
+    /**
+     * @param value value from properties file
+     * @param fieldName name of the field in case an exception is thrown
+     * @param propertiesPath path to the file in case an exception is thrown
+     * @return the value parsed to double
+     * @throws IllegalStateException if the value is not a number
+     */
+    public static double toDouble(String value, String fieldName, Path propertiesPath) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw cannotAssign(value, fieldName, propertiesPath, "Double");
+        }
+    }
+
+    /**
+     * Unlike {@link Boolean#parseBoolean(String)}, anything but true or false
+     * (in any case) is rejected instead of being taken as false.
+     * @param value value from properties file
+     * @param fieldName name of the field in case an exception is thrown
+     * @param propertiesPath path to the file in case an exception is thrown
+     * @return the value parsed to boolean
+     * @throws IllegalStateException if the value is not true or false
+     */
+    public static boolean toBoolean(String value, String fieldName, Path propertiesPath) {
+        String trimmed = value.trim();
+        if (trimmed.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (trimmed.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw cannotAssign(value, fieldName, propertiesPath, "Boolean");
+    }
+
+    /**
+     * @param value value from properties file in ISO-8601 format, e.g. PT15M
+     * @param fieldName name of the field in case an exception is thrown
+     * @param propertiesPath path to the file in case an exception is thrown
+     * @return the value parsed to Duration
+     * @throws IllegalStateException if the value is not a duration
+     */
+    public static Duration toDuration(String value, String fieldName, Path propertiesPath) {
+        try {
+            return Duration.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw cannotAssign(value, fieldName, propertiesPath, "Duration");
+        }
+    }
+
+    /**
+     * @param value value from properties file in ISO-8601 format, e.g. 2022-11-29
+     * @param fieldName name of the field in case an exception is thrown
+     * @param propertiesPath path to the file in case an exception is thrown
+     * @return the value parsed to LocalDate
+     * @throws IllegalStateException if the value is not a date
+     */
+    public static LocalDate toLocalDate(String value, String fieldName, Path propertiesPath) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw cannotAssign(value, fieldName, propertiesPath, "LocalDate");
+        }
+    }
+
+    /**
+     * @param value value from properties file, the name of a constant
+     * @param enumType type of the field
+     * @param fieldName name of the field in case an exception is thrown
+     * @param propertiesPath path to the file in case an exception is thrown
+     * @return the constant with the name
+     * @throws IllegalStateException if the enum has no constant with the name
+     */
+    public static <E extends Enum<E>> E toEnum(String value, Class<E> enumType,
+                                               String fieldName, Path propertiesPath) {
+        try {
+            return Enum.valueOf(enumType, value.trim());
+        } catch (IllegalArgumentException e) {
+            throw cannotAssign(value, fieldName, propertiesPath, enumType.getSimpleName());
+        }
+    }
+
+    /**
+     * Parses the value to Instant. The formatter and the zone are resolved once per field
+     * by the binder (see {@link #dateTimeFormatter(String, String)} and {@link #zoneId(String, String)}).
+     * @param value value from properties file
+     * @param formatter formatter of the date-time pattern
+     * @param zone zone the date-time is taken in
+     * @param dateTimePattern pattern of the formatter in case an exception is thrown
+     * @param fieldName name of the field in case an exception is thrown
+     * @param propertiesPath path to the file in case an exception is thrown
+     * @return the value parsed to Instant
+     * @throws IllegalStateException if the value cannot be parsed with the pattern
+     */
+    public static Instant toInstant(String value, DateTimeFormatter formatter, ZoneId zone,
+                                    String dateTimePattern, String fieldName, Path propertiesPath) {
+        // Catching a RunTimeException
+        // If the value cannot be parsed with the specified pattern
+        try {
+            return LocalDateTime
+                    .parse(value.trim(), formatter)
+                    .atZone(zone)
+                    .toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalStateException(
+                    "Parsing error! Cannot assign the value " + value +
+                            " to the field " + fieldName +
+                            " at file " + propertiesPath + ", required type Instant: " +
+                            "String " + value + " cannot be parsed " +
+                            "with pattern " + dateTimePattern);
+        }
+    }
+
+    /**
+     * @param dateTimePattern pattern of {@link Property#expectedDateTimeFormat()}
+     * @param fieldName field with the pattern in case an exception is thrown
+     * @return formatter of the pattern
+     * @throws IllegalStateException if the pattern is malformed
+     */
+    public static DateTimeFormatter dateTimeFormatter(String dateTimePattern, String fieldName) {
+        try {
+            return DateTimeFormatter.ofPattern(dateTimePattern);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException(
+                    "Malformed date-time pattern " + dateTimePattern +
+                            " of the field " + fieldName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param zone zone id of {@link Property#zone()}
+     * @param fieldName field with the zone in case an exception is thrown
+     * @return the zone
+     * @throws IllegalStateException if there is no such zone
+     */
+    public static ZoneId zoneId(String zone, String fieldName) {
+        try {
+            return ZoneId.of(zone);
+        } catch (DateTimeException e) {
+            throw new IllegalStateException(
+                    "Unknown zone " + zone + " of the field " + fieldName + ": " + e.getMessage());
+        }
+    }
+
+    private static IllegalStateException cannotAssign(String value, String fieldName,
+                                                      Path propertiesPath, String requiredType) {
+        return new IllegalStateException(
+                "Parsing error! Cannot assign the value " + value +
+                        " to the field " + fieldName +
+                        " at file " + propertiesPath + ", required type " + requiredType);
+    }
+}
@@ -1,40 +1,50 @@
 package org.example.task_two;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import org.example.util.VirtualThreads;
+
 import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Type;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 public final class TaskTwo {
 
-    private static final Set<String> allowedTypes = new HashSet<>(Arrays.asList(
-            "String", "Integer", "int", "Instant"
-    ));
+    // Binder of each class: the generated one or, if there is none, the reflective BindingPlan
+    private static final ClassValue<PropertiesBinder<?>> BINDERS = new ClassValue<>() {
+        @Override
+        protected PropertiesBinder<?> computeValue(Class<?> type) {
+            PropertiesBinder<?> generated = findGeneratedBinder(type);
+            return generated != null ? generated : BindingPlan.of(type);
+        }
+    };
+
+    // Parsed files shared by all loads
+    private static final PropertiesFileCache PROPERTIES_CACHE =
+            new PropertiesFileCache(PropertiesFileCache.DEFAULT_MAX_FILES);
 
     /**
      * Creates and returns object of the given class with the attributes filled
      * with values from the file by the given path. The contract is, the class is
      * required to have at least one public constructor and at least one of the
-     * allowed types of field {@link #allowedTypes}. It also has to have field names
+     * supported types of field (String, int, long, double, boolean and their wrappers,
+     * Instant, LocalDate, Duration, enums). It also has to have field names
      * equal to those in properties file and appropriate field types. Otherwise,
      * resulting object attributes may be null or a parsing exception is thrown.
+     * The type of the field decides how its value is parsed (see {@link PropertyValues}).
      * If the field is annotated with {@link Property} and has non-default params,
      * annotation will be processed accordingly.
+     * If the class has a binder generated at compile time (see {@link PropertiesBinder}),
+     * the object is created and filled by it without reflection. Otherwise, the fields,
+     * annotations and constructor of a class are looked up only on its first load
+     * (see {@link BindingPlan}), later loads only read the file and fill the object.
      * @param cls Class type of the object to be returned
      * @param propertiesPath path to the properties file
      * @return created object of type {@link T} with attributes filled from the file
@@ -42,324 +52,184 @@ public final class TaskTwo {
 
     public static <T> T loadFromProperties(Class<T> cls, Path propertiesPath) {
 
+        PropertiesBinder<T> binder = binderOf(cls);
         // Casting (generic type erasure during compilation)
-        T castedObj = cls.cast(createNewInstanceOfT(cls));
-        // Getting class fields (excluding possible superclass fields)
-        Field[] allFields = castedObj.getClass().getDeclaredFields();
-        // Filtering fields so that we have to pass only allowed types
-        Field[] fields = Arrays.stream(allFields)
-                .filter(f -> allowedTypes.contains(f.getType().getSimpleName()))
-                .toArray(Field[]::new);
+        T castedObj = cls.cast(binder.newInstance());
         // Value is String as we cast them later
-        Map<String, String> mapFromProperties = readPropertiesFile(propertiesPath);
+        Map<String, String> mapFromProperties = PROPERTIES_CACHE.get(propertiesPath);
 
-        return fillObject(fields, mapFromProperties, castedObj, propertiesPath);
+        binder.bind(castedObj, mapFromProperties, propertiesPath);
+        return castedObj;
     }
 
     /**
-     * Fills the object fields via reflection and returns this object.
-     * @param fields array of {@link Field} with allowed types
-     * @param mapFromProperties map of key-values from property file
-     * @param castedObj object to fill and return
-     * @param propertiesPath path in case an exception is thrown
-     * @return created object of type {@link T} with attributes filled from the map
+     * Same as {@link #loadFromProperties(Class, Path)}, but the object follows the changes
+     * of the file: when its content changes, a new object is bound and replaces the old one
+     * (see {@link Bound}). The caller closes the returned object to stop watching.
+     * @param cls Class type of the object to be returned
+     * @param propertiesPath path to the properties file
+     * @return live object bound from the file
      */
-
-    private static <T> T fillObject(Field[] fields,
-                                   Map<String, String> mapFromProperties,
-                                   T castedObj, Path propertiesPath) {
-        for(Field field : fields) {
-            String fieldName = field.getName();
-            String dateTimePattern = "dd.MM.yyyy HH:mm";
-            Property propertyAnnotation = field.getAnnotation(Property.class);
-            // If property is present, we change the field name to then
-            // look for the equal one from the properties map
-            if(propertyAnnotation != null) {
-                String[] annotationParams = processPropertyAnnotation(field, propertyAnnotation, propertiesPath);
-                fieldName = annotationParams[0];
-                dateTimePattern = annotationParams[1];
-            }
-
-            for(Map.Entry<String, String> entry : mapFromProperties.entrySet()) {
-                if(fieldName.equals(entry.getKey())) {
-                    field.setAccessible(true);
-                    try {
-                        String checkString = entry.getValue();
-                        // parsing Integer or int
-                        if(checkString.matches("\\d+")) {
-                            parseNumber(field, castedObj, checkString, propertiesPath);
-                        }
-                        // String
-                        else if(checkString.matches("\\w+")) {
-                            parseString(field, castedObj, checkString, propertiesPath);
-                        }
-                        // Instant
-                        else {
-                            parseInstant(field, castedObj, checkString, dateTimePattern, propertiesPath);
-                        }
-                    } catch (IllegalAccessException e) {
-                        throw new IllegalStateException("Unexpected error");
-                    }
-                }
-            }
-        }
-        return castedObj;
+    public static <T> Bound<T> loadLive(Class<T> cls, Path propertiesPath) {
+        return Bound.watch(cls, propertiesPath);
     }
 
     /**
-     * Processes annotation parameters.
-     * <ul>
-     *     <li>expectedPropertyName</li>
-     *     <li>expectedDateTimeFormat</li>
-     * </ul>
-     * @param field field, where annotation {@link Property} is present
-     * @param propertyAnnotation annotation itself
-     * @param propertiesPath file path in case an exception is thrown
-     * @return an array of annotation parameters
+     * Creates an object of the class and fills it from already read key-values.
+     * @param cls Class type of the object to be returned
+     * @param mapFromProperties key-values of the file
+     * @param propertiesPath path to the properties file in case an exception is thrown
+     * @return created object
      */
-
-    private static String[] processPropertyAnnotation(Field field,
-                                                      Property propertyAnnotation,
-                                                      Path propertiesPath) {
-        String fieldName = propertyAnnotation.expectedPropertyName();
-        // expectedPropertyName not specified
-        if(fieldName.equals("")) {
-            fieldName = field.getName();
-        }
-        // Only if the field is of type Instant
-        // we can process the expectedDateTimeFormat()
-        String dateTimePattern = propertyAnnotation.expectedDateTimeFormat();
-        // expectedDateTimeFormat specified (else we just use the standard format)
-        if(!dateTimePattern.equals("dd.MM.yyyy HH:mm")) {
-            // Applying  the param to field not of type Instant
-            if(!field.getType().getSimpleName().equals("Instant")) {
-                throw new IllegalStateException(
-                        "Trying to apply param of annotation " + propertyAnnotation +
-                                " not on the field of type Instant: " + field.getName() +
-                                " of type " + field.getType().getSimpleName() +
-                                " at path: " + propertiesPath);
-            }
-        }
-        return new String[] {fieldName, dateTimePattern};
+    static <T> T bindProperties(Class<T> cls, Map<String, String> mapFromProperties, Path propertiesPath) {
+        PropertiesBinder<T> binder = binderOf(cls);
+        T castedObj = cls.cast(binder.newInstance());
+        binder.bind(castedObj, mapFromProperties, propertiesPath);
+        return castedObj;
     }
 
     /**
-     * Reads the property file and puts each key-value pair (separated by the "=" sign)
-     * in a map.
-     * @param propertiesPath file path to be read
-     * @return map of key-value pairs from the file separated by the "=" sign
+     * Same as {@link #loadFromProperties(Class, Path)}, but also reports the keys of the file
+     * no field is bound to and the keys of the fields missing in the file. The report comes
+     * from the single walk over the file that fills the object, so it costs no extra pass.
+     * The object is always bound through reflection (see {@link BindingPlan}), even if the class
+     * has a generated binder.
+     * @param cls Class type of the object to be returned
+     * @param propertiesPath path to the properties file
+     * @return created object with the unused and missing keys
      */
-    private static Map<String, String> readPropertiesFile(Path propertiesPath) {
-
-        String s;
-        Map<String, String> mapFromProperties = new HashMap<>();
-
-        try(BufferedReader reader = new BufferedReader(
-                new FileReader(String.valueOf(propertiesPath)), 4 * 1024)) {
-
-            while ((s = reader.readLine()) != null) {
-                if(!s.contains("=") || s.endsWith("=") || s.startsWith("=")) {
-                    throw new IllegalStateException(
-                            "Illegal format of properties file line: " + s +
-                                    " at path: " + propertiesPath);
-                }
-                String[] keyAndValue = s.split("=");
-                mapFromProperties.put(keyAndValue[0].trim(), keyAndValue[1].trim());
-            }
-        } catch (FileNotFoundException e) {
-            throw new IllegalStateException("No file with path " + propertiesPath + " found");
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        // Properties file is empty
-        if(mapFromProperties.isEmpty()) {
-            throw new IllegalStateException("Properties file empty at path: " + propertiesPath);
-        }
-        //mapFromProperties.forEach((key, value) -> System.out.println(key + ":" + value));
-        return mapFromProperties;
+    public static <T> BindingResult<T> loadWithReport(Class<T> cls, Path propertiesPath) {
+        BindingPlan<T> plan = BindingPlan.of(cls);
+        T castedObj = cls.cast(plan.newInstance());
+        Map<String, String> mapFromProperties = PROPERTIES_CACHE.get(propertiesPath);
+
+        Set<String> unusedKeys = new LinkedHashSet<>();
+        Set<String> missingKeys = new LinkedHashSet<>();
+        plan.bindInverted(castedObj, mapFromProperties, propertiesPath, unusedKeys, missingKeys);
+        return new BindingResult<>(castedObj, propertiesPath, unusedKeys, missingKeys);
     }
 
     /**
-     * Parses value (String) from the map to Integer or int.
-     * @param field field to be filled with value
-     * @param castedObj object with the field
-     * @param checkString value from map to be parsed
-     * @param propertiesPath path to the file in case an exception is thrown
-     * @throws IllegalStateException if the parsing fails
-     * - and value cannot be assigned to Integer or int
-     * @throws IllegalAccessException if the field is not accessible (it is - syntax for compiler)
+     * Binds all requests at once, a thread per request (virtual threads where the runtime
+     * has them, see {@link VirtualThreads}), so the whole batch takes about as long as
+     * its slowest binding. A file of several requests is read once (see {@link #propertiesCache()}).
+     * @param requests classes and paths to bind
+     * @return created objects in the order of the requests
+     * @throws IllegalStateException if any binding fails, after all of them are done,
+     * with the failure of each request
      */
-    private static <T> void parseNumber(Field field,
-                                         T castedObj,
-                                         String checkString,
-                                         Path propertiesPath) throws IllegalAccessException {
-        if(field.getType().getSimpleName().equals("Integer") ||
-                field.getType().getSimpleName().equals("int")) {
-            field.set(castedObj, Integer.parseInt(checkString));
-        }
-        // Allowing parsing numbers only to String fields
-        // as they technically can be Strings e.g. stringProperty = "459"
-        else if(field.getType().getSimpleName().equals("String")) {
-            field.set(castedObj, checkString);
-        }
-        else {
-            throw new IllegalStateException(
-                    "Parsing error! Cannot assign the value " + checkString +
-                            " to the field " + field.getName() +
-                            " at file " + propertiesPath);
+    public static List<Object> loadAll(List<? extends BindingRequest<?>> requests) {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor();
+        try {
+            return loadAll(requests, executor);
+        } finally {
+            executor.shutdown();
         }
     }
 
     /**
-     * Sets the field of object with value from map.
-     * @param field field to be filled with value
-     * @param castedObj object with the field
-     * @param checkString value from map to be parsed
-     * @param propertiesPath path to the file in case an exception is thrown
-     * @throws IllegalStateException if the parsing fails - field is not of the type String
-     * @throws IllegalAccessException if the field is not accessible (it is - syntax for compiler)
+     * Same as {@link #loadAll(List)}, on the given executor.
+     * @param requests classes and paths to bind
+     * @param executor executor running the bindings, owned by the caller
+     * @return created objects in the order of the requests
+     * @throws IllegalStateException if any binding fails, after all of them are done,
+     * with the failure of each request
      */
-    private static <T> void parseString(Field field,
-                                         T castedObj,
-                                         String checkString,
-                                         Path propertiesPath) throws IllegalAccessException {
-        if(field.getType().getSimpleName().equals("String")) {
-            field.set(castedObj, checkString);
-        }
-        else {
-            throw new IllegalStateException(
-                    "Parsing error! Cannot assign the value " + checkString +
-                            " to the field " + field.getName() +
-                            " at file " + propertiesPath);
+    public static List<Object> loadAll(List<? extends BindingRequest<?>> requests, Executor executor) {
+        List<CompletableFuture<Object>> futures = new ArrayList<>(requests.size());
+        for (BindingRequest<?> request : requests) {
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> loadFromProperties(request.getType(), request.getPropertiesPath()), executor));
         }
-    }
 
-    /**
-     * Parses value (String) from the map to Instant.
-     * @param field field to be filled with value
-     * @param castedObj object with the field
-     * @param checkString value from map to be parsed
-     * @param propertiesPath path to the file in case an exception is thrown
-     * @throws IllegalStateException if the parsing fails - field is not of the type Instant
-     * or date-time pattern is malformed
-     * @throws IllegalAccessException if the field is not accessible (it is - syntax for compiler)
-     */
-    private static <T> void parseInstant(Field field,
-                                         T castedObj,
-                                         String checkString,
-                                         String dateTimePattern,
-                                         Path propertiesPath) throws IllegalAccessException {
-        if(field.getType().getSimpleName().equals("Instant")) {
-            Instant instant;
-            // Catching a RunTimeException
-            // If the value cannot be parsed with the specified pattern
+        List<Object> results = new ArrayList<>(requests.size());
+        StringBuilder failures = new StringBuilder();
+        List<Throwable> causes = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
             try {
-                instant = LocalDateTime
-                        .parse(checkString, DateTimeFormatter.ofPattern(dateTimePattern))
-                        .atZone(ZoneId.of("UTC"))
-                        .toInstant();
-            } catch (DateTimeParseException e) {
-                throw new IllegalStateException(
-                        "String " + checkString + " cannot be parsed " +
-                        "with pattern " + dateTimePattern +
-                        " at file " + propertiesPath);
+                results.add(futures.get(i).join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                causes.add(cause);
+                failures.append(System.lineSeparator())
+                        .append(i).append(": ").append(requests.get(i))
+                        .append(": ").append(cause.getMessage());
             }
-            field.set(castedObj, instant);
         }
-        else {
-            throw new IllegalStateException(
-                    "Parsing error! Cannot assign the value " + checkString +
-                            " to the field " + field.getName() +
-                            " at file " + propertiesPath + ", required type Instant");
+        if(!causes.isEmpty()) {
+            IllegalStateException e = new IllegalStateException(
+                    causes.size() + " of " + requests.size() + " bindings failed:" + failures);
+            causes.forEach(e::addSuppressed);
+            throw e;
         }
+        return results;
     }
 
-    /** Since we know <STRONG>ONLY</STRONG> the Class of the T class
-     * (knowing nothing about the constructors), we have to get
-     * any of its constructor and create an object of that type with some
-     * default values to begin with. The class is required to have a field
-     * (or fields) of at least one of the required types:
-     * <ul>
-     *     <li>{@link Integer}</li>
-     *     <li>{@link String}</li>
-     *     <li>{@link Instant}</li>
-     *     <li>{@code int}</li>
-     * </ul>
-     * But may also have fields with other data types. If only default constructor present,
-     * an object with default values for each attribute is created.
-     * @param cls Class type of the object to create
-     * @return created object
+    /**
+     * Cache of the parsed properties files used by {@link #loadFromProperties(Class, Path)}
+     * and {@link #loadWithReport(Class, Path)}: a file bound to many classes is read once
+     * as long as its size and last-modified time stay the same.
+     * @return the shared cache, e.g. to read its counters or to enable watching
      */
+    public static PropertiesFileCache propertiesCache() {
+        return PROPERTIES_CACHE;
+    }
 
-    private static <T> Object createNewInstanceOfT(Class<T> cls) {
-
-        // No field with the necessary types to parse present
-        if(Arrays.stream(cls.getDeclaredFields())
-                .noneMatch(f -> allowedTypes.contains(f.getType().getSimpleName()))) {
-            throw new IllegalStateException("No fields with required types!");
-        }
-
-        Constructor<?>[] constructors = cls.getConstructors();
-
-        if(constructors.length == 0) {
-            throw new IllegalStateException("No public constructors present!");
-        }
+    @SuppressWarnings("unchecked")
+    private static <T> PropertiesBinder<T> binderOf(Class<T> cls) {
+        return (PropertiesBinder<T>) BINDERS.get(cls);
+    }
 
-        // Get the first constructor (we don't care which)
-        Constructor<?> constructor = constructors[0];
-        // Get its args types
-        Type[] constParamTypes = constructor.getGenericParameterTypes();
-        final Object[] actualParams = new Object[constParamTypes.length];
-        for (int i = 0; i < constParamTypes.length; i++) {
-            Type constParamType = constParamTypes[i];
-            // Put the default values of the args types (primitives) in array
-            checkForPrimitivesInConstructor(constParamType, actualParams, i);
-        }
-        Object obj;
-        // Checking only exceptions that can be dealt with on our end
+    /**
+     * Looks for {@code <class name>PropertiesBinder} generated by
+     * {@link org.example.task_two.processor.PropertiesBinderProcessor}
+     * (for a nested class, {@code Outer_InnerPropertiesBinder}).
+     * @param cls bound class
+     * @return the generated binder or null if the class has none
+     */
+    private static PropertiesBinder<?> findGeneratedBinder(Class<?> cls) {
+        String packageName = cls.getPackageName();
+        String simpleName = packageName.isEmpty()
+                ? cls.getName()
+                : cls.getName().substring(packageName.length() + 1);
+        String binderName = (packageName.isEmpty() ? "" : packageName + ".")
+                + simpleName.replace('$', '_') + "PropertiesBinder";
         try {
-            // Invoking constructor
-            obj = constructor.newInstance(actualParams);
-        } catch (InstantiationException e) {
-            throw new IllegalStateException("Provided class is abstract! Stacktrace: " + e);
-        } catch (InvocationTargetException ex) {
-            throw new IllegalStateException("Constructor threw an exception! Stacktrace: " + ex);
-        } catch (IllegalAccessException exc) {
-            throw new IllegalStateException("Constructor in not accessible! Stacktrace: " + exc);
-        } catch (IllegalArgumentException exception) {
-            throw new IllegalStateException("Unwrapping from array failed! Stacktrace: " + exception);
+            Class<?> binderClass = Class.forName(binderName, true, cls.getClassLoader());
+            if(!PropertiesBinder.class.isAssignableFrom(binderClass)) {
+                return null;
+            }
+            return (PropertiesBinder<?>) binderClass.getConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create binder " + binderName + "! Stacktrace: " + e);
         }
-        return obj;
     }
 
     /**
-     * Checks if the argument in constructor is a primitive or not
-     * @param constParamType argument to be checked
-     * @param actualParams array of constructor arguments
-     * @param i iteration from for loop
+     * Reads the properties file (see {@link PropertiesScanner} for the syntax)
+     * and puts each key-value pair in a map.
+     * @param realPath file path to be read
+     * @param propertiesPath file path as given by the caller, for the exception messages
+     * @return map of key-value pairs from the file in the order of the file
      */
-    private static void checkForPrimitivesInConstructor(Type constParamType,
-                                                        Object[] actualParams, int i) {
-        // Checking for primitives in constructor. Any type of object is already null.
+    static Map<String, String> readPropertiesFile(Path realPath, Path propertiesPath) {
 
-        // Setting primitives (nums)
-        Set<Type> primitiveNumbers = new HashSet<>(Arrays.asList(
-                Integer.TYPE,
-                Byte.TYPE,
-                Short.TYPE,
-                Long.TYPE,
-                Float.TYPE,
-                Double.TYPE
-        ));
-
-        if(primitiveNumbers.contains(constParamType)) {
-            actualParams[i] = 0;
-        }
-        else if(constParamType.equals(Boolean.TYPE)) {
-            actualParams[i] = false;
+        // Keeps the order of the file for the reports of loadWithReport()
+        Map<String, String> mapFromProperties;
+        try {
+            mapFromProperties = PropertiesScanner.read(realPath);
+        } catch (NoSuchFileException e) {
+            throw new IllegalStateException("No file with path " + propertiesPath + " found");
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read properties file at path: " + propertiesPath +
+                    "! Stacktrace: " + e);
         }
-        else if(constParamType.equals(Character.TYPE)) {
-            actualParams[i] = ' ';
+        // Properties file is empty
+        if(mapFromProperties.isEmpty()) {
+            throw new IllegalStateException("Properties file empty at path: " + propertiesPath);
         }
+        return mapFromProperties;
     }
 }
@@ -0,0 +1,356 @@
+package org.example.task_two.processor;
+
+import org.example.task_two.BindProperties;
+import org.example.task_two.Property;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates a {@link org.example.task_two.PropertiesBinder} for every class with
+ * {@link Property} fields or annotated with {@link BindProperties}: the class
+ * {@code <class name>PropertiesBinder} in the same package, which creates the object
+ * with {@code new} and assigns the fields directly, so
+ * {@link org.example.task_two.TaskTwo#loadFromProperties(Class, java.nio.file.Path)}
+ * needs no reflection for it. Values are converted by {@link org.example.task_two.PropertyValues},
+ * the same way the reflective binding does.
+ * <p>
+ * A class is skipped (and bound through reflection) if the generated code could not do
+ * the same as the reflective binding: it is abstract, an inner (non-static) or a private class,
+ * has no public constructor, several ones and none without arguments,
+ * or a constructor argument the reflective binding cannot default,
+ * a bound field is private or final, {@code expectedDateTimeFormat} or {@code zone} is set
+ * on a field that is not Instant, or the pattern or the zone is malformed
+ * (the reflective binding then reports it on the first load).
+ */
+@SupportedAnnotationTypes({"org.example.task_two.Property", "org.example.task_two.BindProperties"})
+public class PropertiesBinderProcessor extends AbstractProcessor {
+
+    private static final String DEFAULT_DATE_TIME_PATTERN = "dd.MM.yyyy HH:mm";
+    private static final String DEFAULT_ZONE = "UTC";
+    private static final String VALUES = "org.example.task_two.PropertyValues";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> classes = new LinkedHashSet<>();
+        for (Element field : roundEnv.getElementsAnnotatedWith(Property.class)) {
+            classes.add((TypeElement) field.getEnclosingElement());
+        }
+        for (Element cls : roundEnv.getElementsAnnotatedWith(BindProperties.class)) {
+            classes.add((TypeElement) cls);
+        }
+        for (TypeElement cls : classes) {
+            String reason = checkBindable(cls);
+            if (reason != null) {
+                // Only an explicit opt-in is worth a note, the rest just fall back to reflection
+                if (cls.getAnnotation(BindProperties.class) != null) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                            "No binder generated, " + reason + ", the class is bound through reflection", cls);
+                }
+                continue;
+            }
+            try {
+                writeBinder(cls);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Cannot write binder: " + e, cls);
+            }
+        }
+        // Property is also read at runtime, other processors may claim it as well
+        return false;
+    }
+
+    /**
+     * @param cls class to bind
+     * @return why the binder cannot be generated, null if it can
+     */
+    private String checkBindable(TypeElement cls) {
+        Set<Modifier> modifiers = cls.getModifiers();
+        if (cls.getKind() != ElementKind.CLASS || modifiers.contains(Modifier.ABSTRACT)) {
+            return "it is not a concrete class";
+        }
+        if (modifiers.contains(Modifier.PRIVATE)
+                || cls.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC)
+                || cls.getNestingKind() == NestingKind.LOCAL
+                || cls.getNestingKind() == NestingKind.ANONYMOUS) {
+            return "it is not accessible from its package";
+        }
+        List<ExecutableElement> constructors = publicConstructors(cls);
+        if (constructors.isEmpty()) {
+            return "it has no public constructor";
+        }
+        ExecutableElement constructor = bindingConstructor(cls);
+        if (constructor == null) {
+            return "it has several public constructors and none without arguments";
+        }
+        for (VariableElement parameter : constructor.getParameters()) {
+            TypeKind kind = parameter.asType().getKind();
+            // Reflection passes an Integer 0, which cannot be narrowed
+            if (kind == TypeKind.BYTE || kind == TypeKind.SHORT) {
+                return "its constructor takes " + kind.name().toLowerCase();
+            }
+        }
+        List<VariableElement> fields = boundFields(cls);
+        if (fields.isEmpty()) {
+            return "it has no fields of the required types";
+        }
+        for (VariableElement field : fields) {
+            if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.FINAL)) {
+                return "field " + field.getSimpleName() + " is private or final";
+            }
+            Property property = field.getAnnotation(Property.class);
+            if (property == null) {
+                continue;
+            }
+            if (!isType(field.asType(), "java.time.Instant")) {
+                if (!property.expectedDateTimeFormat().equals(DEFAULT_DATE_TIME_PATTERN)
+                        || !property.zone().equals(DEFAULT_ZONE)) {
+                    return "expectedDateTimeFormat or zone is set on field " + field.getSimpleName()
+                            + " that is not Instant";
+                }
+                continue;
+            }
+            // The reflective binding reports a malformed pattern or zone on the first load
+            try {
+                DateTimeFormatter.ofPattern(property.expectedDateTimeFormat());
+                ZoneId.of(property.zone());
+            } catch (RuntimeException e) {
+                return "field " + field.getSimpleName() + " has " + e.getMessage();
+            }
+        }
+        return null;
+    }
+
+    private void writeBinder(TypeElement cls) throws IOException {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(cls);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(cls).toString();
+        String binderName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                .replace('$', '_') + "PropertiesBinder";
+        String className = cls.getQualifiedName().toString();
+
+        StringBuilder code = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            code.append("package ").append(packageName).append(";\n\n");
+        }
+        code.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(binderName)
+                .append(" implements org.example.task_two.PropertiesBinder<").append(className).append("> {\n\n");
+        // Formatters and zones of the Instant fields are created once, with the binder
+        boolean hasInstant = false;
+        for (VariableElement field : boundFields(cls)) {
+            if (isType(field.asType(), "java.time.Instant")) {
+                String name = field.getSimpleName().toString();
+                code.append("    private static final java.time.format.DateTimeFormatter ").append(name)
+                        .append("Format =\n            java.time.format.DateTimeFormatter.ofPattern(")
+                        .append(constant(datePattern(field))).append(");\n")
+                        .append("    private static final java.time.ZoneId ").append(name)
+                        .append("Zone = java.time.ZoneId.of(").append(constant(zone(field))).append(");\n");
+                hasInstant = true;
+            }
+        }
+        if (hasInstant) {
+            code.append("\n");
+        }
+        code.append("    @Override\n")
+                .append("    public ").append(className).append(" newInstance() {\n")
+                .append("        return new ").append(className).append("(")
+                .append(defaultArguments(bindingConstructor(cls))).append(");\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public void bind(").append(className).append(" target, java.util.Map<String, String> properties,\n")
+                .append("                     java.nio.file.Path propertiesPath) {\n")
+                .append("        String value;\n");
+        for (VariableElement field : boundFields(cls)) {
+            appendField(code, className, field);
+        }
+        code.append("    }\n")
+                .append("}\n");
+
+        String qualifiedBinderName = packageName.isEmpty() ? binderName : packageName + "." + binderName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedBinderName, cls).openWriter()) {
+            writer.write(code.toString());
+        }
+    }
+
+    private void appendField(StringBuilder code, String className, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String key = name;
+        Property property = field.getAnnotation(Property.class);
+        if (property != null && !property.expectedPropertyName().isEmpty()) {
+            key = property.expectedPropertyName();
+        }
+        String nameLiteral = constant(name);
+        String conversion;
+        TypeMirror type = field.asType();
+        if (isType(type, "java.time.Instant")) {
+            conversion = VALUES + ".toInstant(value, " + name + "Format, " + name + "Zone, "
+                    + constant(datePattern(field)) + ", " + nameLiteral + ", propertiesPath)";
+        } else if (isEnum(type)) {
+            conversion = VALUES + ".toEnum(value, " + processingEnv.getTypeUtils().erasure(type) + ".class, "
+                    + nameLiteral + ", propertiesPath)";
+        } else {
+            conversion = VALUES + "." + converterMethod(type) + "(value, " + nameLiteral + ", propertiesPath)";
+        }
+        String target = field.getModifiers().contains(Modifier.STATIC) ? className : "target";
+        code.append("        value = properties.get(")
+                .append(constant(key)).append(");\n")
+                .append("        if (value != null) {\n")
+                .append("            ").append(target).append('.').append(name).append(" = ").append(conversion).append(";\n")
+                .append("        }\n");
+    }
+
+    private static String datePattern(VariableElement field) {
+        Property property = field.getAnnotation(Property.class);
+        return property == null ? DEFAULT_DATE_TIME_PATTERN : property.expectedDateTimeFormat();
+    }
+
+    private static String zone(VariableElement field) {
+        Property property = field.getAnnotation(Property.class);
+        return property == null ? DEFAULT_ZONE : property.zone();
+    }
+
+    private String constant(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    /**
+     * Same defaults as the reflective binding: 0 for numbers, false, ' ' and null.
+     */
+    private String defaultArguments(ExecutableElement constructor) {
+        List<String> arguments = new ArrayList<>();
+        for (VariableElement parameter : constructor.getParameters()) {
+            TypeMirror type = parameter.asType();
+            switch (type.getKind()) {
+                case BOOLEAN:
+                    arguments.add("false");
+                    break;
+                case CHAR:
+                    arguments.add("' '");
+                    break;
+                case INT:
+                case LONG:
+                case FLOAT:
+                case DOUBLE:
+                    arguments.add("0");
+                    break;
+                default:
+                    // Cast, so that a null picks the same constructor among overloads
+                    arguments.add("(" + processingEnv.getTypeUtils().erasure(type) + ") null");
+            }
+        }
+        return String.join(", ", arguments);
+    }
+
+    /**
+     * Fields of the types the reflective binding fills, in the order of declaration.
+     */
+    private List<VariableElement> boundFields(TypeElement cls) {
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(cls.getEnclosedElements())) {
+            TypeMirror type = field.asType();
+            if (isType(type, "java.time.Instant") || isEnum(type) || converterMethod(type) != null) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * @return the PropertyValues method converting to the type, null if the type is not
+     * supported (Instant and enums are converted by methods with more arguments)
+     */
+    private String converterMethod(TypeMirror type) {
+        switch (type.getKind()) {
+            case INT:
+                return "toInt";
+            case LONG:
+                return "toLong";
+            case DOUBLE:
+                return "toDouble";
+            case BOOLEAN:
+                return "toBoolean";
+            default:
+                break;
+        }
+        if (isType(type, "java.lang.String")) {
+            return "toStringValue";
+        } else if (isType(type, "java.lang.Integer")) {
+            return "toInteger";
+        } else if (isType(type, "java.lang.Long")) {
+            return "toLong";
+        } else if (isType(type, "java.lang.Double")) {
+            return "toDouble";
+        } else if (isType(type, "java.lang.Boolean")) {
+            return "toBoolean";
+        } else if (isType(type, "java.time.Duration")) {
+            return "toDuration";
+        } else if (isType(type, "java.time.LocalDate")) {
+            return "toLocalDate";
+        }
+        return null;
+    }
+
+    private boolean isEnum(TypeMirror type) {
+        Element element = processingEnv.getTypeUtils().asElement(type);
+        return element != null && element.getKind() == ElementKind.ENUM;
+    }
+
+    private static List<ExecutableElement> publicConstructors(TypeElement cls) {
+        List<ExecutableElement> constructors = new ArrayList<>();
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(cls.getEnclosedElements())) {
+            if (constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                constructors.add(constructor);
+            }
+        }
+        return constructors;
+    }
+
+    /**
+     * Same rule as the reflective binding (see {@code BindingPlan}): the public constructor
+     * without arguments, or the only public constructor if there is none.
+     * @param cls class to bind
+     * @return the constructor, null if there is no public one or the choice is ambiguous
+     */
+    private static ExecutableElement bindingConstructor(TypeElement cls) {
+        List<ExecutableElement> constructors = publicConstructors(cls);
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty()) {
+                return constructor;
+            }
+        }
+        return constructors.size() == 1 ? constructors.get(0) : null;
+    }
+
+    private boolean isType(TypeMirror type, String qualifiedName) {
+        TypeElement element = processingEnv.getElementUtils().getTypeElement(qualifiedName);
+        return element != null && processingEnv.getTypeUtils().isSameType(type, element.asType());
+    }
+}
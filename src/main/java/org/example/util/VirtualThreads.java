@@ -0,0 +1,58 @@
+package org.example.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors that start a thread per task, for I/O-heavy work where a fixed pool
+ * would sit blocked on the storage. The project targets Java 17, so the
+ * virtual-thread executor of Java 21+ is looked up at runtime; on older
+ * runtimes a cached pool of daemon platform threads is used instead.
+ */
+public final class VirtualThreads {
+
+    // Executors.newVirtualThreadPerTaskExecutor(), null before Java 21
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findFactory();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the runtime has virtual threads
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * The caller owns the returned executor and has to shut it down.
+     * @return executor starting a virtual thread per task, or a cached pool
+     * of daemon threads if the runtime has no virtual threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot create virtual thread executor", e);
+            }
+        }
+        return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static MethodHandle findFactory() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,681 @@
+import org.example.task_one.DistinctDrivers;
+import org.example.task_one.DriverTotal;
+import org.example.task_one.DriverTotals;
+import org.example.task_one.FineDistribution;
+import org.example.task_one.FineSummary;
+import org.example.task_one.InputMode;
+import org.example.task_one.JsonDecoder;
+import org.example.task_one.MonthlyTotals;
+import org.example.task_one.StatsOptions;
+import org.example.task_one.TaskOne;
+import org.example.task_one.ViolationCorpusGenerator;
+import org.example.task_one.ViolationStats;
+import org.example.task_one.ViolationStore;
+import org.example.task_one.ViolationTotals;
+import org.example.task_one.ViolationType;
+import org.example.task_one.json_map_converter.Output;
+import org.example.task_one.json_map_converter.OutputFormat;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskOneTests {
+
+    private static final List<File> SAMPLE_FILES = List.of(
+            new File("src/test/resources/moving_violations/violations_2021.json"),
+            new File("src/test/resources/moving_violations/violations_2022.json"));
+
+    @Test
+    void shouldReturnSameTotals_whenTokenStreamAndDatabindDecodersUsed() {
+        // given
+        StatsOptions databind = new StatsOptions().setDecoder(JsonDecoder.DATABIND);
+        StatsOptions tokenStream = new StatsOptions().setDecoder(JsonDecoder.TOKEN_STREAM);
+
+        // when
+        ViolationTotals expected = TaskOne.getViolationTotals(SAMPLE_FILES, databind);
+        ViolationTotals result = TaskOne.getViolationTotals(SAMPLE_FILES, tokenStream);
+
+        // then
+        assertFalse(expected.toMap().isEmpty());
+        // BigDecimal equals() compares the scale as well
+        assertEquals(expected.toMap(), result.toMap());
+        for (ViolationType type : ViolationType.values()) {
+            assertEquals(expected.getCount(type), result.getCount(type));
+        }
+    }
+
+    @Test
+    void shouldIgnoreDateTime_whenNotBucketedByTime_inBothDecoders(@TempDir Path dir) throws IOException {
+        // given
+        Path file = dir.resolve("violations.json");
+        Files.writeString(file, "[{\"date_time\": \"17.12.2021\", \"type\": \"SPEEDING\", \"fine_amount\": 100.00}]");
+        List<File> files = List.of(file.toFile());
+
+        for (JsonDecoder decoder : JsonDecoder.values()) {
+            // when
+            ViolationStats totalsOnly = TaskOne.getViolationStats(files, new StatsOptions().setDecoder(decoder));
+            ViolationStats bucketed = TaskOne.getViolationStats(files,
+                    new StatsOptions().setDecoder(decoder).setTimeBuckets(true));
+
+            // then
+            assertTrue(totalsOnly.isComplete(), decoder.name());
+            assertEquals(Map.of(ViolationType.SPEEDING, new BigDecimal("100.00")), totalsOnly.getTotals().toMap());
+            assertFalse(bucketed.isComplete(), decoder.name());
+        }
+    }
+
+    @Test
+    void shouldReturnSameTotals_whenFilesSplitIntoChunks() {
+        // given
+        StatsOptions wholeFiles = new StatsOptions().setChunkSize(Long.MAX_VALUE);
+        // A few elements per chunk
+        StatsOptions smallChunks = new StatsOptions().setChunkSize(512);
+
+        // when
+        ViolationTotals expected = TaskOne.getViolationTotals(SAMPLE_FILES, wholeFiles);
+        ViolationTotals result = TaskOne.getViolationTotals(SAMPLE_FILES, smallChunks);
+
+        // then
+        assertEquals(expected.toMap(), result.toMap());
+        for (ViolationType type : ViolationType.values()) {
+            assertEquals(expected.getCount(type), result.getCount(type));
+        }
+    }
+
+    @Test
+    void shouldMarkStatsIncomplete_whenChunkedArrayHasElementOtherThanObject(@TempDir Path dir) throws IOException {
+        // given
+        String element = "{\"date_time\": \"2021-17-12 22:26:43\", \"first_name\": \"Ivan\", "
+                + "\"last_name\": \"Moroz\", \"type\": \"SPEEDING\", \"fine_amount\": 100.00}";
+        Path file = dir.resolve("violations.json");
+        Files.writeString(file, "[1, " + element + ", " + element + "]");
+        List<File> files = List.of(file.toFile());
+
+        // when
+        ViolationStats whole = TaskOne.getViolationStats(files, new StatsOptions());
+        ViolationStats chunked = TaskOne.getViolationStats(files, new StatsOptions().setChunkSize(64));
+        ViolationStats mappedChunks = TaskOne.getViolationStats(files,
+                new StatsOptions().setChunkSize(64).setInputMode(InputMode.MEMORY_MAPPED));
+
+        // then
+        assertFalse(whole.isComplete());
+        assertFalse(chunked.isComplete());
+        assertFalse(mappedChunks.isComplete());
+    }
+
+    @Test
+    void shouldReturnSameTotals_whenFilesMemoryMapped() {
+        // given
+        StatsOptions stream = new StatsOptions().setInputMode(InputMode.STREAM);
+        StatsOptions mapped = new StatsOptions().setInputMode(InputMode.MEMORY_MAPPED);
+        StatsOptions mappedChunks = new StatsOptions().setInputMode(InputMode.MEMORY_MAPPED).setChunkSize(512);
+
+        // when
+        ViolationTotals expected = TaskOne.getViolationTotals(SAMPLE_FILES, stream);
+        ViolationTotals result = TaskOne.getViolationTotals(SAMPLE_FILES, mapped);
+        ViolationTotals resultOfChunks = TaskOne.getViolationTotals(SAMPLE_FILES, mappedChunks);
+
+        // then
+        assertEquals(expected.toMap(), result.toMap());
+        assertEquals(expected.toMap(), resultOfChunks.toMap());
+    }
+
+    @Test
+    void shouldNotShutDownCallerExecutor_whenCalledRepeatedly() {
+        // given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        StatsOptions callerExecutor = new StatsOptions().setExecutor(executor);
+        StatsOptions virtualThreads = new StatsOptions().setVirtualThreads(true);
+
+        // when
+        ViolationTotals first = TaskOne.getViolationTotals(SAMPLE_FILES, callerExecutor);
+        ViolationTotals second = TaskOne.getViolationTotals(SAMPLE_FILES, callerExecutor);
+        ViolationTotals third = TaskOne.getViolationTotals(SAMPLE_FILES, virtualThreads);
+
+        // then
+        assertFalse(executor.isShutdown());
+        assertEquals(first.toMap(), second.toMap());
+        assertEquals(first.toMap(), third.toMap());
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldReuseCachedStats_whenFileUnchanged_andReparse_whenContentChanged(@TempDir Path dir)
+            throws IOException {
+        // given
+        Path copy = dir.resolve("violations_2021.json");
+        Files.copy(SAMPLE_FILES.get(0).toPath(), copy);
+        List<File> files = List.of(copy.toFile());
+        StatsOptions options = new StatsOptions().setCacheFile(dir.resolve("stats.cache"));
+        ViolationTotals expected = TaskOne.getViolationTotals(files, options);
+        long lastModified = copy.toFile().lastModified();
+
+        // when
+        // Same size and time, so the cached stats are used without reading the file
+        Files.writeString(copy, " ".repeat((int) Files.size(copy)));
+        copy.toFile().setLastModified(lastModified);
+        ViolationTotals cached = TaskOne.getViolationTotals(files, options);
+        // Another content with another time
+        Files.copy(SAMPLE_FILES.get(1).toPath(), copy, StandardCopyOption.REPLACE_EXISTING);
+        ViolationTotals reparsed = TaskOne.getViolationTotals(files, options);
+
+        // then
+        assertEquals(expected.toMap(), cached.toMap());
+        assertEquals(TaskOne.getViolationTotals(List.of(SAMPLE_FILES.get(1)), new StatsOptions()).toMap(),
+                reparsed.toMap());
+    }
+
+    @Test
+    void shouldNotCacheStats_whenFileChangedWhileParsed(@TempDir Path dir) throws IOException {
+        // given
+        String element = "{\"date_time\": \"2021-17-12 22:26:43\", \"first_name\": \"Ivan\", "
+                + "\"last_name\": \"Moroz\", \"type\": \"SPEEDING\", \"fine_amount\": %s}";
+        Path file = dir.resolve("violations.json");
+        Files.writeString(file, "[" + String.format(element, "100.00") + ","
+                + String.format(element, "200.00") + "]");
+        List<File> files = List.of(file.toFile());
+        long lastModified = file.toFile().lastModified();
+        // Runs the tasks in the calling thread: the lookup and split, then one task per element.
+        // The first element is changed after it is parsed, before the second one is
+        int[] tasks = {0};
+        Executor changingExecutor = task -> {
+            if (++tasks[0] == 3) {
+                try {
+                    Files.writeString(file, Files.readString(file).replace("100.00", "900.00"));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                file.toFile().setLastModified(lastModified + 10_000);
+            }
+            task.run();
+        };
+        Path cacheFile = dir.resolve("stats.cache");
+
+        // when
+        ViolationTotals changing = TaskOne.getViolationTotals(files,
+                new StatsOptions().setChunkSize(64).setExecutor(changingExecutor).setCacheFile(cacheFile));
+        ViolationTotals rerun = TaskOne.getViolationTotals(files, new StatsOptions().setCacheFile(cacheFile));
+
+        // then
+        assertEquals(Map.of(ViolationType.SPEEDING, new BigDecimal("300.00")), changing.toMap());
+        assertEquals(Map.of(ViolationType.SPEEDING, new BigDecimal("1100.00")), rerun.toMap());
+    }
+
+    @Test
+    void shouldWriteSameElements_whenOutputPrettyOrCompact(@TempDir Path dir) throws IOException {
+        // given
+        File pretty = dir.resolve("pretty.xml").toFile();
+        File compact = dir.resolve("compact.xml").toFile();
+
+        // when
+        TaskOne.overallViolationsStats(SAMPLE_FILES, new StatsOptions().setOutputFile(pretty));
+        TaskOne.overallViolationsStats(SAMPLE_FILES, new StatsOptions().setOutputFile(compact).setPrettyPrint(false));
+
+        // then
+        String prettyXml = Files.readString(pretty.toPath()).strip();
+        String compactXml = Files.readString(compact.toPath()).strip();
+        assertTrue(prettyXml.contains("\n  <mv name=\""));
+        assertFalse(compactXml.contains("\n  <mv"));
+        assertEquals(prettyXml.replaceAll(">\\s+<", "><"), compactXml.replaceAll(">\\s+<", "><"));
+    }
+
+    @Test
+    void shouldWriteSameTotals_whenOutputInJsonCsvOrBinary(@TempDir Path dir) throws IOException {
+        // given
+        Map<ViolationType, BigDecimal> expected = TaskOne.getViolationTotals(SAMPLE_FILES, new StatsOptions()).toMap();
+        File json = dir.resolve("output.json").toFile();
+        File csv = dir.resolve("output.csv").toFile();
+        File binary = dir.resolve("output.bin").toFile();
+
+        // when
+        TaskOne.overallViolationsStats(SAMPLE_FILES,
+                new StatsOptions().setOutputFormat(OutputFormat.JSON).setOutputFile(json).setPrettyPrint(false));
+        TaskOne.overallViolationsStats(SAMPLE_FILES, new StatsOptions().setOutputFormat(OutputFormat.CSV).setOutputFile(csv));
+        TaskOne.overallViolationsStats(SAMPLE_FILES,
+                new StatsOptions().setOutputFormat(OutputFormat.BINARY).setOutputFile(binary));
+
+        // then
+        Map<ViolationType, BigDecimal> fromJson = new ObjectMapper()
+                .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .readValue(json, new TypeReference<EnumMap<ViolationType, BigDecimal>>() {});
+        assertEquals(expected, fromJson);
+
+        List<String> lines = Files.readAllLines(csv.toPath());
+        assertEquals("type,total_fine_amount", lines.get(0));
+        Map<ViolationType, BigDecimal> fromCsv = new EnumMap<>(ViolationType.class);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = line.split(",");
+            fromCsv.put(ViolationType.valueOf(columns[0]), new BigDecimal(columns[1]));
+        }
+        assertEquals(expected, fromCsv);
+
+        Map<ViolationType, BigDecimal> fromBinary = new EnumMap<>(ViolationType.class);
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(binary.toPath()))) {
+            assertEquals(OutputFormat.BINARY_MAGIC, in.readInt());
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                ViolationType type = ViolationType.values()[in.readByte()];
+                int scale = in.readInt();
+                fromBinary.put(type, new BigDecimal(BigInteger.valueOf(in.readLong()), scale));
+            }
+            assertEquals(-1, in.read());
+        }
+        assertEquals(expected, fromBinary);
+    }
+
+    @Test
+    void shouldLeaveStreamOpen_whenSeveralFormatsWrittenIntoIt() throws IOException {
+        // given
+        Output output = new Output();
+        output.setEntry(TaskOne.getViolationTotals(SAMPLE_FILES, new StatsOptions()).toMap());
+        boolean[] closed = {false};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = new FilterOutputStream(bytes) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        // when
+        OutputFormat.XML.write(output, out, false);
+        int xmlLength = bytes.size();
+        OutputFormat.JSON.write(output, out, false);
+
+        // then
+        assertFalse(closed[0]);
+        String written = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(written.substring(0, xmlLength).endsWith("</moving_violations>"));
+        Map<ViolationType, BigDecimal> fromJson = new ObjectMapper()
+                .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .readValue(written.substring(xmlLength), new TypeReference<EnumMap<ViolationType, BigDecimal>>() {});
+        assertEquals(output.getEntry(), fromJson);
+    }
+
+    @Test
+    void shouldAnswerQueriesAsParsedJson_whenViolationsLoadedIntoStore() throws IOException {
+        // given
+        ObjectMapper mapper = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        DateTimeFormatter dateTime = DateTimeFormatter.ofPattern("yyyy-dd-MM HH:mm:ss");
+        LocalDate from = LocalDate.of(2021, 6, 1);
+        LocalDate to = LocalDate.of(2022, 6, 30);
+        BigDecimal minFine = new BigDecimal("1000");
+        Map<YearMonth, Map<ViolationType, BigDecimal>> expected = new TreeMap<>();
+        int rows = 0;
+        for (File file : SAMPLE_FILES) {
+            for (Map<String, Object> row : mapper.readValue(file, new TypeReference<List<Map<String, Object>>>() {})) {
+                rows++;
+                ViolationType type = ViolationType.valueOf((String) row.get("type"));
+                BigDecimal fine = new BigDecimal(row.get("fine_amount").toString());
+                LocalDate date = LocalDateTime.parse((String) row.get("date_time"), dateTime).toLocalDate();
+                if ((type == ViolationType.SPEEDING || type == ViolationType.STREET_RACING)
+                        && fine.compareTo(minFine) >= 0 && !date.isBefore(from) && !date.isAfter(to)) {
+                    expected.computeIfAbsent(YearMonth.from(date), month -> new EnumMap<>(ViolationType.class))
+                            .merge(type, fine, BigDecimal::add);
+                }
+            }
+        }
+
+        // when
+        // A few elements per chunk, so there are many segments
+        ViolationStore store = TaskOne.loadViolationStore(SAMPLE_FILES, new StatsOptions().setChunkSize(512));
+        Map<YearMonth, ViolationTotals> byMonth = store.query()
+                .types(ViolationType.SPEEDING, ViolationType.STREET_RACING)
+                .fines(minFine, null)
+                .dates(from, to)
+                .totalsByMonth();
+
+        // then
+        assertTrue(store.isComplete());
+        assertEquals(rows, store.size());
+        assertEquals(rows, store.query().count());
+        // Totals of the store have the scale of all the fines of a segment, so only values are compared
+        assertEquals(stripZeros(TaskOne.getViolationTotals(SAMPLE_FILES, new StatsOptions()).toMap()),
+                stripZeros(store.query().totalsByType().toMap()));
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.keySet(), byMonth.keySet());
+        expected.forEach((month, totals) -> assertEquals(stripZeros(totals), stripZeros(byMonth.get(month).toMap())));
+    }
+
+    @Test
+    void shouldKeepAllViolations_whenStoredFineOverflowsLongAtSegmentScale(@TempDir Path dir) throws IOException {
+        // given
+        // 5000000000.00 at the 10 decimals of 0.0000000001 overflows long, and so does 1E+30 at any scale
+        String element = "{\"date_time\": \"2021-%s 22:26:43\", \"first_name\": \"Ivan\", "
+                + "\"last_name\": \"Moroz\", \"type\": \"%s\", \"fine_amount\": %s}";
+        Path file = dir.resolve("violations.json");
+        Files.writeString(file, "[" + String.format(element, "17-12", "SPEEDING", "5000000000.00") + ","
+                + String.format(element, "17-12", "SPEEDING", "0.0000000001") + ","
+                + String.format(element, "18-11", "SPEEDING", "1E+30") + ","
+                + String.format(element, "18-11", "ACDA", "4000000000.50") + ","
+                + String.format(element, "18-11", "ACDA", "2.5") + "]");
+        List<File> files = List.of(file.toFile());
+
+        // when
+        ViolationStore store = TaskOne.loadViolationStore(files, new StatsOptions());
+        ViolationTotals big = store.query().fines(new BigDecimal("1E+29"), null).totalsByType();
+        SortedMap<YearMonth, ViolationTotals> byMonth = store.query().types(ViolationType.SPEEDING).totalsByMonth();
+
+        // then
+        assertTrue(store.isComplete());
+        assertEquals(5, store.size());
+        assertEquals(stripZeros(TaskOne.getViolationTotals(files, new StatsOptions()).toMap()),
+                stripZeros(store.query().totalsByType().toMap()));
+        assertEquals(Map.of(ViolationType.SPEEDING, new BigDecimal("1E+30")), stripZeros(big.toMap()));
+        assertEquals(List.of(YearMonth.of(2021, 11), YearMonth.of(2021, 12)), List.copyOf(byMonth.keySet()));
+        assertEquals(0, new BigDecimal("1E+30")
+                .compareTo(byMonth.get(YearMonth.of(2021, 11)).getTotal(ViolationType.SPEEDING)));
+        assertEquals(2, byMonth.get(YearMonth.of(2021, 12)).getCount(ViolationType.SPEEDING));
+    }
+
+    @Test
+    void shouldTotalEachYearAndMonth_whenTimeBucketsEnabled(@TempDir Path dir) throws IOException {
+        // given
+        ObjectMapper mapper = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        DateTimeFormatter dateTime = DateTimeFormatter.ofPattern("yyyy-dd-MM HH:mm:ss");
+        Map<YearMonth, Map<ViolationType, BigDecimal>> expected = new TreeMap<>();
+        for (File file : SAMPLE_FILES) {
+            for (Map<String, Object> row : mapper.readValue(file, new TypeReference<List<Map<String, Object>>>() {})) {
+                YearMonth month = YearMonth.from(LocalDateTime.parse((String) row.get("date_time"), dateTime));
+                expected.computeIfAbsent(month, key -> new EnumMap<>(ViolationType.class))
+                        .merge(ViolationType.valueOf((String) row.get("type")),
+                                new BigDecimal(row.get("fine_amount").toString()), BigDecimal::add);
+            }
+        }
+        File output = dir.resolve("output_2.xml").toFile();
+        StatsOptions cached = new StatsOptions().setCacheFile(dir.resolve("stats.cache"));
+
+        // when
+        // Stats cached without the buckets are not used by a run that needs them
+        TaskOne.getViolationStats(SAMPLE_FILES, cached);
+        ViolationStats tokenStream = TaskOne.getViolationStats(SAMPLE_FILES, cached.setTimeBuckets(true));
+        ViolationStats databind = TaskOne.getViolationStats(SAMPLE_FILES,
+                new StatsOptions().setTimeBuckets(true).setDecoder(JsonDecoder.DATABIND).setChunkSize(512));
+        TaskOne.overallViolationsStats(SAMPLE_FILES, new StatsOptions().setTimeBuckets(true).setOutputFile(output));
+
+        // then
+        assertNull(TaskOne.getViolationStats(SAMPLE_FILES, new StatsOptions()).getMonthlyTotals());
+        for (ViolationStats stats : List.of(tokenStream, databind)) {
+            MonthlyTotals monthlyTotals = stats.getMonthlyTotals();
+            assertNotNull(monthlyTotals);
+            assertEquals(expected.keySet(), monthlyTotals.byMonth().keySet());
+            expected.forEach((month, totals) ->
+                    assertEquals(stripZeros(totals), stripZeros(monthlyTotals.byMonth().get(month).toMap())));
+            ViolationTotals allYears = new ViolationTotals();
+            monthlyTotals.byYear().values().forEach(allYears::merge);
+            assertEquals(List.of(2021, 2022), List.copyOf(monthlyTotals.byYear().keySet()));
+            assertEquals(stats.getTotals().toMap(), allYears.toMap());
+        }
+        String xml = Files.readString(output.toPath());
+        YearMonth firstMonth = expected.keySet().iterator().next();
+        assertTrue(xml.contains("<year value=\"2021\">"));
+        assertTrue(xml.contains("<month value=\"" + firstMonth + "\">"));
+        // Overall totals first, then the years and the months
+        assertTrue(xml.indexOf("<mv name=") < xml.indexOf("<years>"));
+        assertTrue(xml.indexOf("</years>") < xml.indexOf("<months>"));
+    }
+
+    @Test
+    void shouldPickTopDriversAsParsedJson_whenTopDriversEnabled(@TempDir Path dir) throws IOException {
+        // given
+        // More drivers than the initial slots of the table, so it grows
+        List<File> files = ViolationCorpusGenerator.generate(dir.resolve("corpus"), 2, 20000, 7);
+        ObjectMapper mapper = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        Map<List<String>, long[]> counts = new HashMap<>();
+        Map<List<String>, BigDecimal> fines = new HashMap<>();
+        for (File file : files) {
+            for (Map<String, Object> row : mapper.readValue(file, new TypeReference<List<Map<String, Object>>>() {})) {
+                List<String> driver = List.of((String) row.get("first_name"), (String) row.get("last_name"));
+                counts.computeIfAbsent(driver, key -> new long[1])[0]++;
+                fines.merge(driver, new BigDecimal(row.get("fine_amount").toString()), BigDecimal::add);
+            }
+        }
+        Comparator<List<String>> byName = Comparator.<List<String>, String>comparing(driver -> driver.get(0))
+                .thenComparing(driver -> driver.get(1));
+        Comparator<List<String>> byFine = Comparator.<List<String>, BigDecimal>comparing(fines::get).reversed()
+                .thenComparing(Comparator.<List<String>>comparingLong(driver -> counts.get(driver)[0]).reversed())
+                .thenComparing(byName);
+        Comparator<List<String>> byCount = Comparator.<List<String>>comparingLong(driver -> counts.get(driver)[0])
+                .reversed()
+                .thenComparing(Comparator.<List<String>, BigDecimal>comparing(fines::get).reversed())
+                .thenComparing(byName);
+        List<List<String>> expectedByFine = counts.keySet().stream().sorted(byFine).limit(20).toList();
+        List<List<String>> expectedByCount = counts.keySet().stream().sorted(byCount).limit(20).toList();
+        File output = dir.resolve("output_2.xml").toFile();
+        StatsOptions cached = new StatsOptions().setTopDrivers(20).setCacheFile(dir.resolve("stats.cache"));
+
+        // when
+        DriverTotals tokenStream = TaskOne.getViolationStats(files,
+                new StatsOptions().setTopDrivers(20).setChunkSize(64 * 1024)).getDriverTotals();
+        DriverTotals databind = TaskOne.getViolationStats(files,
+                new StatsOptions().setTopDrivers(20).setDecoder(JsonDecoder.DATABIND)).getDriverTotals();
+        TaskOne.getViolationStats(files, cached);
+        DriverTotals fromCache = TaskOne.getViolationStats(files, cached).getDriverTotals();
+        TaskOne.overallViolationsStats(files, new StatsOptions().setTopDrivers(20).setOutputFile(output));
+
+        // then
+        assertNull(TaskOne.getViolationStats(files, new StatsOptions()).getDriverTotals());
+        for (DriverTotals drivers : List.of(tokenStream, databind, fromCache)) {
+            assertEquals(counts.size(), drivers.size());
+            assertDrivers(expectedByFine, counts, fines, drivers.topByFineTotal(20));
+            assertDrivers(expectedByCount, counts, fines, drivers.topByCount(20));
+        }
+        assertEquals(List.of(), tokenStream.topByCount(0));
+        String xml = Files.readString(output.toPath());
+        DriverTotal first = tokenStream.topByFineTotal(1).get(0);
+        assertTrue(xml.contains("<top_drivers_by_fine>\n    <driver first_name=\"" + first.getFirstName()
+                + "\" last_name=\"" + first.getLastName() + "\" count=\"" + first.getCount() + "\">"
+                + first.getFineTotal() + "</driver>"));
+        assertTrue(xml.indexOf("</top_drivers_by_fine>") < xml.indexOf("<top_drivers_by_count>"));
+    }
+
+    @Test
+    void shouldSummarizeFinesWithinBucketError_whenFineDistributionEnabled(@TempDir Path dir) throws IOException {
+        // given
+        List<File> files = ViolationCorpusGenerator.generate(dir.resolve("corpus"), 2, 20000, 11);
+        ObjectMapper mapper = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        Map<ViolationType, List<BigDecimal>> amounts = new EnumMap<>(ViolationType.class);
+        for (File file : files) {
+            for (Map<String, Object> row : mapper.readValue(file, new TypeReference<List<Map<String, Object>>>() {})) {
+                amounts.computeIfAbsent(ViolationType.valueOf((String) row.get("type")), key -> new ArrayList<>())
+                        .add(new BigDecimal(row.get("fine_amount").toString()));
+            }
+        }
+        amounts.values().forEach(Collections::sort);
+        File output = dir.resolve("output_2.xml").toFile();
+        StatsOptions cached = new StatsOptions().setFineDistribution(true).setCacheFile(dir.resolve("stats.cache"));
+
+        // when
+        // Per-chunk partials are merged, as are the files
+        ViolationStats tokenStream = TaskOne.getViolationStats(files,
+                new StatsOptions().setFineDistribution(true).setChunkSize(64 * 1024));
+        ViolationStats databind = TaskOne.getViolationStats(files,
+                new StatsOptions().setFineDistribution(true).setDecoder(JsonDecoder.DATABIND));
+        TaskOne.getViolationStats(files, cached);
+        ViolationStats fromCache = TaskOne.getViolationStats(files, cached);
+        TaskOne.overallViolationsStats(files, new StatsOptions().setFineDistribution(true).setOutputFile(output));
+
+        // then
+        assertNull(TaskOne.getViolationStats(files, new StatsOptions()).getFineDistribution());
+        for (ViolationStats stats : List.of(tokenStream, databind, fromCache)) {
+            FineDistribution distribution = stats.getFineDistribution();
+            assertNotNull(distribution);
+            Map<ViolationType, FineSummary> summaries = distribution.summarize(stats.getTotals());
+            assertEquals(amounts.keySet(), summaries.keySet());
+            amounts.forEach((type, sorted) -> {
+                FineSummary summary = summaries.get(type);
+                BigDecimal total = sorted.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+                assertEquals(sorted.size(), summary.getCount());
+                assertEquals(0, sorted.get(0).compareTo(summary.getMin()));
+                assertEquals(0, sorted.get(sorted.size() - 1).compareTo(summary.getMax()));
+                assertEquals(total.divide(BigDecimal.valueOf(sorted.size()), 2, RoundingMode.HALF_UP),
+                        summary.getMean());
+                assertPercentile(sorted, 50, summary.getP50());
+                assertPercentile(sorted, 90, summary.getP90());
+                assertPercentile(sorted, 99, summary.getP99());
+            });
+        }
+        String xml = Files.readString(output.toPath());
+        ViolationType type = amounts.keySet().iterator().next();
+        FineSummary summary = tokenStream.getFineDistribution().summarize(tokenStream.getTotals()).get(type);
+        assertTrue(xml.contains("<mv name=\"" + type + "\" count=\"" + summary.getCount() + "\" min=\""
+                + summary.getMin() + "\" max=\"" + summary.getMax() + "\" mean=\"" + summary.getMean()
+                + "\" p50=\"" + summary.getP50() + "\" p90=\"" + summary.getP90() + "\" p99=\""
+                + summary.getP99() + "\">"));
+    }
+
+    @Test
+    void shouldEstimateDistinctDriversWithinErrorBound_whenDistinctDriversEnabled(@TempDir Path dir)
+            throws IOException {
+        // given
+        List<File> files = ViolationCorpusGenerator.generate(dir.resolve("corpus"), 3, 20000, 13);
+        ObjectMapper mapper = new ObjectMapper();
+        Map<ViolationType, Set<List<String>>> drivers = new EnumMap<>(ViolationType.class);
+        for (File file : files) {
+            for (Map<String, Object> row : mapper.readValue(file, new TypeReference<List<Map<String, Object>>>() {})) {
+                drivers.computeIfAbsent(ViolationType.valueOf((String) row.get("type")), key -> new HashSet<>())
+                        .add(List.of((String) row.get("first_name"), (String) row.get("last_name")));
+            }
+        }
+        File output = dir.resolve("output_2.xml").toFile();
+        StatsOptions cached = new StatsOptions().setDistinctDrivers(DistinctDrivers.DEFAULT_PRECISION)
+                .setCacheFile(dir.resolve("stats.cache"));
+
+        // when
+        DistinctDrivers tokenStream = TaskOne.getViolationStats(files,
+                new StatsOptions().setDistinctDrivers(DistinctDrivers.DEFAULT_PRECISION).setChunkSize(64 * 1024))
+                .getDistinctDrivers();
+        DistinctDrivers databind = TaskOne.getViolationStats(files,
+                new StatsOptions().setDistinctDrivers(DistinctDrivers.DEFAULT_PRECISION)
+                        .setDecoder(JsonDecoder.DATABIND)).getDistinctDrivers();
+        TaskOne.getViolationStats(files, cached);
+        DistinctDrivers fromCache = TaskOne.getViolationStats(files, cached).getDistinctDrivers();
+        // Sketches cached with another precision are not used
+        DistinctDrivers precise = TaskOne.getViolationStats(files, cached.setDistinctDrivers(16)).getDistinctDrivers();
+        DistinctDrivers coarse = TaskOne.getViolationStats(files, cached.setDistinctDrivers(8)).getDistinctDrivers();
+        TaskOne.overallViolationsStats(files,
+                new StatsOptions().setDistinctDrivers(DistinctDrivers.DEFAULT_PRECISION).setOutputFile(output));
+
+        // then
+        assertNull(TaskOne.getViolationStats(files, new StatsOptions()).getDistinctDrivers());
+        assertThrows(IllegalArgumentException.class, () -> new StatsOptions().setDistinctDrivers(3));
+        assertEquals(tokenStream.estimates(), databind.estimates());
+        assertEquals(tokenStream.estimates(), fromCache.estimates());
+        assertEquals(16, precise.getPrecision());
+        assertEquals(8, coarse.getPrecision());
+        for (DistinctDrivers sketches : List.of(tokenStream, precise, coarse)) {
+            // 4 standard errors
+            double bound = 4 * 1.04 / Math.sqrt(1 << sketches.getPrecision());
+            assertEquals(drivers.keySet(), sketches.estimates().keySet());
+            drivers.forEach((type, exact) -> {
+                double error = Math.abs(sketches.estimate(type) - exact.size()) / (double) exact.size();
+                assertTrue(error <= bound, type + " estimated " + sketches.estimate(type) + " distinct drivers of "
+                        + exact.size() + " at precision " + sketches.getPrecision());
+            });
+        }
+        String xml = Files.readString(output.toPath());
+        ViolationType type = drivers.keySet().iterator().next();
+        assertTrue(xml.contains("<mv name=\"" + type + "\">" + tokenStream.estimate(type) + "</mv>"));
+        // Overall totals first, then the distinct drivers
+        assertTrue(xml.indexOf("<mv name=") < xml.indexOf("<distinct_drivers>"));
+    }
+
+    private static void assertPercentile(List<BigDecimal> sorted, int percentile, BigDecimal result) {
+        // Nearest rank, as the histogram counts it
+        BigDecimal exact = sorted.get((int) Math.ceil(percentile / 100.0 * sorted.size()) - 1);
+        BigDecimal error = exact.divide(BigDecimal.valueOf(128), 2, RoundingMode.UP);
+        assertTrue(exact.subtract(result).abs().compareTo(error) <= 0,
+                "p" + percentile + " " + result + " too far from " + exact);
+    }
+
+    @Test
+    void shouldFallBackToBigDecimal_whenDriverTotalOverflowsLongAtTableScale(@TempDir Path dir) throws IOException {
+        // given
+        // One amount with 10 decimals limits the long totals of the table to about 9.2E+8
+        String element = "{\"date_time\": \"2021-17-12 22:26:43\", \"first_name\": \"%s\", "
+                + "\"last_name\": \"Moroz\", \"type\": \"SPEEDING\", \"fine_amount\": %s}";
+        Path first = dir.resolve("first.json");
+        Path second = dir.resolve("second.json");
+        Files.writeString(first, "[" + String.format(element, "Ivan", "5000000000.00") + ","
+                + String.format(element, "Ivan", "0.0000000001") + ","
+                + String.format(element, "Olena", "1E+30") + "]");
+        Files.writeString(second, "[" + String.format(element, "Ivan", "4000000000.50") + ","
+                + String.format(element, "Petro", "0.0000000003") + ","
+                + String.format(element, "Olena", "2.5") + "]");
+        List<File> files = List.of(first.toFile(), second.toFile());
+        StatsOptions cached = new StatsOptions().setTopDrivers(3).setCacheFile(dir.resolve("stats.cache"));
+
+        // when
+        DriverTotals tokenStream = TaskOne.getViolationStats(files, new StatsOptions().setTopDrivers(3))
+                .getDriverTotals();
+        DriverTotals databind = TaskOne.getViolationStats(files,
+                new StatsOptions().setTopDrivers(3).setDecoder(JsonDecoder.DATABIND)).getDriverTotals();
+        TaskOne.getViolationStats(files, cached);
+        DriverTotals fromCache = TaskOne.getViolationStats(files, cached).getDriverTotals();
+
+        // then
+        for (DriverTotals drivers : List.of(tokenStream, databind, fromCache)) {
+            List<DriverTotal> top = drivers.topByFineTotal(3);
+            assertEquals(List.of("Olena", "Ivan", "Petro"), top.stream().map(DriverTotal::getFirstName).toList());
+            assertEquals(new BigDecimal("1000000000000000000000000000002.5000000000"), top.get(0).getFineTotal());
+            assertEquals(new BigDecimal("9000000000.5000000001"), top.get(1).getFineTotal());
+            assertEquals(new BigDecimal("0.0000000003"), top.get(2).getFineTotal());
+            assertEquals(3, top.get(1).getCount());
+        }
+    }
+
+    private static void assertDrivers(List<List<String>> expected, Map<List<String>, long[]> counts,
+                                      Map<List<String>, BigDecimal> fines, List<DriverTotal> result) {
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            List<String> driver = expected.get(i);
+            DriverTotal total = result.get(i);
+            assertEquals(driver, List.of(total.getFirstName(), total.getLastName()));
+            assertEquals(counts.get(driver)[0], total.getCount());
+            assertEquals(0, fines.get(driver).compareTo(total.getFineTotal()));
+        }
+    }
+
+    private static Map<ViolationType, BigDecimal> stripZeros(Map<ViolationType, BigDecimal> totals) {
+        Map<ViolationType, BigDecimal> stripped = new EnumMap<>(ViolationType.class);
+        totals.forEach((type, total) -> stripped.put(type, total.stripTrailingZeros()));
+        return stripped;
+    }
+}
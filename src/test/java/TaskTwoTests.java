@@ -1,11 +1,25 @@
 import exmaple_classes.*;
+import org.example.task_two.BindingRequest;
+import org.example.task_two.Bound;
+import org.example.task_two.BindingResult;
+import org.example.task_two.PropertiesBinder;
+import org.example.task_two.PropertiesFileCache;
 import org.example.task_two.TaskTwo;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +47,30 @@ public class TaskTwoTests {
         assertEquals(expected, result);
     }
 
+    @Test
+    void shouldBindOtherFields_whenClassHasStaticFinalFields(@TempDir Path dir) throws IOException {
+        // given
+        Path path = Path.of("src/test/resources/app.properties");
+        Path withConstant = dir.resolve("appWithConstant.properties");
+        Files.writeString(withConstant, "stringProperty=98kio98\nDEFAULT_STRING=changed\n");
+
+        // when
+        ExampleClassStaticFinal result = TaskTwo.loadFromProperties(ExampleClassStaticFinal.class, path);
+        IllegalStateException e = assertThrows(
+                IllegalStateException.class,
+                () -> TaskTwo.loadFromProperties(ExampleClassStaticFinal.class, withConstant),
+                "Expected loadFromProperties() to throw, but it didn't"
+        );
+
+        // then
+        assertEquals("98kio98", result.getStringProperty());
+        assertEquals(9, result.getNumberProperty());
+        assertEquals(LocalDateTime.parse("29.11.2022 18:30", DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"))
+                .toInstant(ZoneOffset.UTC), result.getTimeProperty());
+        assertTrue(e.getMessage().contains("DEFAULT_STRING"));
+        assertEquals("default", ExampleClassStaticFinal.DEFAULT_STRING);
+    }
+
     @Test
     void shouldThrowException_whenFileNotFound() {
         // given
@@ -67,6 +105,26 @@ public class TaskTwoTests {
         assertTrue(e.getMessage().contains("No public constructors "));
     }
 
+    @Test
+    void shouldThrowException_whenSeveralPublicConstructorsAndNoneWithoutArguments() {
+        // given
+        Class<ExampleClassSeveralConstr> cls = ExampleClassSeveralConstr.class;
+        Path path = Path.of("src/test/resources/appForAnnotation.properties");
+
+        // when
+        IllegalStateException e = assertThrows(
+                IllegalStateException.class,
+                () -> TaskTwo.loadFromProperties(cls, path),
+                "Expected loadFromProperties() to throw, but it didn't"
+        );
+
+        // then
+        assertTrue(e.getMessage().contains("Several public constructors "));
+        // The generated binders pick the constructor by the same rule, so none is generated
+        assertThrows(ClassNotFoundException.class,
+                () -> Class.forName("exmaple_classes.ExampleClassSeveralConstrPropertiesBinder"));
+    }
+
     @Test
     void shouldThrowException_whenNoAllowedFieldTypesPresent() {
         // given
@@ -247,4 +305,356 @@ public class TaskTwoTests {
         // Equals and hashcode overriden
         assertEquals(expected, result);
     }
+
+    @Test
+    void shouldReturnEqualNewObjects_whenClassLoadedRepeatedly() {
+        // given
+        Class<ExampleClassAnnotatedInstant> cls = ExampleClassAnnotatedInstant.class;
+        Path path = Path.of("src/test/resources/appDateTimeFormatChange.properties");
+        ExampleClassAnnotatedInstant first = TaskTwo.loadFromProperties(cls, path);
+
+        // when
+        // The binding plan of the class is reused
+        ExampleClassAnnotatedInstant second = TaskTwo.loadFromProperties(cls, path);
+
+        // then
+        assertNotSame(first, second);
+        assertEquals(first, second);
+        // A class that cannot be bound fails on every load
+        for (int i = 0; i < 2; i++) {
+            IllegalStateException e = assertThrows(
+                    IllegalStateException.class,
+                    () -> TaskTwo.loadFromProperties(ExampleClassNoPublicConstr.class, path));
+            assertTrue(e.getMessage().contains("No public constructors "));
+        }
+    }
+
+    @Test
+    void shouldReturnObject_whenClassHasGeneratedBinder() throws ClassNotFoundException {
+        // given
+        Class<ExampleClassGeneratedBinder> cls = ExampleClassGeneratedBinder.class;
+        Path path = Path.of("src/test/resources/appForAnnotation.properties");
+
+        // when
+        ExampleClassGeneratedBinder result = TaskTwo.loadFromProperties(cls, path);
+
+        // then
+        assertTrue(PropertiesBinder.class.isAssignableFrom(
+                Class.forName("exmaple_classes.ExampleClassGeneratedBinderPropertiesBinder")));
+        LocalDateTime dateTime = LocalDateTime
+                .parse("29.11.2022 18:30", DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"));
+        ExampleClassGeneratedBinder expected = new ExampleClassGeneratedBinder(
+                "98kio98",
+                9,
+                dateTime.toInstant(ZoneOffset.UTC));
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void shouldThrowSameException_whenGeneratedBinderParsingFails() {
+        // given
+        Class<ExampleClassGeneratedBinder> cls = ExampleClassGeneratedBinder.class;
+        Path path = Path.of("src/test/resources/appMalformedDateTimeFormat.properties");
+
+        // when
+        IllegalStateException e = assertThrows(
+                IllegalStateException.class,
+                () -> TaskTwo.loadFromProperties(cls, path),
+                "Expected loadFromProperties() to throw, but it didn't"
+        );
+
+        // then
+        assertTrue(e.getMessage().contains("cannot be parsed with pattern"));
+    }
+
+    @Test
+    void shouldReturnObject_whenFieldsOfExtendedTypes() {
+        // given
+        Class<ExampleClassExtendedTypes> cls = ExampleClassExtendedTypes.class;
+        Path path = Path.of("src/test/resources/appExtendedTypes.properties");
+
+        // when
+        ExampleClassExtendedTypes result = TaskTwo.loadFromProperties(cls, path);
+
+        // then
+        ExampleClassExtendedTypes expected = new ExampleClassExtendedTypes(
+                "a-b c",
+                -9_000_000_000L,
+                true,
+                2.5,
+                Duration.ofMinutes(15),
+                LocalDate.of(2022, 11, 29),
+                TimeUnit.HOURS);
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void shouldTrimValuesOfOtherTypesThanString_whenValuesHaveTrailingWhitespace(@TempDir Path dir)
+            throws IOException {
+        // given
+        Path extendedTypes = dir.resolve("appTrailingWhitespace.properties");
+        Files.writeString(extendedTypes, "stringProperty=a-b c \nlongProperty=-9000000000 \n"
+                + "booleanProperty=TRUE\t\ndoubleProperty=2.5 \ntimeout=PT15M \nday=2022-11-29 \nunit=HOURS \n");
+        Path generatedBinder = dir.resolve("appGeneratedTrailingWhitespace.properties");
+        Files.writeString(generatedBinder, "stringN=98kio98\nnumber=9 \ntimeProperty=29.11.2022 18:30 \n");
+
+        // when
+        ExampleClassExtendedTypes result = TaskTwo.loadFromProperties(ExampleClassExtendedTypes.class, extendedTypes);
+        ExampleClassGeneratedBinder generated =
+                TaskTwo.loadFromProperties(ExampleClassGeneratedBinder.class, generatedBinder);
+
+        // then
+        ExampleClassExtendedTypes expected = new ExampleClassExtendedTypes(
+                "a-b c ",
+                -9_000_000_000L,
+                true,
+                2.5,
+                Duration.ofMinutes(15),
+                LocalDate.of(2022, 11, 29),
+                TimeUnit.HOURS);
+        assertEquals(expected, result);
+        assertEquals(new ExampleClassGeneratedBinder("98kio98", 9,
+                LocalDateTime.parse("29.11.2022 18:30", DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"))
+                        .toInstant(ZoneOffset.UTC)), generated);
+    }
+
+    @Test
+    void shouldReturnObject_whenPropsFileUsesFullSyntax() {
+        // given
+        Class<ExampleClassExtendedTypes> cls = ExampleClassExtendedTypes.class;
+        // Comments, blank lines, ':' and whitespace separators, escapes, continued lines, CRLF
+        Path path = Path.of("src/test/resources/appFullSyntax.properties");
+
+        // when
+        ExampleClassExtendedTypes result = TaskTwo.loadFromProperties(cls, path);
+
+        // then
+        ExampleClassExtendedTypes expected = new ExampleClassExtendedTypes(
+                "a=b:c d\u00e9\tx",
+                -9_000_000_000L,
+                true,
+                2.5,
+                Duration.ofMinutes(15),
+                LocalDate.of(2022, 11, 29),
+                TimeUnit.HOURS);
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void shouldThrowException_whenUnicodeEscapeMalformed() {
+        // given
+        Class<ExampleClass> cls = ExampleClass.class;
+        Path path = Path.of("src/test/resources/appMalformedEscape.properties");
+
+        // when
+        IllegalStateException e = assertThrows(
+                IllegalStateException.class,
+                () -> TaskTwo.loadFromProperties(cls, path),
+                "Expected loadFromProperties() to throw, but it didn't"
+        );
+
+        // then
+        assertTrue(e.getMessage().contains("Illegal format of properties file line 2"));
+    }
+
+    @Test
+    void shouldReturnObject_whenAnnotationChangeZone() {
+        // given
+        Class<ExampleClassAnnotatedZone> cls = ExampleClassAnnotatedZone.class;
+        Path path = Path.of("src/test/resources/app.properties");
+
+        // when
+        ExampleClassAnnotatedZone result = TaskTwo.loadFromProperties(cls, path);
+
+        // then
+        // Kyiv is UTC+2 in November
+        LocalDateTime dateTime = LocalDateTime
+                .parse("29.11.2022 18:30", DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"));
+        ExampleClassAnnotatedZone expected = new ExampleClassAnnotatedZone(
+                "98kio98",
+                9,
+                dateTime.toInstant(ZoneOffset.ofHours(2)));
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void shouldThrowException_whenAnnotationDateTimeFormatMalformed_evenIfKeyMissing() {
+        // given
+        Class<ExampleClassMalformedPattern> cls = ExampleClassMalformedPattern.class;
+        // No timeProperty in the file
+        Path path = Path.of("src/test/resources/appExtendedTypes.properties");
+
+        // when
+        IllegalStateException e = assertThrows(
+                IllegalStateException.class,
+                () -> TaskTwo.loadFromProperties(cls, path),
+                "Expected loadFromProperties() to throw, but it didn't"
+        );
+
+        // then
+        assertTrue(e.getMessage().contains("Malformed date-time pattern"));
+    }
+
+    @Test
+    void shouldReportUnusedAndMissingKeys_whenLoadedWithReport() {
+        // given
+        Class<ExampleClassAnnotated> cls = ExampleClassAnnotated.class;
+        Path path = Path.of("src/test/resources/app.properties");
+
+        // when
+        BindingResult<ExampleClassAnnotated> result = TaskTwo.loadWithReport(cls, path);
+
+        // then
+        // Only timeProperty matches, the annotated fields look for stringN and number
+        LocalDateTime dateTime = LocalDateTime
+                .parse("29.11.2022 18:30", DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"));
+        // The object is created with the default constructor values
+        ExampleClassAnnotated expected = new ExampleClassAnnotated(
+                null,
+                0,
+                dateTime.toInstant(ZoneOffset.UTC));
+        assertEquals(expected, result.getObject());
+        assertEquals(List.of("stringProperty", "numberProperty"), List.copyOf(result.getUnusedKeys()));
+        assertEquals(List.of("stringN", "number"), List.copyOf(result.getMissingKeys()));
+    }
+
+    @Test
+    void shouldReadFileOnce_whenManyClassesLoadedFromSamePath() {
+        // given
+        Path path = Path.of("src/test/resources/app.properties");
+        PropertiesFileCache cache = TaskTwo.propertiesCache();
+        TaskTwo.loadFromProperties(ExampleClass.class, path);
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+
+        // when
+        // Same file by another path
+        TaskTwo.loadFromProperties(ExampleClassAnnotatedZone.class, path.toAbsolutePath());
+        TaskTwo.loadWithReport(ExampleClassAnnotated.class, Path.of("src/test/../test/resources/app.properties"));
+
+        // then
+        assertEquals(hits + 2, cache.getHits());
+        assertEquals(misses, cache.getMisses());
+    }
+
+    @Test
+    void shouldReadFileAgain_whenFileChangedSinceCached(@TempDir Path dir) throws IOException {
+        // given
+        Path path = dir.resolve("app.properties");
+        Files.writeString(path, "stringProperty=98kio98\nnumberProperty=9\ntimeProperty=29.11.2022 18:30");
+        PropertiesFileCache cache = TaskTwo.propertiesCache();
+        ExampleClass before = TaskTwo.loadFromProperties(ExampleClass.class, path);
+        long misses = cache.getMisses();
+
+        // when
+        Files.writeString(path, "stringProperty=changed\nnumberProperty=10\ntimeProperty=29.11.2022 18:30");
+        ExampleClass after = TaskTwo.loadFromProperties(ExampleClass.class, path);
+
+        // then
+        assertEquals(misses + 1, cache.getMisses());
+        assertNotEquals(before, after);
+        assertTrue(after.toString().contains("stringProperty='changed'"));
+    }
+
+    @Test
+    void shouldReturnObjectsInOrder_whenManyRequestsLoadedAtOnce() {
+        // given
+        Path path = Path.of("src/test/resources/app.properties");
+        List<BindingRequest<?>> requests = List.of(
+                BindingRequest.of(ExampleClass.class, path),
+                BindingRequest.of(ExampleClassExtendedTypes.class,
+                        Path.of("src/test/resources/appExtendedTypes.properties")),
+                BindingRequest.of(ExampleClassAnnotatedZone.class, path));
+
+        // when
+        List<Object> result = TaskTwo.loadAll(requests);
+
+        // then
+        assertEquals(3, result.size());
+        assertEquals(TaskTwo.loadFromProperties(ExampleClass.class, path), result.get(0));
+        assertInstanceOf(ExampleClassExtendedTypes.class, result.get(1));
+        assertInstanceOf(ExampleClassAnnotatedZone.class, result.get(2));
+    }
+
+    @Test
+    void shouldThrowExceptionWithAllFailures_whenSomeRequestsFail() {
+        // given
+        Path path = Path.of("src/test/resources/app.properties");
+        List<BindingRequest<?>> requests = List.of(
+                BindingRequest.of(ExampleClassAbstract.class, path),
+                BindingRequest.of(ExampleClass.class, path),
+                BindingRequest.of(ExampleClass.class, Path.of("src/test/resources/appThatDoesNotExist.properties")));
+
+        // when
+        IllegalStateException e = assertThrows(
+                IllegalStateException.class,
+                () -> TaskTwo.loadAll(requests, Runnable::run),
+                "Expected loadAll() to throw, but it didn't"
+        );
+
+        // then
+        assertTrue(e.getMessage().contains("2 of 3 bindings failed"));
+        assertTrue(e.getMessage().contains("Provided class is abstract"));
+        assertTrue(e.getMessage().contains("No file with path "));
+        assertEquals(2, e.getSuppressed().length);
+    }
+
+    @Test
+    void shouldBindNewObject_whenContentOfLiveFileChanged(@TempDir Path dir) throws IOException {
+        // given
+        Path path = dir.resolve("app.properties");
+        Files.writeString(path, "stringProperty=98kio98\nnumberProperty=9\ntimeProperty=29.11.2022 18:30");
+
+        try (Bound<ExampleClass> bound = TaskTwo.loadLive(ExampleClass.class, path)) {
+            ExampleClass first = bound.get();
+
+            // when
+            // Same content, only the last-modified time changes
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+            boolean reloadedSame = bound.reload();
+            // Replaced at once, as config tools do, so the watcher never sees a partial file
+            Path changed = dir.resolve("app.properties.tmp");
+            Files.writeString(changed, "stringProperty=98kio98\nnumberProperty=10\ntimeProperty=29.11.2022 18:30");
+            Files.move(changed, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // Picked up by the watching thread
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (bound.getVersion() == 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+
+            // then
+            assertFalse(reloadedSame);
+            assertEquals(2, bound.getVersion());
+            assertNotEquals(first, bound.get());
+            assertTrue(bound.get().toString().contains("numberProperty=10"));
+        }
+    }
+
+    @Test
+    void shouldKeepPreviousObject_whenChangedLiveFileCannotBeBound(@TempDir Path dir) throws IOException {
+        // given
+        Path path = dir.resolve("app.properties");
+        Files.writeString(path, "stringProperty=98kio98\nnumberProperty=9\ntimeProperty=29.11.2022 18:30");
+
+        try (Bound<ExampleClass> bound = TaskTwo.loadLive(ExampleClass.class, path)) {
+            ExampleClass first = bound.get();
+
+            // when
+            Path changed = dir.resolve("app.properties.tmp");
+            Files.writeString(changed, "stringProperty=98kio98\nnumberProperty=nine\ntimeProperty=29.11.2022 18:30");
+            Files.move(changed, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            IllegalStateException e = assertThrows(
+                    IllegalStateException.class,
+                    bound::reload,
+                    "Expected reload() to throw, but it didn't"
+            );
+
+            // then
+            assertTrue(e.getMessage().contains("Parsing error! Cannot assign the value "));
+            // Also set by the watching thread, if it got the change first
+            assertNotNull(bound.getLastError());
+            assertSame(first, bound.get());
+            assertEquals(1, bound.getVersion());
+        }
+    }
 }
@@ -0,0 +1,69 @@
+import org.example.task_one.ViolationTotals;
+import org.example.task_one.ViolationType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ViolationTotalsTests {
+
+    @Test
+    void shouldReturnSameDecimalsAsBigDecimalAdd_whenScalesDiffer() {
+        // given
+        List<BigDecimal> amounts = List.of(
+                new BigDecimal("1470"),
+                new BigDecimal("995.3"),
+                new BigDecimal("740.80"),
+                new BigDecimal("1E+2"),
+                new BigDecimal("0.005"));
+        ViolationTotals totals = new ViolationTotals();
+
+        // when
+        amounts.forEach(amount -> totals.add(ViolationType.SPEEDING, amount));
+
+        // then
+        BigDecimal expected = amounts.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        // equals() compares the scale as well
+        assertEquals(expected, totals.getTotal(ViolationType.SPEEDING));
+        assertEquals(5, totals.getCount(ViolationType.SPEEDING));
+    }
+
+    @Test
+    void shouldFallBackToBigDecimal_whenTotalOverflowsLong() {
+        // given
+        BigDecimal amount = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+        ViolationTotals totals = new ViolationTotals();
+
+        // when
+        totals.add(ViolationType.ACDA, amount);
+        totals.add(ViolationType.ACDA, amount);
+        totals.add(ViolationType.ACDA, new BigDecimal("0.001"));
+
+        // then
+        BigDecimal expected = amount.add(amount).add(new BigDecimal("0.001"));
+        assertEquals(expected, totals.getTotal(ViolationType.ACDA));
+    }
+
+    @Test
+    void shouldMergePartials_andSkipTypesWithoutViolations() {
+        // given
+        ViolationTotals first = new ViolationTotals();
+        first.add(ViolationType.SPEEDING, new BigDecimal("10.50"));
+        ViolationTotals second = new ViolationTotals();
+        second.add(ViolationType.SPEEDING, new BigDecimal("0.5"));
+        second.add(ViolationType.STREET_RACING, new BigDecimal("3000.00"));
+
+        // when
+        first.merge(second);
+        Map<ViolationType, BigDecimal> result = first.toMap();
+
+        // then
+        assertEquals(Map.of(
+                ViolationType.SPEEDING, new BigDecimal("11.00"),
+                ViolationType.STREET_RACING, new BigDecimal("3000.00")), result);
+        assertEquals(2, first.getCount(ViolationType.SPEEDING));
+    }
+}
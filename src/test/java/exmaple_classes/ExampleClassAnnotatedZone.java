@@ -0,0 +1,42 @@
+package exmaple_classes;
+
+import org.example.task_two.Property;
+
+import java.time.Instant;
+import java.util.Objects;
+
+public class ExampleClassAnnotatedZone {
+    private String stringProperty;
+    private int numberProperty;
+    // Taken in the given zone instead of UTC
+    @Property(zone = "Europe/Kyiv")
+    private Instant timeProperty;
+
+    public ExampleClassAnnotatedZone(String stringProperty, int numberProperty, Instant timeProperty) {
+        this.stringProperty = stringProperty;
+        this.numberProperty = numberProperty;
+        this.timeProperty = timeProperty;
+    }
+
+    @Override
+    public String toString() {
+        return "ExampleClassAnnotatedZone{" +
+                "stringProperty='" + stringProperty + '\'' +
+                ", numberProperty=" + numberProperty +
+                ", timeProperty=" + timeProperty +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ExampleClassAnnotatedZone that = (ExampleClassAnnotatedZone) o;
+        return numberProperty == that.numberProperty && Objects.equals(stringProperty, that.stringProperty) && Objects.equals(timeProperty, that.timeProperty);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(stringProperty, numberProperty, timeProperty);
+    }
+}
@@ -0,0 +1,66 @@
+package exmaple_classes;
+
+import org.example.task_two.Property;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+public class ExampleClassExtendedTypes {
+
+    // Any value goes to a String field, whatever characters it has
+    private String stringProperty;
+    private long longProperty;
+    private Boolean booleanProperty;
+    private double doubleProperty;
+    @Property(expectedPropertyName = "timeout")
+    private Duration timeoutProperty;
+    @Property(expectedPropertyName = "day")
+    private LocalDate dayProperty;
+    @Property(expectedPropertyName = "unit")
+    private TimeUnit unitProperty;
+
+    public ExampleClassExtendedTypes() {
+    }
+
+    public ExampleClassExtendedTypes(String stringProperty, long longProperty, Boolean booleanProperty,
+                                     double doubleProperty, Duration timeoutProperty,
+                                     LocalDate dayProperty, TimeUnit unitProperty) {
+        this.stringProperty = stringProperty;
+        this.longProperty = longProperty;
+        this.booleanProperty = booleanProperty;
+        this.doubleProperty = doubleProperty;
+        this.timeoutProperty = timeoutProperty;
+        this.dayProperty = dayProperty;
+        this.unitProperty = unitProperty;
+    }
+
+    @Override
+    public String toString() {
+        return "ExampleClassExtendedTypes{" +
+                "stringProperty='" + stringProperty + '\'' +
+                ", longProperty=" + longProperty +
+                ", booleanProperty=" + booleanProperty +
+                ", doubleProperty=" + doubleProperty +
+                ", timeoutProperty=" + timeoutProperty +
+                ", dayProperty=" + dayProperty +
+                ", unitProperty=" + unitProperty +
+                '}';
+    }
+
+    // For test purposes
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ExampleClassExtendedTypes that = (ExampleClassExtendedTypes) o;
+        return longProperty == that.longProperty && Double.compare(that.doubleProperty, doubleProperty) == 0 && Objects.equals(stringProperty, that.stringProperty) && Objects.equals(booleanProperty, that.booleanProperty) && Objects.equals(timeoutProperty, that.timeoutProperty) && Objects.equals(dayProperty, that.dayProperty) && unitProperty == that.unitProperty;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(stringProperty, longProperty, booleanProperty, doubleProperty, timeoutProperty, dayProperty, unitProperty);
+    }
+}
@@ -0,0 +1,49 @@
+package exmaple_classes;
+
+import org.example.task_two.Property;
+
+import java.time.Instant;
+import java.util.Objects;
+
+public class ExampleClassGeneratedBinder {
+
+    // Fields are not private, so a binder is generated at compile time
+    @Property(expectedPropertyName = "stringN")
+    String stringProperty;
+    @Property(expectedPropertyName = "number")
+    int numberProperty;
+    @Property(expectedDateTimeFormat = "dd.MM.yyyy HH:mm")
+    Instant timeProperty;
+
+    public ExampleClassGeneratedBinder(String stringProperty,
+                                       int numberProperty,
+                                       Instant timeProperty) {
+        this.stringProperty = stringProperty;
+        this.numberProperty = numberProperty;
+        this.timeProperty = timeProperty;
+    }
+
+    @Override
+    public String toString() {
+        return "ExampleClassGeneratedBinder{" +
+                "stringProperty='" + stringProperty + '\'' +
+                ", numberProperty=" + numberProperty +
+                ", timeProperty=" + timeProperty +
+                '}';
+    }
+
+    // For test purposes
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ExampleClassGeneratedBinder that = (ExampleClassGeneratedBinder) o;
+        return numberProperty == that.numberProperty && Objects.equals(stringProperty, that.stringProperty) && Objects.equals(timeProperty, that.timeProperty);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(stringProperty, numberProperty, timeProperty);
+    }
+}
@@ -0,0 +1,12 @@
+package exmaple_classes;
+
+import org.example.task_two.Property;
+
+import java.time.Instant;
+
+public class ExampleClassMalformedPattern {
+    private String stringProperty;
+    // Braces are reserved in patterns, expect Exception on the first load
+    @Property(expectedDateTimeFormat = "dd.MM.yyyy {HH:mm}")
+    private Instant timeProperty;
+}
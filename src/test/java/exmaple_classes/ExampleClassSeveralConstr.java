@@ -0,0 +1,20 @@
+package exmaple_classes;
+
+import org.example.task_two.Property;
+
+public class ExampleClassSeveralConstr {
+
+    // Fields are not private, yet no binder is generated: no constructor can be picked
+    @Property(expectedPropertyName = "stringN")
+    String stringProperty;
+    @Property(expectedPropertyName = "number")
+    int numberProperty;
+
+    public ExampleClassSeveralConstr(String stringProperty) {
+        this.stringProperty = stringProperty;
+    }
+
+    public ExampleClassSeveralConstr(int numberProperty) {
+        this.numberProperty = numberProperty;
+    }
+}
@@ -0,0 +1,28 @@
+package exmaple_classes;
+
+import java.time.Instant;
+
+public class ExampleClassStaticFinal {
+
+    public static final String DEFAULT_STRING = "default";
+    public static final int DEFAULT_NUMBER = 1;
+
+    private String stringProperty;
+    private int numberProperty;
+    private Instant timeProperty;
+
+    public ExampleClassStaticFinal() {
+    }
+
+    public String getStringProperty() {
+        return stringProperty;
+    }
+
+    public int getNumberProperty() {
+        return numberProperty;
+    }
+
+    public Instant getTimeProperty() {
+        return timeProperty;
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.task_one;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// In the package of JsonArraySplitter, which is not public
+public class JsonArraySplitterTests {
+
+    @Test
+    void shouldHashWholeContent_whenFileSplitOrParsedWhole(@TempDir Path dir) throws IOException {
+        // given
+        String element = "{\"type\": \"SPEEDING\", \"fine_amount\": 340.00}";
+        // Bytes after the closing bracket are not parsed, the hash covers them too
+        byte[] content = ("[" + String.join(",\n", List.of(element, element, element, element)) + "]\n\n")
+                .getBytes();
+        Path file = dir.resolve("violations.json");
+        Files.write(file, content);
+        CRC32C expected = new CRC32C();
+        expected.update(content);
+
+        for (InputMode inputMode : InputMode.values()) {
+            // Split into ranges, then a single chunk
+            for (long chunkSize : List.of(64L, StatsOptions.DEFAULT_CHUNK_SIZE)) {
+                CRC32C hash = new CRC32C();
+
+                // when
+                List<FileChunk> chunks = JsonArraySplitter.split(file.toFile(), chunkSize, inputMode, hash);
+                for (FileChunk chunk : chunks) {
+                    try (JsonParser parser = chunk.createParser(new JsonFactory(), inputMode)) {
+                        parser.nextToken();
+                        parser.skipChildren();
+                    }
+                }
+
+                // then
+                assertEquals(chunkSize == 64L, chunks.size() > 1);
+                assertEquals(expected.getValue(), hash.getValue(), inputMode + ", chunk size " + chunkSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.task_one;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// In the package of ViolationDateTimes, which is not public
+public class ViolationDateTimesTests {
+
+    private static final DateTimeFormatter LAYOUT = DateTimeFormatter.ofPattern("yyyy-dd-MM HH:mm:ss");
+
+    @Test
+    void shouldReturnSameMinuteAsLocalDateTime_whenEveryDayFrom1600To2400Parsed() {
+        // given
+        LocalDate day = LocalDate.of(1600, 1, 1);
+        LocalDate end = LocalDate.of(2400, 12, 31);
+
+        while (!day.isAfter(end)) {
+            LocalDateTime dateTime = day.atTime(23, 59, 58);
+            // The value in the middle of a buffer, as the parser hands it over
+            char[] buffer = ("[\"" + LAYOUT.format(dateTime) + "\"]").toCharArray();
+
+            // when
+            long epochMinute = ViolationDateTimes.parseEpochMinute(buffer, 2, ViolationDateTimes.LENGTH);
+
+            // then
+            assertEquals(Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60), epochMinute, dateTime.toString());
+            int epochDay = ViolationDateTimes.epochDay(epochMinute);
+            assertEquals(day.toEpochDay(), epochDay);
+            int yearMonth = ViolationDateTimes.yearMonthOf(epochDay);
+            assertEquals(YearMonth.from(day), YearMonth.of(ViolationDateTimes.yearOf(yearMonth),
+                    ViolationDateTimes.monthOf(yearMonth)));
+            day = day.plusDays(1);
+        }
+    }
+
+    @Test
+    void shouldReadDayBeforeMonth_whenLayoutIsYearDayMonth() {
+        // given
+        String value = "2021-05-12 08:30:00";
+
+        // when
+        long epochMinute = parse(value);
+
+        // then
+        assertEquals(LocalDateTime.of(2021, 12, 5, 8, 30).toEpochSecond(ZoneOffset.UTC) / 60, epochMinute);
+    }
+
+    @Test
+    void shouldAcceptLeapDay_onlyInLeapYears() {
+        // then
+        assertNotEquals(ViolationDateTimes.INVALID, parse("2024-29-02 00:00:00"));
+        assertNotEquals(ViolationDateTimes.INVALID, parse("2000-29-02 00:00:00"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2023-29-02 00:00:00"));
+        assertEquals(ViolationDateTimes.INVALID, parse("1900-29-02 00:00:00"));
+    }
+
+    @Test
+    void shouldReturnInvalid_whenMonthDayOrTimeOutOfRange() {
+        // then
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-17-00 22:26:43"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-17-13 22:26:43"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-00-12 22:26:43"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-31-11 22:26:43"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-17-12 24:26:43"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-17-12 22:60:43"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-17-12 22:26:60"));
+    }
+
+    @Test
+    void shouldReturnInvalid_whenLayoutDiffers() {
+        // then
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-17-12T22:26:43"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2021/17/12 22:26:43"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-17-12 22.26.43"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-17-12 22:26"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-17-12 22:26:430"));
+        assertEquals(ViolationDateTimes.INVALID, parse("202a-17-12 22:26:43"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-1/-12 22:26:43"));
+        assertEquals(ViolationDateTimes.INVALID, parse("2021-17-12 2 :26:43"));
+        assertEquals(ViolationDateTimes.INVALID, parse(""));
+    }
+
+    private static long parse(String value) {
+        return ViolationDateTimes.parseEpochMinute(value.toCharArray(), 0, value.length());
+    }
+}